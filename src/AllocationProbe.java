@@ -0,0 +1,188 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Measures how many bytes the game thread allocates per frame, and in which phase of the frame (see FramePhaseEvent)
+ * they are allocated, using the allocation counter the JVM keeps for every thread.
+ * Phases may be nested, in which case the bytes of the inner phase are also counted in the outer one.
+ */
+public class AllocationProbe {
+
+    /**
+     * The deepest nesting of phases that can be measured.
+     */
+    private static final int MAX_DEPTH = 8;
+
+    /**
+     * The JVM's thread bean, which reports the bytes allocated by the current thread.
+     */
+    private final com.sun.management.ThreadMXBean THREAD_BEAN;
+
+    /**
+     * The index of every phase seen so far, by name.
+     */
+    private final HashMap<String, Integer> PHASE_INDICES;
+
+    /**
+     * The names of the phases seen so far, in the order they were first seen.
+     */
+    private final ArrayList<String> PHASE_NAMES;
+
+    /**
+     * The bytes allocated so far in each phase, by phase index.
+     */
+    private long[] phaseBytes;
+
+    /**
+     * The indices of the phases currently running, innermost last.
+     */
+    private final int[] OPEN_PHASES;
+
+    /**
+     * The allocation counter when each of the phases currently running began.
+     */
+    private final long[] OPEN_PHASE_STARTS;
+
+    /**
+     * The number of phases currently running.
+     */
+    private int depth;
+
+    /**
+     * The allocation counter when the current frame began.
+     */
+    private long frameStart;
+
+    /**
+     * The number of frames measured.
+     */
+    private long frameCount;
+
+    /**
+     * The total bytes allocated in all frames measured.
+     */
+    private long totalBytes;
+
+    /**
+     * The most bytes allocated in a single frame.
+     */
+    private long maxFrameBytes;
+
+    /**
+     * Constructor for the allocation probe. Turns on the JVM's per-thread allocation counting if it is off.
+     * @throws IllegalStateException If the JVM cannot count the bytes allocated per thread.
+     */
+    public AllocationProbe() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            throw new IllegalStateException("This JVM cannot measure the bytes allocated per thread");
+        }
+        this.THREAD_BEAN = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!THREAD_BEAN.isThreadAllocatedMemoryEnabled()) {
+            THREAD_BEAN.setThreadAllocatedMemoryEnabled(true);
+        }
+        this.PHASE_INDICES = new HashMap<>();
+        this.PHASE_NAMES = new ArrayList<>();
+        this.phaseBytes = new long[MAX_DEPTH];
+        this.OPEN_PHASES = new int[MAX_DEPTH];
+        this.OPEN_PHASE_STARTS = new long[MAX_DEPTH];
+        this.depth = 0;
+    }
+
+    /**
+     * Starts measuring a frame.
+     */
+    public void beginFrame() {
+        depth = 0;
+        frameStart = THREAD_BEAN.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Stops measuring the current frame and adds its allocations to the totals.
+     */
+    public void endFrame() {
+        long frameBytes = THREAD_BEAN.getCurrentThreadAllocatedBytes() - frameStart;
+        frameCount++;
+        totalBytes += frameBytes;
+        maxFrameBytes = Math.max(maxFrameBytes, frameBytes);
+    }
+
+    /**
+     * Starts measuring a phase of the current frame.
+     * @param phase The name of the phase.
+     */
+    public void beginPhase(String phase) {
+        if (depth == MAX_DEPTH) {
+            throw new IllegalStateException("Frame phases nested deeper than " + MAX_DEPTH);
+        }
+        OPEN_PHASES[depth] = getPhaseIndex(phase);
+        OPEN_PHASE_STARTS[depth] = THREAD_BEAN.getCurrentThreadAllocatedBytes();
+        depth++;
+    }
+
+    /**
+     * Stops measuring the innermost phase currently running.
+     */
+    public void endPhase() {
+        depth--;
+        phaseBytes[OPEN_PHASES[depth]] += THREAD_BEAN.getCurrentThreadAllocatedBytes() - OPEN_PHASE_STARTS[depth];
+    }
+
+    /**
+     * Forgets everything measured so far, such as the frames in which the JVM was still warming up.
+     */
+    public void reset() {
+        frameCount = 0;
+        totalBytes = 0;
+        maxFrameBytes = 0;
+        phaseBytes = new long[phaseBytes.length];
+    }
+
+    /**
+     * Gets the average bytes allocated per frame measured.
+     * @return The average bytes allocated per frame, or 0 if no frame was measured.
+     */
+    public double getAverageFrameBytes() {
+        return frameCount == 0 ? 0 : (double) totalBytes / frameCount;
+    }
+
+    /**
+     * Gets the most bytes allocated in a single frame measured.
+     * @return The most bytes allocated in a frame.
+     */
+    public long getMaxFrameBytes() {
+        return maxFrameBytes;
+    }
+
+    /**
+     * Prints the average bytes allocated per frame, overall and in each phase.
+     */
+    public void printReport() {
+        System.out.printf("Frames measured: %d%n", frameCount);
+        System.out.printf("Allocated per frame: %.1f bytes on average, %d bytes at most%n",
+                getAverageFrameBytes(), maxFrameBytes);
+        for (int i = 0; i < PHASE_NAMES.size(); i++) {
+            double averageBytes = frameCount == 0 ? 0 : (double) phaseBytes[i] / frameCount;
+            System.out.printf("  %-12s %10.1f bytes per frame%n", PHASE_NAMES.get(i), averageBytes);
+        }
+    }
+
+    /**
+     * Gets the index of a phase, giving it a new one if it has not been seen before.
+     * @param phase The name of the phase.
+     * @return The index of the phase.
+     */
+    private int getPhaseIndex(String phase) {
+        Integer index = PHASE_INDICES.get(phase);
+        if (index == null) {
+            index = PHASE_NAMES.size();
+            PHASE_INDICES.put(phase, index);
+            PHASE_NAMES.add(phase);
+            if (index == phaseBytes.length) {
+                phaseBytes = Arrays.copyOf(phaseBytes, phaseBytes.length * 2);
+            }
+        }
+        return index;
+    }
+}
@@ -0,0 +1,245 @@
+import bagel.Keys;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * A bot that plays the ongoing game, by deciding once per frame which keys to hold down, for headless benchmarks and
+ * soak runs. It reads the game through the same entities the game draws, and only ever looks at their positions, so
+ * deciding costs one pass over the passengers, cars and fireballs, with no allocation.
+ * The taxi keeps to the road lanes: it stops next to the nearest waiting passenger ahead, then drives to the trip end
+ * flag and stops there. It stops for cars ahead (which drive away up the road), drives on when a car comes from
+ * behind, and steers out of the way of fireballs coming up from below. After a breakdown, the driver walks to the new
+ * taxi.
+ */
+public class Autopilot implements GameInput {
+
+    /**
+     * How far ahead of or behind the taxi, vertically, cars and fireballs are avoided.
+     */
+    private static final int HAZARD_DISTANCE = 200;
+
+    /**
+     * The screen running the game being played.
+     */
+    private final OngoingGameScreen SCREEN;
+
+    /**
+     * The x-coordinates of the centers of the road lanes, from left to right.
+     */
+    private final int[] LANE_CENTERS;
+
+    /**
+     * The radius of a fireball.
+     */
+    private final double FIREBALL_RADIUS;
+
+    /**
+     * Boolean indicating whether the up key is held down this frame.
+     */
+    private boolean isUpDown;
+
+    /**
+     * Boolean indicating whether the down key is held down this frame.
+     */
+    private boolean isDownDown;
+
+    /**
+     * Boolean indicating whether the left key is held down this frame.
+     */
+    private boolean isLeftDown;
+
+    /**
+     * Boolean indicating whether the right key is held down this frame.
+     */
+    private boolean isRightDown;
+
+    /**
+     * Constructor for the autopilot.
+     * @param screen The screen running the game to be played.
+     * @param gameProps The properties object containing game configuration values.
+     */
+    public Autopilot(OngoingGameScreen screen, Properties gameProps) {
+        this.SCREEN = screen;
+        this.LANE_CENTERS = new int[] {
+                Integer.parseInt(gameProps.getProperty("roadLaneCenter1")),
+                Integer.parseInt(gameProps.getProperty("roadLaneCenter2")),
+                Integer.parseInt(gameProps.getProperty("roadLaneCenter3"))
+        };
+        this.FIREBALL_RADIUS = Double.parseDouble(gameProps.getProperty("gameObjects.fireball.radius"));
+    }
+
+    /**
+     * Decides which keys to hold down this frame. This function is called every frame before the game is updated.
+     */
+    public void update() {
+        isUpDown = false;
+        isDownDown = false;
+        isLeftDown = false;
+        isRightDown = false;
+
+        Gameplay gameplay = SCREEN.getGameplay();
+        Taxi taxi = gameplay.getTaxi();
+        if (!taxi.hasDriver()) {
+            walkTo(gameplay.getDriver(), taxi);
+            return;
+        }
+
+        // Decide which lane to drive in, and whether to stop to pick up or drop off a passenger.
+        int targetX = getNearestLaneCenter(taxi.getX());
+        boolean isStopping = false;
+        TripEndFlag flag = gameplay.getTripEndFlag();
+        if (taxi.hasPassenger() && !taxi.isPassengerMovingToFlag() && flag != null) {
+            targetX = getNearestLaneCenter(flag.getX());
+            isStopping = flag.getY() >= taxi.getY() || flag.isWithinRadius(taxi.getX(), taxi.getY());
+        } else if (!taxi.hasPassenger()) {
+            Passenger passenger = getNextWaitingPassenger(gameplay.getPassengers(), taxi);
+            if (passenger != null) {
+                targetX = getNearestLaneCenter(passenger.getX());
+                isStopping = taxi.isAdjacentToPassenger(passenger);
+            }
+        }
+
+        // Steer out of the way of fireballs, which only ever come from below.
+        int fireballX = getThreateningFireballX(gameplay.getFireballs(), taxi);
+        if (fireballX != Integer.MIN_VALUE) {
+            steerAwayFrom(fireballX, taxi.getX());
+            return;
+        }
+
+        if (taxi.getX() != targetX) {
+            isLeftDown = targetX < taxi.getX();
+            isRightDown = targetX > taxi.getX();
+            return;
+        }
+
+        List<Car> cars = gameplay.getCars();
+        boolean isCarAhead = isCarNearby(cars, taxi, -HAZARD_DISTANCE, 0);
+        boolean isCarBehind = isCarNearby(cars, taxi, 0, HAZARD_DISTANCE);
+        if (isCarAhead && isCarBehind) {
+            steerAwayFrom(taxi.getX(), taxi.getX());
+        } else if (isCarBehind || (!isStopping && !isCarAhead)) {
+            isUpDown = true;
+        }
+    }
+
+    /**
+     * Checks if a key is held down by the autopilot this frame.
+     * @param key The key to be checked.
+     * @return True if the key is held down, false otherwise.
+     */
+    @Override
+    public boolean isDown(Keys key) {
+        switch (key) {
+            case UP:
+                return isUpDown;
+            case DOWN:
+                return isDownDown;
+            case LEFT:
+                return isLeftDown;
+            case RIGHT:
+                return isRightDown;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Walks the driver towards the taxi.
+     * @param driver The driver, who is outside the taxi.
+     * @param taxi The taxi the driver walks to.
+     */
+    private void walkTo(Driver driver, Taxi taxi) {
+        isLeftDown = driver.getX() > taxi.getX();
+        isRightDown = driver.getX() < taxi.getX();
+        isUpDown = driver.getY() > taxi.getY();
+        isDownDown = driver.getY() < taxi.getY();
+    }
+
+    /**
+     * Finds the nearest passenger ahead of the taxi (or beside it) still waiting to be picked up.
+     * @param passengers All passengers in the game.
+     * @param taxi The taxi.
+     * @return The nearest waiting passenger ahead of the taxi, or null if there is none.
+     */
+    private static Passenger getNextWaitingPassenger(List<Passenger> passengers, Taxi taxi) {
+        Passenger nextPassenger = null;
+        for (int i = 0; i < passengers.size(); i++) {
+            Passenger passenger = passengers.get(i);
+            if (!passenger.isPickedUp() && passenger.getCurrentHealth() > 0
+                    && passenger.getY() <= taxi.getY() + passenger.getDetectRadius()
+                    && (nextPassenger == null || passenger.getY() > nextPassenger.getY())) {
+                nextPassenger = passenger;
+            }
+        }
+        return nextPassenger;
+    }
+
+    /**
+     * Finds a fireball coming up from below that would hit the taxi if it stayed where it is.
+     * @param fireballs The fireballs in flight.
+     * @param taxi The taxi.
+     * @return The x-coordinate of the fireball, or Integer.MIN_VALUE if there is none.
+     */
+    private int getThreateningFireballX(List<Fireball> fireballs, Taxi taxi) {
+        for (int i = 0; i < fireballs.size(); i++) {
+            Fireball fireball = fireballs.get(i);
+            int distanceBelow = fireball.getY() - taxi.getY();
+            if (!fireball.isCollided() && distanceBelow > 0 && distanceBelow < HAZARD_DISTANCE
+                    && Math.abs(fireball.getX() - taxi.getX()) < taxi.getRadius() + FIREBALL_RADIUS) {
+                return fireball.getX();
+            }
+        }
+        return Integer.MIN_VALUE;
+    }
+
+    /**
+     * Checks if a working car is in the taxi's way within a vertical range relative to the taxi.
+     * @param cars The cars in the game.
+     * @param taxi The taxi.
+     * @param minOffsetY The top of the range, relative to the taxi (negative is ahead).
+     * @param maxOffsetY The bottom of the range, relative to the taxi (positive is behind).
+     * @return True if a car is in the taxi's way within the range, false otherwise.
+     */
+    private static boolean isCarNearby(List<Car> cars, Taxi taxi, int minOffsetY, int maxOffsetY) {
+        for (int i = 0; i < cars.size(); i++) {
+            Car car = cars.get(i);
+            int offsetY = car.getY() - taxi.getY();
+            if (car.getCurrentHealth() > 0 && offsetY >= minOffsetY && offsetY <= maxOffsetY
+                    && Math.abs(car.getX() - taxi.getX()) < taxi.getRadius() + car.getRadius()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Steers the taxi sideways away from an x-coordinate, towards the middle of the road if it is straight ahead.
+     * @param dangerX The x-coordinate to steer away from.
+     * @param taxiX The x-coordinate of the taxi.
+     */
+    private void steerAwayFrom(int dangerX, int taxiX) {
+        int roadCenter = LANE_CENTERS[LANE_CENTERS.length / 2];
+        if (taxiX > dangerX || (taxiX == dangerX && taxiX < roadCenter)) {
+            isRightDown = taxiX < LANE_CENTERS[LANE_CENTERS.length - 1];
+            isLeftDown = !isRightDown;
+        } else {
+            isLeftDown = taxiX > LANE_CENTERS[0];
+            isRightDown = !isLeftDown;
+        }
+    }
+
+    /**
+     * Finds the road lane center nearest to an x-coordinate.
+     * @param x The x-coordinate.
+     * @return The x-coordinate of the nearest lane center.
+     */
+    private int getNearestLaneCenter(int x) {
+        int nearestCenter = LANE_CENTERS[0];
+        for (int laneCenter : LANE_CENTERS) {
+            if (Math.abs(laneCenter - x) < Math.abs(nearestCenter - x)) {
+                nearestCenter = laneCenter;
+            }
+        }
+        return nearestCenter;
+    }
+}
@@ -0,0 +1,33 @@
+import bagel.Input;
+import bagel.Keys;
+
+/**
+ * The game input read from the player's keyboard through bagel.
+ * Bagel hands over its input every frame, so the same adapter is pointed at the latest input instead of creating a
+ * new one per frame.
+ */
+public class BagelGameInput implements GameInput {
+
+    /**
+     * The bagel input of the current frame.
+     */
+    private Input input;
+
+    /**
+     * Points the adapter at the bagel input of the current frame.
+     * @param input The current mouse/keyboard input.
+     */
+    public void setInput(Input input) {
+        this.input = input;
+    }
+
+    /**
+     * Checks if a key is currently held down on the keyboard.
+     * @param key The key to be checked.
+     * @return True if the key is held down, false otherwise.
+     */
+    @Override
+    public boolean isDown(Keys key) {
+        return input.isDown(key);
+    }
+}
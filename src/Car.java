@@ -1,5 +1,8 @@
 import bagel.*;
+import java.nio.ByteBuffer;
 import java.util.Properties;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
 
 /**
  * An abstract class for Car, an object entity that can move on its own without user input.
@@ -11,7 +14,7 @@ public abstract class Car implements Drawable, Damageable {
     /**
      * The image representing the car.
      */
-    protected final Image IMAGE;
+    protected final Sprite IMAGE;
 
     /**
      * The collision radius of the car.
@@ -69,14 +72,10 @@ public abstract class Car implements Drawable, Damageable {
     protected final int ROAD_LANE_CENTER_3;
 
     /**
-     * The number of frames remaining to separate the car from another damageable object post-collision.
+     * The collision timeout of the car, used to separate it from another damageable object post-collision and to
+     * prevent further collisions for a while.
      */
-    private int initialCollisionTimeoutFramesRemaining;
-
-    /**
-     * The number of frames remaining before the car can collide with another damageable object after any collision.
-     */
-    private int collisionTimeoutFramesRemaining;
+    private final CollisionTimeout COLLISION_TIMEOUT;
 
     /**
      * A boolean indicating whether the fire effect has been added when the car's health reaches 0.
@@ -89,9 +88,9 @@ public abstract class Car implements Drawable, Damageable {
     private double currentHealth;
 
     /**
-     * The fixed speed of the car.
+     * The fixed speed of the car, chosen randomly when the car is created (or restored from a game snapshot).
      */
-    private final int SPEED;
+    private int speed;
 
     /**
      * The current x-coordinate position of the car.
@@ -122,6 +121,7 @@ public abstract class Car implements Drawable, Damageable {
      * Constructor for Car class.
      * Initialises its starting (x, y) position, image, radius, starting health, and fixed vertical speed.
      * @param gameProps The game properties object containing various game configuration values.
+     * @param timingWheel The timing wheel on which the car's collision timeout timers are scheduled.
      * @param imagePath The string path to the image of the car.
      * @param radiusProperty The property key to the radius property of the car.
      * @param healthProperty The property key to the health property of the car.
@@ -129,11 +129,11 @@ public abstract class Car implements Drawable, Damageable {
      * @param minSpeedYProperty The property key to the minimum fixed vertical speed of the car.
      * @param maxSpeedYProperty The property key to the maximum fixed vertical speed of the car.
      */
-    public Car(Properties gameProps, String imagePath, String radiusProperty, String healthProperty,
-               String damageProperty, String minSpeedYProperty, String maxSpeedYProperty) {
+    public Car(Properties gameProps, TimingWheel timingWheel, String imagePath, String radiusProperty,
+               String healthProperty, String damageProperty, String minSpeedYProperty, String maxSpeedYProperty) {
 
         int PROPS_TO_GAME_MULTIPLIER = 100; // The game properties stores health and damage as (value / 100).
-        IMAGE = new Image(imagePath);
+        IMAGE = SpriteCache.getSprite(imagePath);
         RADIUS = Double.parseDouble(gameProps.getProperty(radiusProperty));
         HEALTH = Double.parseDouble(gameProps.getProperty(healthProperty)) * PROPS_TO_GAME_MULTIPLIER;
         DAMAGE = Double.parseDouble(gameProps.getProperty(damageProperty)) * PROPS_TO_GAME_MULTIPLIER;
@@ -145,10 +145,11 @@ public abstract class Car implements Drawable, Damageable {
         ROAD_LANE_CENTER_3 = Integer.parseInt(gameProps.getProperty("roadLaneCenter3"));
 
         this.currentHealth = HEALTH;
-        this.SPEED = getRandomSpeed();
+        this.speed = getRandomSpeed();
         this.x = getRandomPositionX();
         this.y = getRandomPositionY();
         this.fireEffectAdded = false;
+        this.COLLISION_TIMEOUT = new CollisionTimeout(timingWheel);
     }
 
     /**
@@ -178,20 +179,19 @@ public abstract class Car implements Drawable, Damageable {
     }
 
     /**
-     * Update the collision timeout frames remaining if it is currently in collision timeout.
      * Calls another method to continue separation of object from collided object if still in initial timeout.
      * If not currently in collision timeout, then moves the object in y direction according to its fixed speed.
      * Renders the object where necessary.
      * @param input The current mouse/keyboard input.
      * @param taxi The current active taxi on gameplay screen.
      */
-    public void update(Input input, Taxi taxi, Driver driver) {
-        updateCollisionTimeoutFramesRemaining();
+    public void update(GameInput input, Taxi taxi, Driver driver) {
 
         // Check if still in collision timeout
-        if (collisionTimeoutFramesRemaining > 0) {
+        if (COLLISION_TIMEOUT.isActive()) {
             separateFromObject(collidingOtherObject);
         } else {
+            collidingOtherObject = null; // Let go of the other object, so it can be removed from the game.
             moveUp(input, taxi, driver);
         }
         draw();
@@ -203,20 +203,20 @@ public abstract class Car implements Drawable, Damageable {
      * @param taxi The current active taxi on gameplay screen.
      * @param driver The current driver entity.
      */
-    private void moveUp(Input input, Taxi taxi, Driver driver) {
+    private void moveUp(GameInput input, Taxi taxi, Driver driver) {
         // Account for relative velocity.
         if (input.isDown(Keys.UP) && taxi.hasDriver()) {
             // Taxi is moving up on screen.
-            this.y -= (SPEED - taxi.SCROLL_SPEED);
+            this.y -= (speed - taxi.SCROLL_SPEED);
         } else if (input.isDown(Keys.UP) && !taxi.hasDriver()) {
             // Driver is moving up on screen.
-            this.y -= (SPEED - driver.getWalkSpeedY());
+            this.y -= (speed - driver.getWalkSpeedY());
         } else if (input.isDown(Keys.DOWN) && !taxi.hasDriver()) {
             // Driver is moving down on screen.
-            this.y -= (SPEED + driver.getWalkSpeedY());
+            this.y -= (speed + driver.getWalkSpeedY());
         } else {
             // Not taxi not driver is currently moving on screen.
-            this.y -= SPEED;
+            this.y -= speed;
         }
     }
 
@@ -254,14 +254,11 @@ public abstract class Car implements Drawable, Damageable {
     @Override
     public boolean handleCollision(Car other) {
         if (other.getCurrentHealth() > 0) {
-            double distance = getDistanceTo(other.getX(), other.getY());
-            double collisionRange = this.getRadius() + other.getRadius();
-            if (collisionTimeoutFramesRemaining == 0 && distance < collisionRange) {
+            if (!COLLISION_TIMEOUT.isActive() && collidesWith(other)) {
                 this.receiveDamage(other.getDamage());
                 collidingOtherObject = other;
                 other.receiveCollision(this);
-                collisionTimeoutFramesRemaining = COLLISION_TIMEOUT_FRAMES_TOTAL;
-                initialCollisionTimeoutFramesRemaining = COLLISION_TIMEOUT_FRAMES_INITIAL;
+                COLLISION_TIMEOUT.start(COLLISION_TIMEOUT_FRAMES_INITIAL, COLLISION_TIMEOUT_FRAMES_TOTAL);
                 return true;
             }
         }
@@ -269,17 +266,13 @@ public abstract class Car implements Drawable, Damageable {
     }
 
     /**
-     * Reduces the collision timeout frames remaining if it is still active.
-     * This function is called once every frame.
+     * Checks if this object still refers to another object it collided with, which it does until it lets go of it.
+     * @param other The other object.
+     * @return True if this object still refers to the other object, false otherwise.
      */
     @Override
-    public void updateCollisionTimeoutFramesRemaining() {
-        if (initialCollisionTimeoutFramesRemaining > 0) {
-            initialCollisionTimeoutFramesRemaining--;
-        }
-        if (collisionTimeoutFramesRemaining > 0) {
-            collisionTimeoutFramesRemaining--;
-        }
+    public boolean isStillCollidedWith(Damageable other) {
+        return collidingOtherObject == other;
     }
 
     /**
@@ -289,7 +282,7 @@ public abstract class Car implements Drawable, Damageable {
      */
     @Override
     public void separateFromObject(Damageable other) {
-        if (initialCollisionTimeoutFramesRemaining > 0 && initialCollisionTimeoutFramesRemaining <= 10) {
+        if (COLLISION_TIMEOUT.isSeparating()) {
             int otherY = other.getY();
             int thisY = this.getY();
 
@@ -308,26 +301,22 @@ public abstract class Car implements Drawable, Damageable {
      * @param other The other object that car has collided with
      */
     public void receiveCollision(Damageable other) {
-        double distance = getDistanceTo(other.getX(), other.getY());
-        double collisionRange = this.getRadius() + other.getRadius();
-        if (collisionTimeoutFramesRemaining == 0 && distance < collisionRange) {
+        if (!COLLISION_TIMEOUT.isActive() && collidesWith(other)) {
             this.receiveDamage(other.getDamage());
             collidingOtherObject = other;
-            collisionTimeoutFramesRemaining = COLLISION_TIMEOUT_FRAMES_TOTAL;
-            initialCollisionTimeoutFramesRemaining = COLLISION_TIMEOUT_FRAMES_INITIAL;
+            COLLISION_TIMEOUT.start(COLLISION_TIMEOUT_FRAMES_INITIAL, COLLISION_TIMEOUT_FRAMES_TOTAL);
         }
     }
 
 
     /**
-     * Calculates the Euclidean distance of the car and another object.
-     * @param otherX The x-coordinate of the other object.
-     * @param otherY The y-coordinate of the other object.
-     * @return The Euclidean distance between the car and the other object.
+     * Checks if the car is closer to another damageable object than their combined collision radius.
+     * @param other The other damageable object.
+     * @return True if both objects overlap, false otherwise.
      */
-    @Override
-    public double getDistanceTo(double otherX, double otherY) {
-        return Math.sqrt(Math.pow(otherX - this.x, 2) + Math.pow(otherY - this.y, 2));
+    private boolean collidesWith(Damageable other) {
+        return GeometryUtils.isStrictlyWithinRange(x, y, other.getX(), other.getY(),
+                this.getRadius() + other.getRadius());
     }
 
     /**
@@ -406,4 +395,40 @@ public abstract class Car implements Drawable, Damageable {
     public boolean isFireEffectAdded() {
         return fireEffectAdded;
     }
+
+    /**
+     * Stops the car's own timers when it is removed from the game. Cars without timers of their own do nothing.
+     */
+    public void despawn() {
+    }
+
+    /**
+     * Writes the state of the car to a game snapshot.
+     * @param buffer The buffer to write to.
+     * @param damageableIndices Gives the index of a damageable object in the snapshot, or -1 for null.
+     */
+    public void writeState(ByteBuffer buffer, ToIntFunction<Damageable> damageableIndices) {
+        buffer.putInt(x);
+        buffer.putInt(y);
+        buffer.putInt(speed);
+        buffer.putDouble(currentHealth);
+        SnapshotUtils.putBoolean(buffer, fireEffectAdded);
+        buffer.putInt(damageableIndices.applyAsInt(collidingOtherObject));
+        COLLISION_TIMEOUT.writeState(buffer);
+    }
+
+    /**
+     * Restores the state of the car from a game snapshot.
+     * @param buffer The buffer to read from.
+     * @param damageables Gives the damageable object at an index in the snapshot, or null for -1.
+     */
+    public void readState(ByteBuffer buffer, IntFunction<Damageable> damageables) {
+        x = buffer.getInt();
+        y = buffer.getInt();
+        speed = buffer.getInt();
+        currentHealth = buffer.getDouble();
+        fireEffectAdded = SnapshotUtils.getBoolean(buffer);
+        collidingOtherObject = damageables.apply(buffer.getInt());
+        COLLISION_TIMEOUT.readState(buffer);
+    }
 }
@@ -0,0 +1,48 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event emitted when a car (other car or enemy car) is spawned.
+ */
+@Name("shadowtaxi.CarSpawn")
+@Label("Car Spawn")
+@Category({"ShadowTaxi", "Gameplay"})
+@Description("A car was spawned on the road")
+public class CarSpawnEvent extends Event {
+
+    /**
+     * The class of the car that was spawned.
+     */
+    @Label("Car Type")
+    private Class<?> carType;
+
+    /**
+     * The X-coordinate the car was spawned at.
+     */
+    @Label("X")
+    private int x;
+
+    /**
+     * The Y-coordinate the car was spawned at.
+     */
+    @Label("Y")
+    private int y;
+
+    /**
+     * Emits the event for a car that was just spawned.
+     * Costs nothing beyond the enabled check when the event is not being recorded.
+     * @param car The car that was spawned.
+     */
+    public static void emit(Car car) {
+        CarSpawnEvent event = new CarSpawnEvent();
+        if (event.shouldCommit()) {
+            event.carType = car.getClass();
+            event.x = car.getX();
+            event.y = car.getY();
+            event.commit();
+        }
+    }
+}
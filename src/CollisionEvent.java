@@ -0,0 +1,50 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event emitted when two objects collide and the first of them takes damage.
+ */
+@Name("shadowtaxi.Collision")
+@Label("Collision")
+@Category({"ShadowTaxi", "Gameplay"})
+@Description("An object took damage from colliding with another object")
+public class CollisionEvent extends Event {
+
+    /**
+     * The class of the object that took damage.
+     */
+    @Label("Damaged Type")
+    private Class<?> damagedType;
+
+    /**
+     * The class of the object it collided with.
+     */
+    @Label("Other Type")
+    private Class<?> otherType;
+
+    /**
+     * The damage taken.
+     */
+    @Label("Damage")
+    private double damage;
+
+    /**
+     * Emits the event for a collision that just happened.
+     * Costs nothing beyond the enabled check when the event is not being recorded.
+     * @param damaged The object that took damage.
+     * @param other The object it collided with.
+     * @param damage The damage taken.
+     */
+    public static void emit(Object damaged, Object other, double damage) {
+        CollisionEvent event = new CollisionEvent();
+        if (event.shouldCommit()) {
+            event.damagedType = damaged.getClass();
+            event.otherType = other.getClass();
+            event.damage = damage;
+            event.commit();
+        }
+    }
+}
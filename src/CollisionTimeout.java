@@ -0,0 +1,96 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Tracks the collision timeout of a damageable entity using timers on the timing wheel.
+ * After a collision, the entity separates from the other object for a short initial period, and cannot be involved
+ * in another collision until the whole timeout has passed.
+ */
+public class CollisionTimeout {
+
+    /**
+     * The timing wheel on which the timeout timers are scheduled.
+     */
+    private final TimingWheel TIMING_WHEEL;
+
+    /**
+     * The timer that ends the initial separation period.
+     */
+    private final WheelTimer SEPARATION_TIMER;
+
+    /**
+     * The timer that ends the whole collision timeout.
+     */
+    private final WheelTimer TIMEOUT_TIMER;
+
+    /**
+     * Boolean indicating whether the entity is still separating from the object it has collided with.
+     */
+    private boolean isSeparating;
+
+    /**
+     * Boolean indicating whether the entity is currently unable to be involved in collisions.
+     */
+    private boolean isActive;
+
+    /**
+     * Constructor for collision timeout.
+     * @param timingWheel The timing wheel on which the timeout timers are scheduled.
+     */
+    public CollisionTimeout(TimingWheel timingWheel) {
+        this.TIMING_WHEEL = timingWheel;
+        this.SEPARATION_TIMER = new WheelTimer(() -> isSeparating = false);
+        this.TIMEOUT_TIMER = new WheelTimer(() -> isActive = false);
+        this.isSeparating = false;
+        this.isActive = false;
+    }
+
+    /**
+     * Starts the collision timeout after a collision has occurred.
+     * @param separationFrames The number of frames the entity separates from the other object.
+     * @param totalFrames The total number of frames the entity is unable to be involved in collisions.
+     */
+    public void start(int separationFrames, int totalFrames) {
+        isSeparating = true;
+        isActive = true;
+        TIMING_WHEEL.schedule(SEPARATION_TIMER, separationFrames);
+        TIMING_WHEEL.schedule(TIMEOUT_TIMER, totalFrames);
+    }
+
+    /**
+     * Writes the state of the collision timeout to a game snapshot.
+     * @param buffer The buffer to write to.
+     */
+    public void writeState(ByteBuffer buffer) {
+        SnapshotUtils.putBoolean(buffer, isSeparating);
+        SnapshotUtils.putBoolean(buffer, isActive);
+        TIMING_WHEEL.writeTimer(buffer, SEPARATION_TIMER);
+        TIMING_WHEEL.writeTimer(buffer, TIMEOUT_TIMER);
+    }
+
+    /**
+     * Restores the state of the collision timeout from a game snapshot, rescheduling its pending timers.
+     * @param buffer The buffer to read from.
+     */
+    public void readState(ByteBuffer buffer) {
+        isSeparating = SnapshotUtils.getBoolean(buffer);
+        isActive = SnapshotUtils.getBoolean(buffer);
+        TIMING_WHEEL.readTimer(buffer, SEPARATION_TIMER);
+        TIMING_WHEEL.readTimer(buffer, TIMEOUT_TIMER);
+    }
+
+    /**
+     * Checks if the entity is still separating from the object it has collided with.
+     * @return True if the initial separation period is still ongoing, false otherwise.
+     */
+    public boolean isSeparating() {
+        return isSeparating;
+    }
+
+    /**
+     * Checks if the collision timeout is still active.
+     * @return True if the entity cannot be involved in collisions yet, false otherwise.
+     */
+    public boolean isActive() {
+        return isActive;
+    }
+}
@@ -35,12 +35,6 @@ public interface Damageable {
      */
     boolean handleCollision(Car other);
 
-    /**
-     * Reduces the collision timeout frames remaining if it is still active.
-     * This function is called once every frame.
-     */
-    void updateCollisionTimeoutFramesRemaining();
-
     /**
      * Separates the damageable object from another object (post-collision during initial timeout frames).
      * For 10 frames, moves the damageable object vertically upwards if it is above the other object, or vice versa.
@@ -49,12 +43,12 @@ public interface Damageable {
     void separateFromObject(Damageable other);
 
     /**
-     * Calculates the Euclidean distance of this damageable entity and another object.
-     * @param otherX The x-coordinate of the other object.
-     * @param otherY The y-coordinate of the other object.
-     * @return The Euclidean distance between this damageable entity and the other object.
+     * Checks if the damageable entity still refers to another object it collided with. It does until it lets go of
+     * the other object, after separating from it (or, for a car, once its collision timeout ends).
+     * @param other The other object.
+     * @return True if the damageable entity still refers to the other object, false otherwise.
      */
-    double getDistanceTo(double otherX, double otherY);
+    boolean isStillCollidedWith(Damageable other);
 
     /**
      * Gets the current x-coordinate of the damageable entity.
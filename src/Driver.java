@@ -1,5 +1,8 @@
 import bagel.*;
+import java.nio.ByteBuffer;
 import java.util.Properties;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
 
 /**
  * Class representing the driver entity. Driver needs to be inside a taxi for a taxi to work.
@@ -13,16 +16,6 @@ import java.util.Properties;
  */
 public class Driver extends Entity implements Damageable, Ejectable {
 
-    /**
-     * The font size used to render driver's health on screen.
-     */
-    private final int FONT_SIZE;
-
-    /**
-     * The file path to the font used to render driver's health on screen.
-     */
-    private final String FONT_PATH;
-
     /**
      * The driver's walking speed in the X (horizontal) direction.
      */
@@ -38,15 +31,20 @@ public class Driver extends Entity implements Damageable, Ejectable {
      */
     private final int TAXI_GET_IN_RADIUS;
 
+    /**
+     * The squared taxi get in radius, cached so adjacency checks against the taxi need no square root.
+     */
+    private final double SQUARED_TAXI_GET_IN_RADIUS;
+
     /**
      * The maximum health of driver (i.e. initial health of driver upon creation).
      */
     private final double HEALTH;
 
     /**
-     * The text rendered on the screen representing the driver's health.
+     * The label rendered on the screen representing the driver's health.
      */
-    private final String DRIVER_TEXT;
+    private final HudLabel DRIVER_HEALTH_LABEL;
 
     /**
      * The X-coordinate where the driver's health text is rendered.
@@ -94,14 +92,10 @@ public class Driver extends Entity implements Damageable, Ejectable {
     private Car collidingCar;
 
     /**
-     * The number of frames remaining to separate the driver from another damageable object post-collision.
-     */
-    private int initialCollisionTimeoutFramesRemaining;
-
-    /**
-     * The number of frames remaining before the driver can collide with another damageable object after any collision.
+     * The collision timeout of the driver, used to separate it from another damageable object post-collision and to
+     * prevent further collisions for a while.
      */
-    private int collisionTimeoutFramesRemaining;
+    private final CollisionTimeout COLLISION_TIMEOUT;
 
     /**
      * Power-up state class used to track the state of power-ups in-game (i.e. if any power-ups are currently active).
@@ -114,26 +108,29 @@ public class Driver extends Entity implements Damageable, Ejectable {
      * @param x The starting X position of the driver entity.
      * @param y The starting Y position of the driver entity.
      * @param powerUpState The class used to track the state of power-ups in the game.
+     * @param timingWheel The timing wheel on which the driver's collision timeout timers are scheduled.
      * @param gameProps The game properties object containing various game configuration values.
      * @param messageProps The message properties object containing various in-game text configuration values.
      */
-    public Driver(int x, int y, PowerUpState powerUpState, Properties gameProps, Properties messageProps) {
+    public Driver(int x, int y, PowerUpState powerUpState, TimingWheel timingWheel,
+                  Properties gameProps, Properties messageProps) {
         super(x, y, gameProps, "gameObjects.driver.image", "gameObjects.driver.radius");
 
         int PROPS_TO_GAME_MULTIPLIER = 100; // The game properties stores health and damage as (value / 100).
         WALK_SPEED_X = Integer.parseInt(gameProps.getProperty("gameObjects.driver.walkSpeedX"));
         WALK_SPEED_Y = Integer.parseInt(gameProps.getProperty("gameObjects.driver.walkSpeedY"));
         TAXI_GET_IN_RADIUS = Integer.parseInt(gameProps.getProperty("gameObjects.driver.taxiGetInRadius"));
+        SQUARED_TAXI_GET_IN_RADIUS = GeometryUtils.getSquaredRange(TAXI_GET_IN_RADIUS);
         HEALTH = Double.parseDouble(gameProps.getProperty("gameObjects.driver.health")) * PROPS_TO_GAME_MULTIPLIER;
 
-        FONT_SIZE = Integer.parseInt(gameProps.getProperty("gamePlay.info.fontSize"));
-        FONT_PATH = gameProps.getProperty("font");
-
-        DRIVER_TEXT = messageProps.getProperty("gamePlay.driverHealth");
+        GameFont font = new GameFont(gameProps.getProperty("font"),
+                Integer.parseInt(gameProps.getProperty("gamePlay.info.fontSize")));
+        DRIVER_HEALTH_LABEL = new HudLabel(font, messageProps.getProperty("gamePlay.driverHealth"), null);
         DRIVER_TEXT_X = Integer.parseInt(gameProps.getProperty("gamePlay.driverHealth.x"));
         DRIVER_TEXT_Y = Integer.parseInt(gameProps.getProperty("gamePlay.driverHealth.y"));
 
         this.POWER_UP_STATE = powerUpState;
+        this.COLLISION_TIMEOUT = new CollisionTimeout(timingWheel);
         this.currentHealth = HEALTH;
         this.inTaxi = false;
     }
@@ -151,17 +148,13 @@ public class Driver extends Entity implements Damageable, Ejectable {
     }
 
     /**
-     * Reduces the collision timeout frames remaining if it is still active.
-     * This function is called once every frame.
+     * Checks if this object still refers to another object it collided with, which it does until it lets go of it.
+     * @param other The other object.
+     * @return True if this object still refers to the other object, false otherwise.
      */
     @Override
-    public void updateCollisionTimeoutFramesRemaining() {
-        if (initialCollisionTimeoutFramesRemaining > 0) {
-            initialCollisionTimeoutFramesRemaining--;
-        }
-        if (collisionTimeoutFramesRemaining > 0) {
-            collisionTimeoutFramesRemaining--;
-        }
+    public boolean isStillCollidedWith(Damageable other) {
+        return collidingCar == other;
     }
 
     /**
@@ -171,7 +164,7 @@ public class Driver extends Entity implements Damageable, Ejectable {
      */
     @Override
     public void separateFromObject(Damageable other) {
-        if (initialCollisionTimeoutFramesRemaining > 0 && initialCollisionTimeoutFramesRemaining <= 10) {
+        if (COLLISION_TIMEOUT.isSeparating()) {
             int otherX = other.getX();
             int otherY = other.getY();
             int thisX = this.getX();
@@ -202,17 +195,15 @@ public class Driver extends Entity implements Damageable, Ejectable {
     @Override
     public boolean handleCollision(Car other) {
         if (other.getCurrentHealth() > 0 && !inTaxi) {
-            double distance = getDistanceTo(other.getX(), other.getY());
-            double collisionRange = this.getRadius() + other.getRadius();
-            if (collisionTimeoutFramesRemaining == 0 && distance < collisionRange) {
+            if (!COLLISION_TIMEOUT.isActive() && GeometryUtils.isStrictlyWithinRange(getX(), getY(),
+                    other.getX(), other.getY(), this.getRadius() + other.getRadius())) {
                 collidingCar = other;
                 other.receiveCollision(this); // Other entity always receives damage regardless of active power-up.
                 if (POWER_UP_STATE.isInvincibleActivated()) {
                     // Invincible power is active, so a collision has not happened.
                     return false;
                 }
-                collisionTimeoutFramesRemaining = COLLISION_TIMEOUT_FRAMES_TOTAL;
-                initialCollisionTimeoutFramesRemaining = COLLISION_TIMEOUT_FRAMES_INITIAL;
+                COLLISION_TIMEOUT.start(COLLISION_TIMEOUT_FRAMES_INITIAL, COLLISION_TIMEOUT_FRAMES_TOTAL);
                 this.receiveDamage(other.getDamage());
                 return true;
             }
@@ -221,7 +212,6 @@ public class Driver extends Entity implements Damageable, Ejectable {
     }
 
     /**
-     * Update the collision timeout frames remaining if it is currently in collision timeout.
      * If not in taxi, move the driver according to user's input up, down, left, and right.
      * Keep driver updated with taxi's position if it is inside a taxi.
      * During an initial collision timeout of 10 frames, continue to separate the driver from the other collided object.
@@ -229,7 +219,7 @@ public class Driver extends Entity implements Damageable, Ejectable {
      * @param input The current mouse/keyboard input.
      * @param taxi The currently active taxi entity.
      */
-    public void update(Input input, Taxi taxi) {
+    public void update(GameInput input, Taxi taxi) {
         if (!inTaxi) {
             draw();
             if (input.isDown(Keys.UP)) {
@@ -245,9 +235,11 @@ public class Driver extends Entity implements Damageable, Ejectable {
                 moveRight();
             }
         }
-        updateCollisionTimeoutFramesRemaining();
         updateWithTaxiMovement(taxi.getX(), taxi.getY());
         separateFromObject(collidingCar);
+        if (!COLLISION_TIMEOUT.isSeparating()) {
+            collidingCar = null; // Let go of the other object once separated, so it can be removed from the game.
+        }
         renderHealth();
     }
 
@@ -292,25 +284,14 @@ public class Driver extends Entity implements Damageable, Ejectable {
         }
     }
 
-    /**
-     * Helper function to calculate the Euclidean distance to any other coordinates.
-     * @param targetX The X position of the other object/entity.
-     * @param targetY The Y position of the other object/entity.
-     * @return The Euclidean distance between this driver and target object/entity.
-     */
-    @Override
-    public double getDistanceTo(double targetX, double targetY) {
-        return Math.sqrt(Math.pow((targetX - getX()), 2) + Math.pow((targetY - getY()), 2));
-    }
-
     /**
      * Checks if driver has collided with any power-ups.
      * @param powerUp The power-up object (i.e. coin or invincible power).
      * @return True if driver has collided with any power-up, false otherwise.
      */
     public boolean collidedWith(PowerUp powerUp) {
-        double collisionRange = RADIUS + powerUp.getRadius();
-        return getDistanceTo(powerUp.getX(), powerUp.getY()) <= collisionRange;
+        return GeometryUtils.isWithinRange(getX(), getY(), powerUp.getX(), powerUp.getY(),
+                RADIUS + powerUp.getRadius());
     }
 
     /**
@@ -327,8 +308,7 @@ public class Driver extends Entity implements Damageable, Ejectable {
      * Renders the driver's health on the top right of ongoing game screen.
      */
     private void renderHealth() {
-        Font font = new Font(FONT_PATH, FONT_SIZE);
-        font.drawString( DRIVER_TEXT + currentHealth, DRIVER_TEXT_X, DRIVER_TEXT_Y);
+        DRIVER_HEALTH_LABEL.draw(currentHealth, DRIVER_TEXT_X, DRIVER_TEXT_Y);
     }
 
     /**
@@ -380,6 +360,12 @@ public class Driver extends Entity implements Damageable, Ejectable {
      */
     public int getTaxiGetInRadius() { return TAXI_GET_IN_RADIUS; }
 
+    /**
+     * Gets the squared radius responsible for checking if driver can enter the taxi.
+     * @return The squared taxi get in radius.
+     */
+    public double getSquaredTaxiGetInRadius() { return SQUARED_TAXI_GET_IN_RADIUS; }
+
     /**
      * Gets the vertical walk speed of the driver.
      * @return The vertical walk speed of the driver.
@@ -387,4 +373,30 @@ public class Driver extends Entity implements Damageable, Ejectable {
     public int getWalkSpeedY() {
         return WALK_SPEED_Y;
     }
+
+    /**
+     * Writes the state of the driver to a game snapshot.
+     * @param buffer The buffer to write to.
+     * @param carIndices Gives the index of a car in the snapshot, or -1 for null.
+     */
+    public void writeState(ByteBuffer buffer, ToIntFunction<Car> carIndices) {
+        writePosition(buffer);
+        SnapshotUtils.putBoolean(buffer, inTaxi);
+        buffer.putDouble(currentHealth);
+        buffer.putInt(carIndices.applyAsInt(collidingCar));
+        COLLISION_TIMEOUT.writeState(buffer);
+    }
+
+    /**
+     * Restores the state of the driver from a game snapshot.
+     * @param buffer The buffer to read from.
+     * @param cars Gives the car at an index in the snapshot, or null for -1.
+     */
+    public void readState(ByteBuffer buffer, IntFunction<Car> cars) {
+        readPosition(buffer);
+        inTaxi = SnapshotUtils.getBoolean(buffer);
+        currentHealth = buffer.getDouble();
+        collidingCar = cars.apply(buffer.getInt());
+        COLLISION_TIMEOUT.readState(buffer);
+    }
 }
@@ -1,6 +1,8 @@
+import java.nio.ByteBuffer;
 import java.util.Properties;
 import java.util.ArrayList;
-import bagel.Input;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
 
 /**
  * Class representing the Enemy Car entity, which has all functionalities as Car.
@@ -8,11 +10,6 @@ import bagel.Input;
  */
 public class EnemyCar extends Car {
 
-    /**
-     * The rate at which fireballs can be spawned.
-     */
-    private final int FIREBALL_SPAWN_RATE = 300;
-
     /**
      * The game properties object containing various game configuration values.
      */
@@ -24,47 +21,80 @@ public class EnemyCar extends Car {
      */
     private ArrayList<Fireball> fireballs;
 
+    /**
+     * The schedule on which the enemy car shoots fireballs.
+     */
+    private final SpawnSchedule FIREBALL_SPAWNS;
+
     /**
      * Constructor for Enemy Car class.
      * Initialises its initial (x, y) position, image, radius, starting health, damage, fixed speed. (Extends from car).
      * @param gameProps The game properties object containing various game configuration values.
      * @param fireballs The global list of fireballs to where the enemy car can add to when successfully creating new
      *                  fireballs.
+     * @param timingWheel The timing wheel on which the car's collision timeout and fireball timers are scheduled.
+     * @param fireballSpawnRate The rate at which the enemy car shoots fireballs.
      */
-    public EnemyCar(Properties gameProps, ArrayList<Fireball> fireballs) {
-        super(gameProps,
+    public EnemyCar(Properties gameProps, ArrayList<Fireball> fireballs, TimingWheel timingWheel,
+                    int fireballSpawnRate) {
+        super(gameProps, timingWheel,
                 gameProps.getProperty("gameObjects.enemyCar.image"),
                 "gameObjects.enemyCar.radius", "gameObjects.enemyCar.health",
                 "gameObjects.enemyCar.damage", "gameObjects.enemyCar.minSpeedY",
                 "gameObjects.enemyCar.maxSpeedY");
         this.GAME_PROPS = gameProps;
         this.fireballs = fireballs;
+        this.FIREBALL_SPAWNS = new SpawnSchedule(timingWheel, this::shootFireball);
+        FIREBALL_SPAWNS.setSpawnRate(fireballSpawnRate);
     }
 
     /**
-     * By calling car's update() function,
-     * Update the collision timeout frames remaining if it is currently in collision timeout.
-     * Calls another method to continue separation of object from collided object if still in initial timeout.
-     * If not currently in collision timeout, then moves the object in y direction according to its fixed speed.
-     * Renders the object where necessary.
-     * Furthermore, it attempts to spawn fireballs randomly, according to the set fireball spawn rate.
+     * Changes the rate at which the enemy car shoots fireballs, for when the traffic changes.
+     * @param fireballSpawnRate The new rate at which the enemy car shoots fireballs.
+     */
+    public void setFireballSpawnRate(int fireballSpawnRate) {
+        FIREBALL_SPAWNS.setSpawnRate(fireballSpawnRate);
+    }
+
+    /**
+     * Stops shooting fireballs, as the enemy car has been removed from the game.
      */
     @Override
-    public void update(Input input, Taxi taxi, Driver driver) {
-        super.update(input, taxi, driver);
-        // Fireball spawns if (1000 % FIREBALL_SPAWN_RATE == 0).
-        if (MiscUtils.canSpawn(FIREBALL_SPAWN_RATE)) {
-            shootFireball();
-        }
+    public void despawn() {
+        FIREBALL_SPAWNS.stop();
+    }
+
+    /**
+     * Writes the state of the enemy car to a game snapshot, including the frames until it next shoots a fireball.
+     * @param buffer The buffer to write to.
+     * @param damageableIndices Gives the index of a damageable object in the snapshot, or -1 for null.
+     */
+    @Override
+    public void writeState(ByteBuffer buffer, ToIntFunction<Damageable> damageableIndices) {
+        super.writeState(buffer, damageableIndices);
+        FIREBALL_SPAWNS.writeState(buffer);
+    }
+
+    /**
+     * Restores the state of the enemy car from a game snapshot, including the frames until it next shoots a fireball.
+     * @param buffer The buffer to read from.
+     * @param damageables Gives the damageable object at an index in the snapshot, or null for -1.
+     */
+    @Override
+    public void readState(ByteBuffer buffer, IntFunction<Damageable> damageables) {
+        super.readState(buffer, damageables);
+        FIREBALL_SPAWNS.readState(buffer);
     }
 
     /**
      * Shoots a fireball from the enemy car's current position if the car's health is greater than 0.
      * The new fireball is then added to the global list of fireballs.
+     * This function is run by the fireball spawn schedule, at random times according to the fireball spawn rate.
      */
     private void shootFireball() {
         if (getCurrentHealth() > 0) {
             fireballs.add(new Fireball(GAME_PROPS, getX(), getY(), this));
+            FireballShotEvent.emit(getX(), getY());
         }
     }
 }
@@ -1,4 +1,5 @@
 import bagel.*;
+import java.nio.ByteBuffer;
 import java.util.Properties;
 
 /**
@@ -10,7 +11,7 @@ public abstract class Entity implements Drawable, Scrollable {
     /**
      * The image of the entity.
      */
-    protected final Image IMAGE;
+    protected final Sprite IMAGE;
 
     /**
      * The radius of the entity, used for collision detection.
@@ -45,7 +46,7 @@ public abstract class Entity implements Drawable, Scrollable {
         this.x = x;
         this.y = y;
 
-        IMAGE = new Image(gameProps.getProperty(imageProperty));
+        IMAGE = SpriteCache.getSprite(gameProps.getProperty(imageProperty));
         RADIUS = Double.parseDouble(gameProps.getProperty(radiusProperty));
         SCROLL_SPEED = Integer.parseInt(gameProps.getProperty("gameObjects.taxi.speedY"));
     }
@@ -55,7 +56,7 @@ public abstract class Entity implements Drawable, Scrollable {
      * Draws the entity as well.
      * @param input The current mouse/keyboard input.
      */
-    public void update(Input input) {
+    public void update(GameInput input) {
         if (input.isDown(Keys.UP)) {
             moveDown();
         }
@@ -110,6 +111,24 @@ public abstract class Entity implements Drawable, Scrollable {
         this.y = y;
     }
 
+    /**
+     * Writes the position of the entity to a game snapshot.
+     * @param buffer The buffer to write to.
+     */
+    protected void writePosition(ByteBuffer buffer) {
+        buffer.putInt(x);
+        buffer.putInt(y);
+    }
+
+    /**
+     * Restores the position of the entity from a game snapshot.
+     * @param buffer The buffer to read from.
+     */
+    protected void readPosition(ByteBuffer buffer) {
+        x = buffer.getInt();
+        y = buffer.getInt();
+    }
+
     /**
      * Gets the radius of the entity.
      * @return The radius of the entity.
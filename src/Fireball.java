@@ -1,7 +1,6 @@
-import bagel.Image;
-import bagel.Input;
 import bagel.Keys;
 
+import java.nio.ByteBuffer;
 import java.util.Properties;
 
 /**
@@ -14,7 +13,7 @@ public class Fireball implements Drawable {
     /**
      * The image of the fireball.
      */
-    private final Image IMAGE;
+    private final Sprite IMAGE;
 
     /**
      * The radius of the fireball used for collision detection.
@@ -61,7 +60,7 @@ public class Fireball implements Drawable {
      */
     public Fireball(Properties gameProps, int startX, int startY, EnemyCar SPAWNED_BY) {
         int PROPS_TO_GAME_MULTIPLIER = 100;
-        this.IMAGE = new Image(gameProps.getProperty("gameObjects.fireball.image"));
+        this.IMAGE = SpriteCache.getSprite(gameProps.getProperty("gameObjects.fireball.image"));
         this.RADIUS = Double.parseDouble(gameProps.getProperty("gameObjects.fireball.radius"));
         this.DAMAGE = Double.parseDouble(gameProps.getProperty("gameObjects.fireball.damage"))
                 * PROPS_TO_GAME_MULTIPLIER;
@@ -78,7 +77,7 @@ public class Fireball implements Drawable {
      * Updates the fireball's entity state.
      * Moves the fireball upwards and draws it.
      */
-    public void update(Input input, Taxi taxi, Driver driver) {
+    public void update(GameInput input, Taxi taxi, Driver driver) {
         moveUp(input, taxi, driver);
         draw();
     }
@@ -91,19 +90,7 @@ public class Fireball implements Drawable {
      * @return True if the fireball collides with the object, false otherwise.
      */
     public boolean collidesWith(int otherX, int otherY, double otherRadius) {
-        double distance = getDistanceTo(otherX, otherY);
-        double collisionRange = this.RADIUS + otherRadius;
-        return distance < collisionRange;
-    }
-
-    /**
-     * Calculates the distance from the fireball to another object.
-     * @param otherX The x-coordinate of the other object.
-     * @param otherY The y-coordinate of the other object.
-     * @return The distance between the fireball and the other object.
-     */
-    public double getDistanceTo(double otherX, double otherY) {
-        return Math.sqrt(Math.pow(otherX - this.x, 2) + Math.pow(otherY - this.y, 2));
+        return GeometryUtils.isStrictlyWithinRange(x, y, otherX, otherY, this.RADIUS + otherRadius);
     }
 
     /**
@@ -112,7 +99,7 @@ public class Fireball implements Drawable {
      * @param taxi The current active taxi on gameplay screen.
      * @param driver The current driver entity.
      */
-    private void moveUp(Input input, Taxi taxi, Driver driver) {
+    private void moveUp(GameInput input, Taxi taxi, Driver driver) {
         // Account for relative velocity.
         if (input.isDown(Keys.UP) && taxi.hasDriver()) {
             // Taxi is moving up on screen.
@@ -163,6 +150,22 @@ public class Fireball implements Drawable {
         return SPAWNED_BY;
     }
 
+    /**
+     * Gets the current x-coordinate of the fireball.
+     * @return The current x-coordinate of the fireball.
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Gets the current y-coordinate of the fireball.
+     * @return The current y-coordinate of the fireball.
+     */
+    public int getY() {
+        return y;
+    }
+
     /**
      * Set the fireball as it has been collided.
      */
@@ -177,4 +180,25 @@ public class Fireball implements Drawable {
     public boolean isCollided() {
         return isCollided;
     }
+
+    /**
+     * Writes the state of the fireball to a game snapshot.
+     * The car that shot the fireball is written by the gameplay.
+     * @param buffer The buffer to write to.
+     */
+    public void writeState(ByteBuffer buffer) {
+        buffer.putInt(x);
+        buffer.putInt(y);
+        SnapshotUtils.putBoolean(buffer, isCollided);
+    }
+
+    /**
+     * Restores the state of the fireball from a game snapshot.
+     * @param buffer The buffer to read from.
+     */
+    public void readState(ByteBuffer buffer) {
+        x = buffer.getInt();
+        y = buffer.getInt();
+        isCollided = SnapshotUtils.getBoolean(buffer);
+    }
 }
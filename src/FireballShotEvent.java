@@ -0,0 +1,42 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event emitted when an enemy car shoots a fireball.
+ */
+@Name("shadowtaxi.FireballShot")
+@Label("Fireball Shot")
+@Category({"ShadowTaxi", "Gameplay"})
+@Description("An enemy car shot a fireball")
+public class FireballShotEvent extends Event {
+
+    /**
+     * The X-coordinate the fireball was shot from.
+     */
+    @Label("X")
+    private int x;
+
+    /**
+     * The Y-coordinate the fireball was shot from.
+     */
+    @Label("Y")
+    private int y;
+
+    /**
+     * Emits the event for a fireball that was just shot.
+     * Costs nothing beyond the enabled check when the event is not being recorded.
+     * @param x The X-coordinate the fireball was shot from.
+     * @param y The Y-coordinate the fireball was shot from.
+     */
+    public static void emit(int x, int y) {
+        FireballShotEvent event = new FireballShotEvent();
+        if (event.shouldCommit()) {
+            event.x = x;
+            event.y = y;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Measures how long each frame takes to update and draw, and records it in the game metrics.
+ * Frames in which the game switches screens are also recorded in a histogram of their own, so a hitch when switching
+ * screens shows up as transition frame times that are much slower than the frame times.
+ */
+public class FrameLatencyTracker {
+
+    /**
+     * The metrics in which the frame times are recorded.
+     */
+    private final GameMetrics METRICS;
+
+    /**
+     * The time at which the current frame started, in nanoseconds.
+     */
+    private long frameStart;
+
+    /**
+     * Boolean indicating whether the game switches screens in the current frame.
+     */
+    private boolean isTransition;
+
+    /**
+     * Constructor for the frame latency tracker.
+     * @param metrics The metrics in which the frame times are recorded.
+     */
+    public FrameLatencyTracker(GameMetrics metrics) {
+        this.METRICS = metrics;
+    }
+
+    /**
+     * Starts timing a frame. This function is called at the start of every frame.
+     */
+    public void beginFrame() {
+        frameStart = System.nanoTime();
+        isTransition = false;
+    }
+
+    /**
+     * Marks the current frame as a transition between screens, to be recorded as one when the frame ends.
+     */
+    public void markTransition() {
+        isTransition = true;
+    }
+
+    /**
+     * Stops timing the current frame and records its time, also as a transition frame if it was marked as one.
+     * This function is called at the end of every frame.
+     */
+    public void endFrame() {
+        long frameNanos = System.nanoTime() - frameStart;
+        METRICS.recordFrame(frameNanos);
+        if (isTransition) {
+            METRICS.recordTransitionFrame(frameNanos);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event timing one phase of a frame, such as running the gameplay or rendering.
+ * When an allocation probe is set, the bytes allocated in each phase are measured as well.
+ * Usage: FramePhaseEvent phase = FramePhaseEvent.start("gameplay"); ... phase.finish();
+ */
+@Name("shadowtaxi.FramePhase")
+@Label("Frame Phase")
+@Category({"ShadowTaxi", "Frame"})
+@Description("The time taken by one phase of a frame")
+@StackTrace(false)
+public class FramePhaseEvent extends Event {
+
+    /**
+     * The name of the phase.
+     */
+    @Label("Phase")
+    private String phase;
+
+    /**
+     * The probe measuring the allocations of each phase, or null if allocations are not being measured.
+     */
+    private static AllocationProbe allocationProbe;
+
+    /**
+     * The type of frame phase events, which tells whether they are being recorded without creating an event.
+     */
+    private static final EventType EVENT_TYPE = EventType.getEventType(FramePhaseEvent.class);
+
+    /**
+     * The event returned while frame phase events are not being recorded, so that timing a phase allocates nothing.
+     * It is never committed.
+     */
+    private static final FramePhaseEvent UNRECORDED = new FramePhaseEvent();
+
+    /**
+     * Sets the probe measuring the allocations of each phase, used when the game is run headlessly.
+     * @param probe The probe measuring the allocations of each phase, or null to stop measuring allocations.
+     */
+    public static void setAllocationProbe(AllocationProbe probe) {
+        allocationProbe = probe;
+    }
+
+    /**
+     * Starts timing a phase of the current frame.
+     * Costs nothing beyond the enabled check when the event is not being recorded, as no event is created then.
+     * @param phase The name of the phase.
+     * @return The event, to be finished when the phase ends.
+     */
+    public static FramePhaseEvent start(String phase) {
+        FramePhaseEvent event = UNRECORDED;
+        if (EVENT_TYPE.isEnabled()) {
+            event = new FramePhaseEvent();
+            event.phase = phase;
+        }
+        if (allocationProbe != null) {
+            allocationProbe.beginPhase(phase);
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Stops timing the phase, and records it if the event is being recorded.
+     */
+    public void finish() {
+        end();
+        if (allocationProbe != null) {
+            allocationProbe.endPhase();
+        }
+        if (this != UNRECORDED && shouldCommit()) {
+            commit();
+        }
+    }
+}
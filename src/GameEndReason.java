@@ -0,0 +1,19 @@
+/**
+ * GameEndReason indicates the 5 possible reasons an ongoing game can end for, in the order they are checked.
+ * Reaching the target score is the only reason that results in a win.
+ */
+public enum GameEndReason {
+    OUT_OF_FRAMES,
+    TARGET_SCORE_REACHED,
+    TAXI_LEFT_WITHOUT_DRIVER,
+    DRIVER_DEAD,
+    PASSENGER_DEAD;
+
+    /**
+     * Checks if the game ending for this reason is a win.
+     * @return True if the game was won, false if it was lost.
+     */
+    public boolean isWin() {
+        return this == TARGET_SCORE_REACHED;
+    }
+}
@@ -2,7 +2,6 @@ import bagel.*;
 import bagel.Font;
 import java.util.ArrayList;
 import java.util.Properties;
-import java.util.Collections;
 
 /**
  * GameEndScreen class handles all the logic of the end of the game.
@@ -11,19 +10,14 @@ import java.util.Collections;
 public class GameEndScreen extends Screen {
 
     /**
-     * The font size for displaying the scores.
+     * The font used for displaying the scores.
      */
-    private final int SCORES_FONT_SIZE;
+    private final Font SCORES_FONT;
 
     /**
-     * The font size for displaying the win/loss status.
+     * The font used for displaying the win/loss status.
      */
-    private final int STATUS_FONT_SIZE;
-
-    /**
-     * The file path for storing and retrieving scores.
-     */
-    private final String SCORES_FILE;
+    private final Font STATUS_FONT;
 
     /**
      * The text displayed for the highest scores section.
@@ -40,6 +34,11 @@ public class GameEndScreen extends Screen {
      */
     private final String LOST_TEXT;
 
+    /**
+     * The Y-coordinate for displaying the current player's rank and personal best.
+     */
+    private final int PLAYER_STATS_Y;
+
     /**
      * The Y-coordinate for displaying the scores text.
      */
@@ -56,67 +55,98 @@ public class GameEndScreen extends Screen {
     private final double TARGET_SCORE;
 
     /**
-     * The maximum number of top scores to display.
+     * The distance between lines of text drawn in the game end screen.
+     */
+    private final int DISTANCE_BETWEEN_LINES;
+
+    /**
+     * The leaderboard the current player's score is recorded in.
      */
-    private final int MAX_NUM_SCORES;
+    private final Leaderboard LEADERBOARD;
 
     /**
-     * The distance between lines of text drawn in the game end screen.
+     * The texts of the top scores to be displayed on the game end screen.
      */
-    private final int DISTANCE_BETWEEN_LINES;
+    private final ArrayList<String> TOP_SCORE_TEXTS;
+
+    /**
+     * Whether the top scores, rank and personal best are displayed, which they are not if the leaderboard is
+     * unavailable.
+     */
+    private boolean isLeaderboardShown;
 
     /**
-     * The list of top scores to be displayed on the game end screen.
+     * The text showing the current player's rank and percentile among every recorded game.
      */
-    private final ArrayList<ScoreEntry> TOP_SCORES;
+    private String rankText;
 
     /**
-     * The current player's name.
+     * The text showing the current player's best score over every recorded game.
      */
-    private final String PLAYER_NAME;
+    private String personalBestText;
 
     /**
-     * The current player's final score.
+     * The won/lost status text of the current player.
      */
-    private final double PLAYER_SCORE;
+    private String winLoseText;
 
     /**
      * Constructor for GameEndScreen class.
-     * Initialises the current player name, current player score, as well as both game and message properties.
-     * @param playerName The current player's name.
-     * @param playerScore The current player's score.
+     * Loads the background image and fonts up front, so that showing the screen at the end of a game only has to
+     * record the score and prepare the texts.
+     * @param leaderboard The leaderboard the current player's score is recorded in.
      * @param gameProperties The properties object containing game configuration values.
      * @param messageProperties The properties object containing rendered text configuration values.
      */
-    public GameEndScreen(String playerName, double playerScore,
-                         Properties gameProperties, Properties messageProperties) {
-        super(gameProperties, messageProperties, new Image(gameProperties.getProperty("backgroundImage.gameEnd")));
+    public GameEndScreen(Leaderboard leaderboard, Properties gameProperties, Properties messageProperties) {
+        super(gameProperties, messageProperties,
+                SpriteCache.getSprite(gameProperties.getProperty("backgroundImage.gameEnd")));
 
-        this.PLAYER_NAME = playerName;
-        this.PLAYER_SCORE = playerScore;
+        this.LEADERBOARD = leaderboard;
 
-        SCORES_FONT_SIZE = Integer.parseInt(GAME_PROPS.getProperty("gameEnd.scores.fontSize"));
-        STATUS_FONT_SIZE = Integer.parseInt(GAME_PROPS.getProperty("gameEnd.status.fontSize"));
+        SCORES_FONT = new Font(FONT_PATH, Integer.parseInt(GAME_PROPS.getProperty("gameEnd.scores.fontSize")));
+        STATUS_FONT = new Font(FONT_PATH, Integer.parseInt(GAME_PROPS.getProperty("gameEnd.status.fontSize")));
 
         SCORES_TEXT = MESSAGE_PROPS.getProperty("gameEnd.highestScores");
         WON_TEXT = MESSAGE_PROPS.getProperty("gameEnd.won");
         LOST_TEXT = MESSAGE_PROPS.getProperty("gameEnd.lost");
 
+        PLAYER_STATS_Y = Integer.parseInt(GAME_PROPS.getProperty("gameEnd.playerStats.y"));
         SCORES_Y = Integer.parseInt(GAME_PROPS.getProperty("gameEnd.scores.y"));
         WON_LOST_Y = Integer.parseInt(GAME_PROPS.getProperty("gameEnd.status.y"));
 
         TARGET_SCORE = Double.parseDouble(GAME_PROPS.getProperty("gamePlay.target"));
 
-        SCORES_FILE = GAME_PROPS.getProperty("gameEnd.scoresFile");
-
-        MAX_NUM_SCORES = 5;
         DISTANCE_BETWEEN_LINES = 40;
 
-        // Load top scores after SCORES_FILE is initialized.
-        this.TOP_SCORES = loadTopScores();
+        TOP_SCORE_TEXTS = new ArrayList<>(ScoreHistory.MAX_NUM_TOP_SCORES);
+    }
+
+    /**
+     * Prepares the screen for a player whose game has just ended.
+     * Records the player's score in the leaderboard, then takes the top scores, rank and personal best including it.
+     * If the leaderboard is unavailable, only the win/loss status is displayed.
+     * @param playerName The current player's name.
+     * @param playerScore The current player's final score.
+     */
+    public void show(String playerName, double playerScore) {
+        LEADERBOARD.record(playerName, playerScore);
+        winLoseText = playerScore >= TARGET_SCORE ? WON_TEXT : LOST_TEXT;
 
-        // Write current player's score to the score file.
-        IOUtils.writeScoreToFile(SCORES_FILE, this.PLAYER_NAME + "," + this.PLAYER_SCORE);
+        TOP_SCORE_TEXTS.clear();
+        isLeaderboardShown = LEADERBOARD.isAvailable();
+        if (!isLeaderboardShown) {
+            return;
+        }
+        for (ScoreEntry scoreEntry : LEADERBOARD.getTopScores()) {
+            TOP_SCORE_TEXTS.add(scoreEntry.toString());
+        }
+        rankText = new StringBuilder(MESSAGE_PROPS.getProperty("gameEnd.rank"))
+                .append(LEADERBOARD.getRank(playerScore)).append(" / ").append(LEADERBOARD.getGameCount())
+                .append(" (").append(MESSAGE_PROPS.getProperty("gameEnd.percentile"))
+                .append(String.format("%.1f", LEADERBOARD.getPercentile(playerScore))).append(")").toString();
+        personalBestText = MESSAGE_PROPS.getProperty("gameEnd.personalBest")
+                .concat(String.format("%.2f", LEADERBOARD.getPlayerBest(playerName)));
     }
 
     /**
@@ -126,52 +156,31 @@ public class GameEndScreen extends Screen {
     public void draw() {
         super.draw();
 
-        Font scoresFont = new Font(FONT_PATH, SCORES_FONT_SIZE);
-        scoresFont.drawString(SCORES_TEXT, (Window.getWidth() -
-                scoresFont.getWidth(SCORES_TEXT)) / 2.0, SCORES_Y);
-
-        // Renders the top 5 scores
-        int scorePositionY = SCORES_Y + DISTANCE_BETWEEN_LINES;
-        for (ScoreEntry scoreEntry : TOP_SCORES) {
-            String scoreText = scoreEntry.toString();
-            scoresFont.drawString(scoreText, (Window.getWidth() -
-                    scoresFont.getWidth(scoreText)) / 2.0, scorePositionY);
-            scorePositionY += DISTANCE_BETWEEN_LINES;
+        if (isLeaderboardShown) {
+            // Render the current player's rank and personal best.
+            drawCentered(SCORES_FONT, rankText, PLAYER_STATS_Y);
+            drawCentered(SCORES_FONT, personalBestText, PLAYER_STATS_Y + DISTANCE_BETWEEN_LINES);
+            drawCentered(SCORES_FONT, SCORES_TEXT, SCORES_Y);
+
+            // Renders the top 5 scores
+            int scorePositionY = SCORES_Y + DISTANCE_BETWEEN_LINES;
+            for (String scoreText : TOP_SCORE_TEXTS) {
+                drawCentered(SCORES_FONT, scoreText, scorePositionY);
+                scorePositionY += DISTANCE_BETWEEN_LINES;
+            }
         }
 
-        Font winLoseFont = new Font(FONT_PATH, STATUS_FONT_SIZE);
-
         // Render the won/lost status text.
-        String winLoseText = PLAYER_SCORE >= TARGET_SCORE ? WON_TEXT : LOST_TEXT;
-        winLoseFont.drawString(winLoseText, (Window.getWidth() -
-                winLoseFont.getWidth(winLoseText)) / 2.0, WON_LOST_Y);
+        drawCentered(STATUS_FONT, winLoseText, WON_LOST_Y);
     }
 
     /**
-     * Loads the scores file.
-     * Sort all entries in descending order according to the score.
-     * Takes the top 5 score to be shown on screen.
-     * @return A list of the top 5 scores to be displayed on the screen.
+     * Draws text centered horizontally in the window.
+     * @param font The font used to draw the text.
+     * @param text The text to be drawn.
+     * @param y The Y-coordinate of the bottom of the text.
      */
-    private ArrayList<ScoreEntry> loadTopScores() {
-        ArrayList<ScoreEntry> scores = new ArrayList<>();
-        String[][] scoreEntries = IOUtils.readCommaSeparatedFile(SCORES_FILE);
-
-        for (String[] scoreEntry : scoreEntries) {
-            String name = scoreEntry[0];
-            double score = Double.parseDouble(scoreEntry[1]);
-            scores.add(new ScoreEntry(name, score));
-        }
-
-        // Add the current player's name and score to the list.
-        scores.add(new ScoreEntry(PLAYER_NAME, PLAYER_SCORE));
-
-        // Sort scores in descending order.
-        Collections.sort(scores);
-
-        int numOfRecords = scores.size();
-
-        // Return the top 5 scores (or fewer if there are less than 5).
-        return new ArrayList<>(scores.subList(0, Math.min(numOfRecords, MAX_NUM_SCORES)));
+    private void drawCentered(Font font, String text, double y) {
+        font.drawString(text, (Window.getWidth() - font.getWidth(text)) / 2.0, y);
     }
 }
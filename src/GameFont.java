@@ -0,0 +1,44 @@
+import bagel.Font;
+
+/**
+ * Class representing a font that text can be drawn and measured with.
+ * When the game runs headless (see Headless), the font file is never loaded, drawing does nothing, and all text is
+ * measured as 0 wide.
+ */
+public class GameFont {
+
+    /**
+     * The font, or null if the game runs headless.
+     */
+    private final Font FONT;
+
+    /**
+     * Constructor for a font.
+     * @param fontPath The file path of the font (e.g. res/FSO8BITR.TTF).
+     * @param fontSize The size of the font.
+     */
+    public GameFont(String fontPath, int fontSize) {
+        this.FONT = Headless.isEnabled() ? null : new Font(fontPath, fontSize);
+    }
+
+    /**
+     * Draws text with its bottom left corner at the given position.
+     * @param text The text to be drawn.
+     * @param x The X-coordinate of the start of the text.
+     * @param y The Y-coordinate of the baseline of the text.
+     */
+    public void drawString(String text, double x, double y) {
+        if (FONT != null) {
+            FONT.drawString(text, x, y);
+        }
+    }
+
+    /**
+     * Measures the width of text drawn in this font.
+     * @param text The text to be measured.
+     * @return The width of the text, or 0 if the game runs headless.
+     */
+    public double getWidth(String text) {
+        return FONT == null ? 0 : FONT.getWidth(text);
+    }
+}
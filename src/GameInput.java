@@ -0,0 +1,16 @@
+import bagel.Keys;
+
+/**
+ * Interface for the keyboard input the ongoing game is played with.
+ * During normal play this is the player's keyboard (see BagelGameInput), but it can be anything that decides which
+ * keys are held down, so the game can also be run headlessly without a window.
+ */
+public interface GameInput {
+
+    /**
+     * Checks if a key is currently held down.
+     * @param key The key to be checked.
+     * @return True if the key is held down, false otherwise.
+     */
+    boolean isDown(Keys key);
+}
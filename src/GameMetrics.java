@@ -0,0 +1,199 @@
+/**
+ * The metrics of the game: counters of gameplay events, gauges of what is currently in play, and latency histograms
+ * of frame, update and draw times. All of them are registered in a metrics registry, from which they are exported.
+ * Every method here is cheap enough to be called from the game thread every frame.
+ */
+public class GameMetrics {
+
+    /**
+     * The counter of cars spawned.
+     */
+    private final MetricCounter CARS_SPAWNED;
+
+    /**
+     * The counter of collisions in which something took damage.
+     */
+    private final MetricCounter COLLISIONS;
+
+    /**
+     * The counter of trips started.
+     */
+    private final MetricCounter TRIPS_STARTED;
+
+    /**
+     * The counter of trips completed.
+     */
+    private final MetricCounter TRIPS_COMPLETED;
+
+    /**
+     * The counter of drivers and passengers ejected from broken taxis.
+     */
+    private final MetricCounter EJECTIONS;
+
+    /**
+     * The number of games ended for each reason, indexed by the ordinal of the reason.
+     */
+    private final MetricCounter[] GAMES_ENDED;
+
+    /**
+     * The gauge of cars currently on the road.
+     */
+    private final MetricGauge LIVE_CARS;
+
+    /**
+     * The gauge of fireballs currently in flight.
+     */
+    private final MetricGauge LIVE_FIREBALLS;
+
+    /**
+     * The gauge of temporary effects (blood, fire, smoke) currently shown.
+     */
+    private final MetricGauge LIVE_EFFECTS;
+
+    /**
+     * The gauge of passengers currently on screen.
+     */
+    private final MetricGauge PASSENGERS_ON_SCREEN;
+
+    /**
+     * The histogram of whole frame times.
+     */
+    private final LatencyHistogram FRAME_TIME;
+
+    /**
+     * The histogram of times taken by frames in which the game switches screens.
+     */
+    private final LatencyHistogram TRANSITION_FRAME_TIME;
+
+    /**
+     * The histogram of times taken to update the ongoing game.
+     */
+    private final LatencyHistogram UPDATE_TIME;
+
+    /**
+     * The histogram of times taken to draw the ongoing game.
+     */
+    private final LatencyHistogram DRAW_TIME;
+
+    /**
+     * Constructor for the game metrics. Registers every metric in the registry.
+     * @param registry The registry the metrics are registered in.
+     */
+    public GameMetrics(MetricsRegistry registry) {
+        CARS_SPAWNED = registry.counter("shadowtaxi_cars_spawned_total", "Cars spawned.");
+        COLLISIONS = registry.counter("shadowtaxi_collisions_total", "Collisions in which something took damage.");
+        TRIPS_STARTED = registry.counter("shadowtaxi_trips_started_total", "Trips started.");
+        TRIPS_COMPLETED = registry.counter("shadowtaxi_trips_completed_total", "Trips completed.");
+        EJECTIONS = registry.counter("shadowtaxi_ejections_total",
+                "Drivers and passengers ejected from broken taxis.");
+        GAMES_ENDED = new MetricCounter[GameEndReason.values().length];
+        for (GameEndReason reason : GameEndReason.values()) {
+            GAMES_ENDED[reason.ordinal()] = registry.counter(
+                    "shadowtaxi_games_ended_" + reason.name().toLowerCase() + "_total",
+                    "Games ended with reason " + reason.name() + ".");
+        }
+
+        LIVE_CARS = registry.gauge("shadowtaxi_cars", "Cars currently on the road.");
+        LIVE_FIREBALLS = registry.gauge("shadowtaxi_fireballs", "Fireballs currently in flight.");
+        LIVE_EFFECTS = registry.gauge("shadowtaxi_effects", "Temporary effects currently shown.");
+        PASSENGERS_ON_SCREEN = registry.gauge("shadowtaxi_passengers_on_screen", "Passengers currently on screen.");
+        Runtime runtime = Runtime.getRuntime();
+        registry.gauge("shadowtaxi_heap_used_bytes", "Java heap currently in use.",
+                () -> runtime.totalMemory() - runtime.freeMemory());
+
+        FRAME_TIME = registry.histogram("shadowtaxi_frame_seconds", "Time taken by a whole frame.");
+        TRANSITION_FRAME_TIME = registry.histogram("shadowtaxi_transition_frame_seconds",
+                "Time taken by a frame in which the game switches screens, such as when a game ends.");
+        UPDATE_TIME = registry.histogram("shadowtaxi_update_seconds", "Time taken to update the ongoing game.");
+        DRAW_TIME = registry.histogram("shadowtaxi_draw_seconds", "Time taken to draw the ongoing game.");
+    }
+
+    /**
+     * Counts a car being spawned.
+     */
+    public void carSpawned() {
+        CARS_SPAWNED.increment();
+    }
+
+    /**
+     * Counts a collision in which something took damage.
+     */
+    public void collided() {
+        COLLISIONS.increment();
+    }
+
+    /**
+     * Counts a trip being started.
+     */
+    public void tripStarted() {
+        TRIPS_STARTED.increment();
+    }
+
+    /**
+     * Counts a trip being completed.
+     */
+    public void tripCompleted() {
+        TRIPS_COMPLETED.increment();
+    }
+
+    /**
+     * Counts a driver or passenger being ejected from a broken taxi.
+     */
+    public void ejected() {
+        EJECTIONS.increment();
+    }
+
+    /**
+     * Counts a game ending.
+     * @param reason The reason the game ended for.
+     */
+    public void gameEnded(GameEndReason reason) {
+        GAMES_ENDED[reason.ordinal()].increment();
+    }
+
+    /**
+     * Updates the gauges of what is currently in play. This function is called at the end of every gameplay frame.
+     * @param cars The number of cars on the road.
+     * @param fireballs The number of fireballs in flight.
+     * @param effects The number of temporary effects shown.
+     * @param passengersOnScreen The number of passengers on screen.
+     */
+    public void updateGameplayGauges(int cars, int fireballs, int effects, int passengersOnScreen) {
+        LIVE_CARS.set(cars);
+        LIVE_FIREBALLS.set(fireballs);
+        LIVE_EFFECTS.set(effects);
+        PASSENGERS_ON_SCREEN.set(passengersOnScreen);
+    }
+
+    /**
+     * Records the time taken by a whole frame.
+     * @param nanos The frame time in nanoseconds.
+     */
+    public void recordFrame(long nanos) {
+        FRAME_TIME.record(nanos);
+    }
+
+    /**
+     * Records the time taken by a frame in which the game switches screens. The frame is also recorded as a frame.
+     * @param nanos The frame time in nanoseconds.
+     */
+    public void recordTransitionFrame(long nanos) {
+        TRANSITION_FRAME_TIME.record(nanos);
+    }
+
+    /**
+     * Records the time taken to update the ongoing game.
+     * @param nanos The update time in nanoseconds.
+     */
+    public void recordUpdate(long nanos) {
+        UPDATE_TIME.record(nanos);
+    }
+
+    /**
+     * Records the time taken to draw the ongoing game.
+     * @param nanos The draw time in nanoseconds.
+     */
+    public void recordDraw(long nanos) {
+        DRAW_TIME.record(nanos);
+    }
+}
@@ -0,0 +1,73 @@
+import java.util.List;
+
+/**
+ * Tracks the game-over conditions that depend on many objects as they change, so that checking whether the game can
+ * end costs the same every frame however many passengers there are.
+ * Passengers report when they die, and the game statistics report when the total score reaches the target score.
+ */
+public class GameOverTracker {
+
+    /**
+     * The number of passengers whose health has reached 0.
+     */
+    private int deadPassengers;
+
+    /**
+     * Boolean indicating whether the total score has reached the target score.
+     */
+    private boolean isTargetScoreReached;
+
+    /**
+     * Constructor for game over tracker, for a new game in which no passenger is dead and no score has been earned.
+     */
+    public GameOverTracker() {
+        this.deadPassengers = 0;
+        this.isTargetScoreReached = false;
+    }
+
+    /**
+     * Records that a passenger's health has just reached 0.
+     */
+    public void passengerDied() {
+        deadPassengers++;
+    }
+
+    /**
+     * Records that the total score has reached the target score.
+     */
+    public void targetScoreReached() {
+        isTargetScoreReached = true;
+    }
+
+    /**
+     * Counts the dead passengers and takes whether the target score is reached again from scratch, for when the game
+     * has been restored from a game snapshot.
+     * @param passengers All passengers in the game.
+     * @param isTargetScoreReached Whether the restored total score has reached the target score.
+     */
+    public void recount(List<Passenger> passengers, boolean isTargetScoreReached) {
+        deadPassengers = 0;
+        for (Passenger passenger : passengers) {
+            if (passenger.getCurrentHealth() <= 0) {
+                deadPassengers++;
+            }
+        }
+        this.isTargetScoreReached = isTargetScoreReached;
+    }
+
+    /**
+     * Checks if any passenger is dead.
+     * @return True if at least one passenger has died, false otherwise.
+     */
+    public boolean isPassengerDead() {
+        return deadPassengers > 0;
+    }
+
+    /**
+     * Checks if the total score has reached the target score.
+     * @return True if the target score has been reached, false otherwise.
+     */
+    public boolean isTargetScoreReached() {
+        return isTargetScoreReached;
+    }
+}
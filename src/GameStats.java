@@ -1,4 +1,4 @@
-import bagel.Font;
+import java.nio.ByteBuffer;
 import java.util.Properties;
 
 /**
@@ -7,16 +7,6 @@ import java.util.Properties;
  * This class is also responsible for rendering the texts that describe these statistics in the game
  */
 public class GameStats {
-    /**
-     * The path to the font file used for rendering texts.
-     */
-    private final String FONT_PATH;
-
-    /**
-     * The font size used for rendering texts.
-     */
-    private final int FONT_SIZE;
-
     /**
      * The target score the player must reach during gameplay to win.
      */
@@ -59,19 +49,19 @@ public class GameStats {
     private final int EARNINGS_Y;
 
     /**
-     * The label text for displaying earnings.
+     * The label for displaying earnings.
      */
-    private final String EARNINGS_TEXT;
+    private final HudLabel EARNINGS_LABEL;
 
     /**
-     * The label text for displaying the remaining frames.
+     * The label for displaying the remaining frames.
      */
-    private final String REM_FRAMES_TEXT;
+    private final HudLabel REM_FRAMES_LABEL;
 
     /**
-     * The label text for displaying the target score.
+     * The label for displaying the target score.
      */
-    private final String TARGET_TEXT;
+    private final HudLabel TARGET_LABEL;
 
     /**
      * The amount of remaining frames that decrease per unit time.
@@ -88,20 +78,24 @@ public class GameStats {
      */
     private int remainingFrames;
 
+    /**
+     * The tracker of game-over conditions, which is told when the total score reaches the target score.
+     */
+    private final GameOverTracker GAME_OVER_TRACKER;
+
     /**
      * Constructor for GameStats class.
      * Initialises the initial total score to 0, and set remaining frames as the maximum number of frames.
      * Initialises the various text and (x, y) coordinates related to displaying game statistics too.
+     * @param gameOverTracker The tracker of game-over conditions, which is told when the target score is reached.
      * @param gameProps The properties object containing game configuration values.
      * @param messageProps The properties object containing text configuration values.
      */
-    public GameStats(Properties gameProps, Properties messageProps) {
+    public GameStats(GameOverTracker gameOverTracker, Properties gameProps, Properties messageProps) {
+        GAME_OVER_TRACKER = gameOverTracker;
         TARGET_SCORE = Double.parseDouble(gameProps.getProperty("gamePlay.target"));
         MAX_FRAMES = Integer.parseInt(gameProps.getProperty("gamePlay.maxFrames"));
 
-        FONT_PATH = gameProps.getProperty("font");
-        FONT_SIZE = Integer.parseInt(gameProps.getProperty("gamePlay.info.fontSize"));
-
         EARNINGS_X = Integer.parseInt(gameProps.getProperty("gamePlay.earnings.x"));
         EARNINGS_Y = Integer.parseInt(gameProps.getProperty("gamePlay.earnings.y"));
         TARGET_X = Integer.parseInt(gameProps.getProperty("gamePlay.target.x"));
@@ -109,9 +103,11 @@ public class GameStats {
         MAX_FRAMES_X = Integer.parseInt(gameProps.getProperty("gamePlay.maxFrames.x"));
         MAX_FRAMES_Y = Integer.parseInt(gameProps.getProperty("gamePlay.maxFrames.y"));
 
-        EARNINGS_TEXT = messageProps.getProperty("gamePlay.earnings");
-        TARGET_TEXT = messageProps.getProperty("gamePlay.target");
-        REM_FRAMES_TEXT = messageProps.getProperty("gamePlay.remFrames");
+        GameFont font = new GameFont(gameProps.getProperty("font"),
+                Integer.parseInt(gameProps.getProperty("gamePlay.info.fontSize")));
+        EARNINGS_LABEL = new HudLabel(font, messageProps.getProperty("gamePlay.earnings"), "%.2f");
+        TARGET_LABEL = new HudLabel(font, messageProps.getProperty("gamePlay.target"), "%.2f");
+        REM_FRAMES_LABEL = new HudLabel(font, messageProps.getProperty("gamePlay.remFrames"), null);
 
         CHANGE_IN_FRAME = 1;
 
@@ -128,11 +124,23 @@ public class GameStats {
     }
 
     /**
-     * Accumulate trip earnings.
+     * Accumulate trip earnings, and tell the game-over tracker if the total score has now reached the target score.
      * @param tripEarnings The earnings of last trip to be added to the total earnings.
      */
     public void addTotalScore(double tripEarnings) {
+        boolean wasTargetScoreReached = isTargetScoreReached();
         this.totalScore += tripEarnings;
+        if (!wasTargetScoreReached && isTargetScoreReached()) {
+            GAME_OVER_TRACKER.targetScoreReached();
+        }
+    }
+
+    /**
+     * Checks if the total score has reached the target score.
+     * @return True if the target score has been reached, false otherwise.
+     */
+    public boolean isTargetScoreReached() {
+        return totalScore >= TARGET_SCORE;
     }
 
     /**
@@ -145,21 +153,12 @@ public class GameStats {
     /**
      * Draw the top left game statistics, which includes.
      * Total score, target score, and total remaining frames.
+     * Score texts are only reformatted when the score changes.
      */
     private void draw() {
-        Font font = new Font(FONT_PATH, FONT_SIZE);
-
-        // Total score text.
-        String totalScoreText = String.format(EARNINGS_TEXT + "%.2f", totalScore);
-        font.drawString(totalScoreText, EARNINGS_X, EARNINGS_Y);
-
-        // Target score text.
-        String targetScoreText = String.format(TARGET_TEXT + "%.2f", TARGET_SCORE);
-        font.drawString(targetScoreText, TARGET_X, TARGET_Y);
-
-        // Remaining frames text.
-        String remainingFramesText = String.format(REM_FRAMES_TEXT + "%d", remainingFrames);
-        font.drawString(remainingFramesText, MAX_FRAMES_X, MAX_FRAMES_Y);
+        EARNINGS_LABEL.draw(totalScore, EARNINGS_X, EARNINGS_Y);
+        TARGET_LABEL.draw(TARGET_SCORE, TARGET_X, TARGET_Y);
+        REM_FRAMES_LABEL.draw(remainingFrames, MAX_FRAMES_X, MAX_FRAMES_Y);
     }
 
     /**
@@ -177,4 +176,22 @@ public class GameStats {
     public double getTotalScore() {
         return totalScore;
     }
+
+    /**
+     * Writes the game statistics to a game snapshot.
+     * @param buffer The buffer to write to.
+     */
+    public void writeState(ByteBuffer buffer) {
+        buffer.putDouble(totalScore);
+        buffer.putInt(remainingFrames);
+    }
+
+    /**
+     * Restores the game statistics from a game snapshot.
+     * @param buffer The buffer to read from.
+     */
+    public void readState(ByteBuffer buffer) {
+        totalScore = buffer.getDouble();
+        remainingFrames = buffer.getInt();
+    }
 }
@@ -1,15 +1,16 @@
-import bagel.Font;
-import bagel.*;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Properties;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.function.ToIntFunction;
 
 /**
  * Class that handles most of the gameplay logic.
  * Handles the interactions and collisions between all combinations of objects in-game.
+ * Cars and fireballs spawn at the rates of the current traffic, which is published by the traffic timeline.
  */
-public class Gameplay {
+public class Gameplay implements TrafficChangeListener {
     /**
      * The properties object containing game configuration values.
      */
@@ -21,24 +22,9 @@ public class Gameplay {
     private final Properties MESSAGE_PROPS;
 
     /**
-     * Spawn rate for other cars in the game.
+     * The font used for rendering trip info and passenger health.
      */
-    private final int OTHER_CAR_SPAWN_RATE = 200;
-
-    /**
-     * Spawn rate for enemy cars in the game.
-     */
-    private final int ENEMY_CAR_SPAWN_RATE = 400;
-
-    /**
-     * Path to the font used for rendering trip info.
-     */
-    private final String FONT_PATH;
-
-    /**
-     * Size of the font used for rendering trip info.
-     */
-    private final int FONT_SIZE;
+    private final GameFont FONT;
 
     /**
      * X-coordinate for rendering trip info on screen.
@@ -61,24 +47,24 @@ public class Gameplay {
     private final String COMPLETED_TRIP_TEXT;
 
     /**
-     * Text for expected earnings in a trip.
+     * Label for expected earnings in a trip.
      */
-    private final String EXPECTED_EARNINGS_TEXT;
+    private final HudLabel EXPECTED_EARNINGS_LABEL;
 
     /**
-     * Text for the priority level of a trip.
+     * Label for the priority level of a trip.
      */
-    private final String PRIORITY_TEXT;
+    private final HudLabel PRIORITY_LABEL;
 
     /**
-     * Text for the penalty amount in a trip.
+     * Label for the penalty amount in a trip.
      */
-    private final String PENALTY_TEXT;
+    private final HudLabel PENALTY_LABEL;
 
     /**
-     * Text for the passenger's health.
+     * Label for the passenger's health.
      */
-    private final String PASSENGER_TEXT;
+    private final HudLabel PASSENGER_HEALTH_LABEL;
 
     /**
      * X-coordinate for rendering passenger health on screen.
@@ -100,6 +86,46 @@ public class Gameplay {
      */
     private final int ROAD_LANE_CENTER_3;
 
+    /**
+     * How far above or below the window a car, fireball or broken taxi must be, on top of the distance it could still
+     * move back towards the window before the game ends, before it is removed from the game.
+     */
+    private final int DESPAWN_DISTANCE;
+
+    /**
+     * The most pixels per frame a car can move down the window: while the taxi drives faster than the slowest car,
+     * or while the car separates from a collision.
+     */
+    private final int CAR_MAX_SPEED_DOWN;
+
+    /**
+     * The most pixels per frame a car can move up the window: the fastest car while the driver walks down, or while
+     * the car separates from a collision.
+     */
+    private final int CAR_MAX_SPEED_UP;
+
+    /**
+     * The most pixels per frame a fireball can move down the window, which is none unless the taxi drives faster than
+     * fireballs fly.
+     */
+    private final int FIREBALL_MAX_SPEED_DOWN;
+
+    /**
+     * The most pixels per frame a fireball can move up the window, while the driver walks down.
+     */
+    private final int FIREBALL_MAX_SPEED_UP;
+
+    /**
+     * The most pixels per frame a broken taxi can move down the window, while the driver walks up. Broken taxis never
+     * move up the window once they have separated from the collision that broke them, which they do on screen.
+     */
+    private final int BROKEN_TAXI_MAX_SPEED_DOWN;
+
+    /**
+     * The height of the window, read from the game properties so the gameplay also runs headless.
+     */
+    private final int WINDOW_HEIGHT;
+
     /**
      * Minimum Y-coordinate for spawning the next taxi.
      */
@@ -140,11 +166,41 @@ public class Gameplay {
      */
     private final GameStats GAME_STATS;
 
+    /**
+     * The timing wheel on which collision timeouts are scheduled.
+     */
+    private final TimingWheel TIMING_WHEEL;
+
+    /**
+     * The metrics in which spawns, collisions, trips and ejections are counted.
+     */
+    private final GameMetrics METRICS;
+
+    /**
+     * The schedule on which other cars spawn.
+     */
+    private final SpawnSchedule OTHER_CAR_SPAWNS;
+
+    /**
+     * The schedule on which enemy cars spawn.
+     */
+    private final SpawnSchedule ENEMY_CAR_SPAWNS;
+
+    /**
+     * The rate at which each enemy car shoots fireballs under the current traffic.
+     */
+    private int fireballSpawnRate;
+
     /**
      * List of all passengers in the game.
      */
     private ArrayList<Passenger> passengers;
 
+    /**
+     * The passengers still waiting to be picked up, sorted by y-coordinate.
+     */
+    private final PassengerIndex WAITING_PASSENGERS;
+
     /**
      * List of cars currently in the game.
      */
@@ -156,9 +212,9 @@ public class Gameplay {
     private ArrayList<Fireball> fireballs;
 
     /**
-     * List of temporary visual effects in the game.
+     * The temporary visual effects (blood, fire, smoke) in the game.
      */
-    private ArrayList<TemporaryEffect> temporaryEffects;
+    private final ParticleSystem PARTICLES;
 
     /**
      * List of taxis that are broken.
@@ -170,16 +226,6 @@ public class Gameplay {
      */
     private ArrayList<PowerUp> powerUps;
 
-    /**
-     * List of fireballs to be removed after a collision with a damageable entity.
-     */
-    private ArrayList<Fireball> fireballsToRemove;
-
-    /**
-     * Set of collided car pairs, used to track collisions between cars.
-     */
-    private Set<Car[]> collidedPairs = new HashSet<>();
-
     /**
      * Current health of the passenger of current ongoing trip.
      */
@@ -195,38 +241,70 @@ public class Gameplay {
      */
     private Passenger lastEjectedPassenger;
 
+    /**
+     * The index in a game snapshot of every damageable object, numbered as in indexForSnapshot.
+     * Filled once per snapshot and reused for the next one, so every reference is written without searching a list.
+     */
+    private final IdentityHashMap<Damageable, Integer> SNAPSHOT_INDICES;
+
+    /**
+     * The index in a game snapshot of the first passenger among the damageable objects, set with the snapshot indices.
+     */
+    private int firstPassengerSnapshotIndex;
+
+    /**
+     * Looks up the index of a car in a game snapshot. Cars come first among the damageable objects, so their
+     * damageable index is also their car index.
+     */
+    private final ToIntFunction<Car> CAR_INDICES;
+
+    /**
+     * Looks up the index of a passenger in a game snapshot.
+     */
+    private final ToIntFunction<Passenger> PASSENGER_INDICES;
+
+    /**
+     * Looks up the index of a damageable object in a game snapshot.
+     */
+    private final ToIntFunction<Damageable> DAMAGEABLE_INDICES;
+
     /**
      * Constructor for gameplay class.
      * Initialises all the necessary attributes and lists for a gameplay class.
      * @param tripEndFlag The flag indicating where the passenger should be dropped off at the end of a trip.
      * @param powerUpState The current state of power-ups in the game.
      * @param gameStats Tracks and renders game's statistics.
+     * @param timingWheel The timing wheel on which collision timeouts are scheduled.
+     * @param metrics The metrics in which spawns, collisions, trips and ejections are counted.
      * @param gameProps The properties object containing game configuration values.
      * @param messageProps The properties object containing rendered text configuration values.
      */
-    public Gameplay(TripEndFlag tripEndFlag, PowerUpState powerUpState,
-                    GameStats gameStats, Properties gameProps, Properties messageProps) {
+    public Gameplay(TripEndFlag tripEndFlag, PowerUpState powerUpState, GameStats gameStats,
+                    TimingWheel timingWheel, GameMetrics metrics, Properties gameProps, Properties messageProps) {
         this.trip = null;
         this.tripEndFlag = tripEndFlag;
         this.POWER_UP_STATE = powerUpState;
         this.GAME_STATS = gameStats;
+        this.TIMING_WHEEL = timingWheel;
+        this.METRICS = metrics;
         this.GAME_PROPS = gameProps;
         this.MESSAGE_PROPS = messageProps;
 
         // Initialize constants for rendering trip info
-        this.FONT_PATH = GAME_PROPS.getProperty("font");
-        this.FONT_SIZE = Integer.parseInt(GAME_PROPS.getProperty("gamePlay.info.fontSize"));
+        this.FONT = new GameFont(GAME_PROPS.getProperty("font"),
+                Integer.parseInt(GAME_PROPS.getProperty("gamePlay.info.fontSize")));
         this.TRIP_INFO_X = Double.parseDouble(GAME_PROPS.getProperty("gamePlay.tripInfo.x"));
         this.TRIP_INFO_Y = Double.parseDouble(GAME_PROPS.getProperty("gamePlay.tripInfo.y"));
 
         // Initialize constants for messages
         this.ONGOING_TRIP_TEXT = MESSAGE_PROPS.getProperty("gamePlay.onGoingTrip.title");
         this.COMPLETED_TRIP_TEXT = MESSAGE_PROPS.getProperty("gamePlay.completedTrip.title");
-        this.EXPECTED_EARNINGS_TEXT = MESSAGE_PROPS.getProperty("gamePlay.trip.expectedEarning");
-        this.PRIORITY_TEXT = MESSAGE_PROPS.getProperty("gamePlay.trip.priority");
-        this.PENALTY_TEXT = MESSAGE_PROPS.getProperty("gamePlay.trip.penalty");
+        this.EXPECTED_EARNINGS_LABEL = new HudLabel(FONT,
+                MESSAGE_PROPS.getProperty("gamePlay.trip.expectedEarning"), "%.1f");
+        this.PRIORITY_LABEL = new HudLabel(FONT, MESSAGE_PROPS.getProperty("gamePlay.trip.priority"), null);
+        this.PENALTY_LABEL = new HudLabel(FONT, MESSAGE_PROPS.getProperty("gamePlay.trip.penalty"), "%.2f");
 
-        PASSENGER_TEXT = messageProps.getProperty("gamePlay.passengerHealth");
+        PASSENGER_HEALTH_LABEL = new HudLabel(FONT, messageProps.getProperty("gamePlay.passengerHealth"), null);
         PASSENGER_TEXT_X = Integer.parseInt(gameProps.getProperty("gamePlay.passengerHealth.x"));
         PASSENGER_TEXT_Y = Integer.parseInt(gameProps.getProperty("gamePlay.passengerHealth.y"));
 
@@ -235,6 +313,21 @@ public class Gameplay {
 
         ROAD_LANE_CENTER_1 = Integer.parseInt(gameProps.getProperty("roadLaneCenter1"));
         ROAD_LANE_CENTER_3 = Integer.parseInt(gameProps.getProperty("roadLaneCenter3"));
+        DESPAWN_DISTANCE = Integer.parseInt(gameProps.getProperty("window.height"));
+        WINDOW_HEIGHT = Integer.parseInt(gameProps.getProperty("window.height"));
+
+        int scrollSpeed = Integer.parseInt(gameProps.getProperty("gameObjects.taxi.speedY"));
+        int walkSpeed = Integer.parseInt(gameProps.getProperty("gameObjects.driver.walkSpeedY"));
+        int carMinSpeed = Math.min(Integer.parseInt(gameProps.getProperty("gameObjects.otherCar.minSpeedY")),
+                Integer.parseInt(gameProps.getProperty("gameObjects.enemyCar.minSpeedY")));
+        int carMaxSpeed = Math.max(Integer.parseInt(gameProps.getProperty("gameObjects.otherCar.maxSpeedY")),
+                Integer.parseInt(gameProps.getProperty("gameObjects.enemyCar.maxSpeedY")));
+        int fireballSpeed = Integer.parseInt(gameProps.getProperty("gameObjects.fireball.shootSpeedY"));
+        CAR_MAX_SPEED_DOWN = Math.max(scrollSpeed - carMinSpeed, Car.SEPARATE_Y);
+        CAR_MAX_SPEED_UP = Math.max(carMaxSpeed + walkSpeed, Car.SEPARATE_Y);
+        FIREBALL_MAX_SPEED_DOWN = Math.max(scrollSpeed - fireballSpeed, 0);
+        FIREBALL_MAX_SPEED_UP = fireballSpeed + walkSpeed;
+        BROKEN_TAXI_MAX_SPEED_DOWN = scrollSpeed;
 
         int PROPS_TO_GAME_MULTIPLIER = 100; // The game properties stores health and damage as (value / 100).
         this.passengerHealth = Double.parseDouble(
@@ -243,30 +336,63 @@ public class Gameplay {
         this.lowestPassengerHealth = this.passengerHealth;
         this.lastEjectedPassenger = null;
 
+        this.WAITING_PASSENGERS = new PassengerIndex();
         this.cars = new ArrayList<>();
         this.fireballs = new ArrayList<>();
-        this.temporaryEffects = new ArrayList<>();
+        this.PARTICLES = new ParticleSystem(gameProps);
         this.damagedTaxis = new ArrayList<>();
-        this.fireballsToRemove = new ArrayList<>();
+        this.OTHER_CAR_SPAWNS = new SpawnSchedule(timingWheel, () -> spawnCar(new OtherCar(GAME_PROPS, TIMING_WHEEL)));
+        this.ENEMY_CAR_SPAWNS = new SpawnSchedule(timingWheel,
+                () -> spawnCar(new EnemyCar(GAME_PROPS, fireballs, TIMING_WHEEL, fireballSpawnRate)));
+
+        this.SNAPSHOT_INDICES = new IdentityHashMap<>();
+        this.firstPassengerSnapshotIndex = 0;
+        this.CAR_INDICES = this::getSnapshotIndex;
+        this.PASSENGER_INDICES = this::getPassengerIndex;
+        this.DAMAGEABLE_INDICES = this::getDamageableIndex;
+    }
+
+    /**
+     * Changes the spawn rates of cars, and the rate at which every enemy car (including those already on the road)
+     * shoots fireballs, to those of the new traffic.
+     * @param traffic The new traffic interval.
+     */
+    @Override
+    public void onTrafficChanged(Traffic traffic) {
+        OTHER_CAR_SPAWNS.setSpawnRate(traffic.getOtherCarSpawnRate());
+        ENEMY_CAR_SPAWNS.setSpawnRate(traffic.getEnemyCarSpawnRate());
+        fireballSpawnRate = traffic.getFireballSpawnRate();
+        for (Car car : cars) {
+            if (car instanceof EnemyCar) {
+                ((EnemyCar) car).setFireballSpawnRate(fireballSpawnRate);
+            }
+        }
     }
 
     /**
      * Checks if taxi is adjacent to either passenger or flag
      * If so, either pick up the passenger towards the taxi or drop the passenger towards the trip end flag
+     * Only the waiting passengers within detect radius of the taxi vertically are looked at, found through the index.
      */
     public void checkIfTaxiIsAdjacentToPassengerOrFlag() {
-        for (Passenger passenger : passengers) {
-            // Check if taxi is adjacent to a passenger that has not been picked up before.
-            if (!taxi.hasPassenger() && taxi.isAdjacentToPassenger(passenger)
-                    && !passenger.isPickedUp() && taxi.hasDriver()) {
-                taxi.pickUpPassenger(passenger);
+        if (!taxi.hasPassenger() && taxi.hasDriver()) {
+            WAITING_PASSENGERS.refresh();
+            double detectRadius = WAITING_PASSENGERS.getMaxDetectRadius();
+            for (int i = WAITING_PASSENGERS.findFirst(taxi.getY() - detectRadius);
+                 i < WAITING_PASSENGERS.size() && WAITING_PASSENGERS.get(i).getY() <= taxi.getY() + detectRadius;
+                 i++) {
+                // Check if taxi is adjacent to a passenger that has not been picked up before.
+                Passenger passenger = WAITING_PASSENGERS.get(i);
+                if (!taxi.hasPassenger() && taxi.isAdjacentToPassenger(passenger) && !passenger.isPickedUp()) {
+                    taxi.pickUpPassenger(passenger);
+                }
             }
+        }
 
-            if (taxi.hasPassenger()) {
-                // Check if taxi is adjacent to flag. (Logic is in taxi.dropOffPassenger function).
-                taxi.dropOffPassenger(tripEndFlag);
-                trip.checkPenalty();
-            }
+        if (taxi.hasPassenger()) {
+            // Check if taxi is adjacent to flag. (Logic is in taxi.dropOffPassenger function).
+            taxi.dropOffPassenger(tripEndFlag);
+            trip.checkPenalty();
         }
     }
 
@@ -275,9 +401,8 @@ public class Gameplay {
      * This function performs all the needed checks at any given time to make the gameplay logic flow working.
      * Performs calls to other functions where its functionality will be explained in their javadocs respectively.
      * @param input The current mouse/keyboard input.
-     * @param isRaining True if weather is currently raining for current frame, false otherwise.
      */
-    public void update(Input input, boolean isRaining) {
+    public void update(GameInput input) {
 
         // Update the trip end flag.
         if (tripEndFlag != null) {
@@ -286,53 +411,129 @@ public class Gameplay {
 
         // Set trip as completed as soon as passenger leaves the taxi.
         if (trip != null && taxi.isPassengerMovingToFlag()) {
+            if (!trip.isCompleted()) {
+                METRICS.tripCompleted();
+            }
             trip.setTripAsCompleted();
         }
 
         renderTripInfo();
         taxi.update(input);
         driver.update(input, taxi);
+        FramePhaseEvent collisionsPhase = FramePhaseEvent.start("collisions");
         checkAndHandleCollisions(input);
-        randomlySpawnCars();
+        collisionsPhase.finish();
+        removeFarOffScreenObjects();
         checkIfDriverCanEnterTaxi();
-        updatePassengerLogic(input, isRaining);
+        updatePassengerLogic(input);
         updatePassengerHealth();
         renderPassengerHealth();
+        METRICS.updateGameplayGauges(cars.size(), fireballs.size(), PARTICLES.getCount(), countPassengersOnScreen());
+    }
+
+    /**
+     * Removes the cars and broken taxis that can no longer move back onto the screen before the game ends, so they no
+     * longer take up memory or time. A car off screen still moves relative to the window (a slow car above it moves
+     * down while the taxi drives, for example), so it is only removed once it is too far away to return in time.
+     * An object another object still refers to after colliding with it stays until it is let go, so the other object
+     * keeps separating from it, and game snapshots can still refer to it.
+     */
+    private void removeFarOffScreenObjects() {
+        for (int i = cars.size() - 1; i >= 0; i--) {
+            Car car = cars.get(i);
+            if (isFarOffScreen(car.getY(), CAR_MAX_SPEED_DOWN, CAR_MAX_SPEED_UP) && !isStillCollidedWith(car)) {
+                cars.remove(i).despawn();
+            }
+        }
+        for (int i = damagedTaxis.size() - 1; i >= 0; i--) {
+            Taxi damagedTaxi = damagedTaxis.get(i);
+            if (isFarOffScreen(damagedTaxi.getY(), BROKEN_TAXI_MAX_SPEED_DOWN, 0)
+                    && !isStillCollidedWith(damagedTaxi)) {
+                damagedTaxis.remove(i);
+            }
+        }
+    }
+
+    /**
+     * Checks if any damageable object in the game still refers to an object it collided with.
+     * Only called for objects about to be removed, which is rare, so it simply checks every damageable object.
+     * @param damageable The object collided with.
+     * @return True if any damageable object still refers to it, false otherwise.
+     */
+    private boolean isStillCollidedWith(Damageable damageable) {
+        for (int i = 0; i < cars.size(); i++) {
+            if (cars.get(i).isStillCollidedWith(damageable)) {
+                return true;
+            }
+        }
+        for (int i = 0; i < damagedTaxis.size(); i++) {
+            if (damagedTaxis.get(i).isStillCollidedWith(damageable)) {
+                return true;
+            }
+        }
+        for (int i = 0; i < passengers.size(); i++) {
+            if (passengers.get(i).isStillCollidedWith(damageable)) {
+                return true;
+            }
+        }
+        return taxi.isStillCollidedWith(damageable) || driver.isStillCollidedWith(damageable);
+    }
+
+    /**
+     * Checks if an object is too far above or below the window to ever move back onto it before the game ends, given
+     * how fast it can move towards the window. The despawn distance is kept as a margin on top of that.
+     * @param y The y-coordinate of the object.
+     * @param maxSpeedDown The most pixels per frame the object can move down the window.
+     * @param maxSpeedUp The most pixels per frame the object can move up the window.
+     * @return True if the object can never move back onto the window, false otherwise.
+     */
+    private boolean isFarOffScreen(int y, int maxSpeedDown, int maxSpeedUp) {
+        long remainingFrames = Math.max(GAME_STATS.getRemainingFrames(), 0);
+        return y < -DESPAWN_DISTANCE - maxSpeedDown * remainingFrames
+                || y > WINDOW_HEIGHT + DESPAWN_DISTANCE + maxSpeedUp * remainingFrames;
+    }
+
+    /**
+     * Counts the passengers currently within the window vertically.
+     * @return The number of passengers on screen.
+     */
+    private int countPassengersOnScreen() {
+        int passengersOnScreen = 0;
+        for (int i = 0; i < passengers.size(); i++) {
+            Passenger passenger = passengers.get(i);
+            if (passenger.getY() >= 0 && passenger.getY() <= WINDOW_HEIGHT) {
+                passengersOnScreen++;
+            }
+        }
+        return passengersOnScreen;
     }
 
     /**
      * Renders the bottom left "Current Trip" or "Last Trip" information text on screen during gameplay.
      */
     private void renderTripInfo() {
-        Font font = new Font(FONT_PATH, FONT_SIZE);
-
         if (trip != null && trip.isOngoing()) {
             // Render "Current Trip" information.
-            font.drawString(ONGOING_TRIP_TEXT, TRIP_INFO_X, TRIP_INFO_Y);
+            FONT.drawString(ONGOING_TRIP_TEXT, TRIP_INFO_X, TRIP_INFO_Y);
 
             double expectedEarnings = trip.getPassengerEarnings();
-            String expectedEarningsText = String.format(EXPECTED_EARNINGS_TEXT + "%.1f", expectedEarnings);
-            font.drawString(expectedEarningsText, TRIP_INFO_X, TRIP_INFO_Y + 30);
+            EXPECTED_EARNINGS_LABEL.draw(expectedEarnings, TRIP_INFO_X, TRIP_INFO_Y + 30);
 
             int priority = trip.getPassengerPriority();
-            String priorityText = String.format(PRIORITY_TEXT + "%d", priority);
-            font.drawString(priorityText, TRIP_INFO_X, TRIP_INFO_Y + 60);
+            PRIORITY_LABEL.draw(priority, TRIP_INFO_X, TRIP_INFO_Y + 60);
         } else if (trip != null && trip.isCompleted()) {
             // Render "Last Trip" information.
-            font.drawString(COMPLETED_TRIP_TEXT, TRIP_INFO_X, TRIP_INFO_Y);
+            FONT.drawString(COMPLETED_TRIP_TEXT, TRIP_INFO_X, TRIP_INFO_Y);
 
             double totalEarnings = trip.getPassengerEarnings();
             double penalty = trip.getPenalty();
             double earningsWithPenalty = totalEarnings + penalty;
-            String totalEarningsText = String.format(EXPECTED_EARNINGS_TEXT + "%.1f", earningsWithPenalty);
-            font.drawString(totalEarningsText, TRIP_INFO_X, TRIP_INFO_Y + 30);
+            EXPECTED_EARNINGS_LABEL.draw(earningsWithPenalty, TRIP_INFO_X, TRIP_INFO_Y + 30);
 
             int priority = trip.getPassengerPriority();
-            String priorityText = String.format(PRIORITY_TEXT + "%d", priority);
-            font.drawString(priorityText, TRIP_INFO_X, TRIP_INFO_Y + 60);
+            PRIORITY_LABEL.draw(priority, TRIP_INFO_X, TRIP_INFO_Y + 60);
 
-            String penaltyText = String.format(PENALTY_TEXT + "%.2f", penalty);
-            font.drawString(penaltyText, TRIP_INFO_X, TRIP_INFO_Y + 90);
+            PENALTY_LABEL.draw(penalty, TRIP_INFO_X, TRIP_INFO_Y + 90);
         }
     }
 
@@ -341,60 +542,68 @@ public class Gameplay {
      * Updates the temporary effects (blood, fire, smoke) as well as the broken (damaged) taxis.
      * @param input The current mouse/keyboard input.
      */
-    private void checkAndHandleCollisions(Input input) {
+    private void checkAndHandleCollisions(GameInput input) {
         checkCarCollisions(input);
         checkFireballCollisions(input);
         checkPowerUpCollisions(input);
         checkIfTaxiIsBroken();
 
-        for (TemporaryEffect temporaryEffect : temporaryEffects) {
-            temporaryEffect.update(input);
-        }
+        PARTICLES.update(input);
 
-        for (Taxi damagedTaxi : damagedTaxis) {
-            damagedTaxi.update(input);
+        for (int i = 0; i < damagedTaxis.size(); i++) {
+            damagedTaxis.get(i).update(input);
         }
     }
 
     /**
      * Checks and handles all possible collisions involving cars.
      * Cars can collide with taxi, driver, passengers, and other cars.
+     * The collision checks loop over the lists by index, as they run every frame and an iterator would be allocated
+     * for each loop whenever the JIT compiler cannot optimise it away.
      */
-    private void checkCarCollisions(Input input) {
+    private void checkCarCollisions(GameInput input) {
         // Check collisions between car and other entities.
-        for (Car car : cars) {
+        for (int i = 0; i < cars.size(); i++) {
+            Car car = cars.get(i);
             if (taxi.handleCollision(car)) {
-                temporaryEffects.add(new Smoke(taxi.getX(), taxi.getY(), GAME_PROPS));
+                PARTICLES.spawn(ParticleType.SMOKE, taxi.getX(), taxi.getY());
+                CollisionEvent.emit(taxi, car, car.getDamage());
+                METRICS.collided();
             }
             car.update(input, taxi, driver);
             if (car.getCurrentHealth() <= 0 && !car.isFireEffectAdded()) {
-                temporaryEffects.add(new Fire(car.getX(), car.getY(), GAME_PROPS));
+                PARTICLES.spawn(ParticleType.FIRE, car.getX(), car.getY());
                 car.fireEffectWasAdded();
             }
-            if (driver.handleCollision(car) && driver.getCurrentHealth() <= 0) {
-                temporaryEffects.add(new Blood(driver.getX(), driver.getY(), GAME_PROPS));
+            if (driver.handleCollision(car)) {
+                CollisionEvent.emit(driver, car, car.getDamage());
+                METRICS.collided();
+                if (driver.getCurrentHealth() <= 0) {
+                    PARTICLES.spawn(ParticleType.BLOOD, driver.getX(), driver.getY());
+                }
             }
-            for (Passenger passenger : passengers) {
-                if (passenger.handleCollision(car) && passenger.getCurrentHealth() <= 0) {
-                    temporaryEffects.add(new Blood(passenger.getX(), passenger.getY(), GAME_PROPS));
+            for (int j = 0; j < passengers.size(); j++) {
+                Passenger passenger = passengers.get(j);
+                if (passenger.handleCollision(car)) {
+                    CollisionEvent.emit(passenger, car, car.getDamage());
+                    METRICS.collided();
+                    if (passenger.getCurrentHealth() <= 0) {
+                        PARTICLES.spawn(ParticleType.BLOOD, passenger.getX(), passenger.getY());
+                    }
                 }
             }
         }
 
-        // Check collisions between car and cars.
-        collidedPairs.clear();
+        // Check collisions between car and cars. Each pair is visited once, as j only runs past i.
         for (int i = 0; i < cars.size(); i++) {
             Car car1 = cars.get(i);
             for (int j = i + 1; j < cars.size(); j++) {
                 Car car2 = cars.get(j);
-
-                Car[] carPair = {car1, car2};
-                if (!collidedPairs.contains(carPair)) {
-                    if (car1.handleCollision(car2)) {
-                        temporaryEffects.add(new Smoke(car1.getX(), car1.getY(), GAME_PROPS));
-                        temporaryEffects.add(new Smoke(car2.getX(), car2.getY(), GAME_PROPS));
-                        collidedPairs.add(carPair);
-                    }
+                if (car1.handleCollision(car2)) {
+                    PARTICLES.spawn(ParticleType.SMOKE, car1.getX(), car1.getY());
+                    PARTICLES.spawn(ParticleType.SMOKE, car2.getX(), car2.getY());
+                    CollisionEvent.emit(car1, car2, car2.getDamage());
+                    METRICS.collided();
                 }
             }
         }
@@ -404,16 +613,20 @@ public class Gameplay {
      * Checks and handles all possible collisions involving fireballs.
      * Fireballs can inflict damage towards passengers, cars, taxi, and driver.
      */
-    private void checkFireballCollisions(Input input) {
+    private void checkFireballCollisions(GameInput input) {
 
-        for (Fireball fireball : fireballs) {
+        for (int i = 0; i < fireballs.size(); i++) {
+            Fireball fireball = fireballs.get(i);
             fireball.update(input, taxi, driver);
             double fireballDamage = fireball.getDamage();
 
             // Check possible collisions between fireball and passengers.
-            for (Passenger passenger : passengers) {
+            for (int j = 0; j < passengers.size(); j++) {
+                Passenger passenger = passengers.get(j);
                 if (fireball.collidesWith(passenger.getX(), passenger.getY(), passenger.getRadius())) {
                     passenger.receiveDamage(fireballDamage);
+                    CollisionEvent.emit(passenger, fireball, fireballDamage);
+                    METRICS.collided();
                     fireball.wasCollided();
                     break;
                 }
@@ -421,10 +634,13 @@ public class Gameplay {
 
             // Check possible collisions between fireball and cars.
             if (!fireball.isCollided()) {
-                for (Car car : cars) {
+                for (int j = 0; j < cars.size(); j++) {
+                    Car car = cars.get(j);
                     if (car != fireball.getSpawnedBy() && fireball.collidesWith(car.getX(), car.getY(), car.getRadius())) {
                         car.receiveDamage(fireballDamage);
-                        temporaryEffects.add(new Smoke(car.getX(), car.getY(), GAME_PROPS));
+                        CollisionEvent.emit(car, fireball, fireballDamage);
+                        METRICS.collided();
+                        PARTICLES.spawn(ParticleType.SMOKE, car.getX(), car.getY());
                         fireball.wasCollided();
                         break;
                     }
@@ -435,6 +651,8 @@ public class Gameplay {
             if (!fireball.isCollided()) {
                 if (fireball.collidesWith(driver.getX(), driver.getY(), driver.getRadius())) {
                     driver.receiveDamage(fireballDamage);
+                    CollisionEvent.emit(driver, fireball, fireballDamage);
+                    METRICS.collided();
                     fireball.wasCollided();
                 }
             }
@@ -443,17 +661,23 @@ public class Gameplay {
             if (!fireball.isCollided()) {
                 if (fireball.collidesWith(taxi.getX(), taxi.getY(), taxi.getRadius())) {
                     taxi.receiveDamage(fireballDamage);
-                    temporaryEffects.add(new Smoke(taxi.getX(), taxi.getY(), GAME_PROPS));
+                    CollisionEvent.emit(taxi, fireball, fireballDamage);
+                    METRICS.collided();
+                    PARTICLES.spawn(ParticleType.SMOKE, taxi.getX(), taxi.getY());
                     fireball.wasCollided();
                 }
             }
 
-            // Remove all collided (and thus disappeared) fireballs from the arraylist.
-            if (fireball.isCollided()) {
-                fireballsToRemove.add(fireball);
+        }
+
+        // Remove all collided (and thus disappeared) fireballs, as well as those that can no longer fly back on screen.
+        for (int i = fireballs.size() - 1; i >= 0; i--) {
+            Fireball fireball = fireballs.get(i);
+            if (fireball.isCollided()
+                    || isFarOffScreen(fireball.getY(), FIREBALL_MAX_SPEED_DOWN, FIREBALL_MAX_SPEED_UP)) {
+                fireballs.remove(i);
             }
         }
-        fireballs.removeAll(fireballsToRemove);
     }
 
     /**
@@ -461,8 +685,9 @@ public class Gameplay {
      * Also update all power-up entities according to player's mouse/keyboard input.
      * @param input The current mouse/keyboard input.
      */
-    private void checkPowerUpCollisions(Input input) {
-        for (PowerUp powerUp : powerUps) {
+    private void checkPowerUpCollisions(GameInput input) {
+        for (int i = 0; i < powerUps.size(); i++) {
+            PowerUp powerUp = powerUps.get(i);
             powerUp.update(input);
             // Both taxi and driver can pick up power-ups.
             if ((taxi.collidedWith(powerUp) || driver.collidedWith(powerUp)) && !powerUp.isTaken()) {
@@ -480,19 +705,23 @@ public class Gameplay {
     private void checkIfTaxiIsBroken() {
         if (taxi.getCurrentHealth() <= 0) {
             damagedTaxis.add(taxi);
-            temporaryEffects.add(new Fire(taxi.getX(), taxi.getY(), GAME_PROPS));
-            if (taxi.getCurrentPassenger() != null && !taxi.isPassengerMovingToFlag()) {
+            PARTICLES.spawn(ParticleType.FIRE, taxi.getX(), taxi.getY());
+            boolean passengerEjected = taxi.getCurrentPassenger() != null && !taxi.isPassengerMovingToFlag();
+            TaxiBreakdownEvent.emit(taxi, passengerEjected, taxi.hasDriver());
+            if (passengerEjected) {
                 System.out.println("passenger ejected");
                 lastEjectedPassenger = taxi.getCurrentPassenger();
                 taxi.getCurrentPassenger().eject(); // eject passenger.
                 taxi.passengerEjected();
+                METRICS.ejected();
             }
             if (taxi.hasDriver()) {
                 driver.eject(); // eject driver.
                 taxi.driverEjected();
+                METRICS.ejected();
             }
             taxi = new Taxi(getTaxiRandomSpawnX(), getTaxiRandomSpawnY(), this,
-                    POWER_UP_STATE, GAME_PROPS, MESSAGE_PROPS);
+                    POWER_UP_STATE, TIMING_WHEEL, GAME_PROPS, MESSAGE_PROPS);
             if (trip != null) {
                 trip.setTaxi(taxi); // Update current trip with new taxi.
             }
@@ -501,16 +730,14 @@ public class Gameplay {
     }
 
     /**
-     * Randomly spawns both other cars and enemy cars according to their set spawn rate.
+     * Adds a newly spawned car to the game. Other cars and enemy cars are spawned at random times, according to the
+     * spawn rates of the current traffic, by their spawn schedules.
+     * @param car The car that has spawned.
      */
-    private void randomlySpawnCars() {
-        if (MiscUtils.canSpawn(OTHER_CAR_SPAWN_RATE)) {
-            cars.add(new OtherCar(GAME_PROPS));
-        }
-
-        if (MiscUtils.canSpawn(ENEMY_CAR_SPAWN_RATE)) {
-            cars.add(new EnemyCar(GAME_PROPS, fireballs));
-        }
+    private void spawnCar(Car car) {
+        cars.add(car);
+        CarSpawnEvent.emit(car);
+        METRICS.carSpawned();
     }
 
     /**
@@ -523,6 +750,7 @@ public class Gameplay {
                 passenger.getDistanceY(), GAME_PROPS);
         trip = new Trip(taxi, passenger, tripEndFlag, POWER_UP_STATE, GAME_STATS, GAME_PROPS);
         trip.beginTrip();
+        METRICS.tripStarted();
     }
 
     /**
@@ -543,20 +771,20 @@ public class Gameplay {
     }
 
     /**
-     * Updates all passenger's state according to current mouse/keyboard input and weather.
+     * Updates all passenger's state according to current mouse/keyboard input.
+     * Weather changes are not handled here, passengers are notified of them by the weather timeline.
      * @param input The current mouse/keyboard input.
-     * @param isRaining True if current weather is rainy, false otherwise.
      */
-    private void updatePassengerLogic(Input input, boolean isRaining) {
-        for (Passenger passenger : passengers) {
-            // If passenger left the taxi and is moving to flag,
-            // make sure that the passenger arrives to its final destination (i.e. flag).
-            if (passenger.isMovingToFlag()) {
-                passenger.dropOff(tripEndFlag);
-            }
-            // means that passenger is ejected, so need to put it back to taxi
-            if (passenger.isPickedUp() && !passenger.isInTaxi()) {
-                taxi.setCurrentPassenger(passenger);
+    private void updatePassengerLogic(GameInput input) {
+        for (int i = 0; i < passengers.size(); i++) {
+            Passenger passenger = passengers.get(i);
+            switch (passenger.getState()) {
+                // If passenger left the taxi and is moving to flag,
+                // make sure that the passenger arrives to its final destination (i.e. flag).
+                case ALIGHTING, DELIVERED -> passenger.dropOff(tripEndFlag);
+                // means that passenger is ejected, so need to put it back to taxi
+                case EJECTED -> taxi.setCurrentPassenger(passenger);
+                default -> { }
             }
 
             // Keep track of lowest passenger health out of all passengers to be rendered if passenger not in taxi.
@@ -564,7 +792,7 @@ public class Gameplay {
                 this.lowestPassengerHealth = passenger.getCurrentHealth();
             }
 
-            passenger.update(input, isRaining);
+            passenger.update(input);
         }
     }
 
@@ -585,8 +813,7 @@ public class Gameplay {
      * Renders the passenger health onto the screen.
      */
     private void renderPassengerHealth() {
-        Font font = new Font(FONT_PATH, FONT_SIZE);
-        font.drawString( PASSENGER_TEXT + passengerHealth, PASSENGER_TEXT_X, PASSENGER_TEXT_Y);
+        PASSENGER_HEALTH_LABEL.draw(passengerHealth, PASSENGER_TEXT_X, PASSENGER_TEXT_Y);
     }
 
     /**
@@ -625,6 +852,7 @@ public class Gameplay {
      */
     public void initialisePassengers(ArrayList<Passenger> passengers) {
         this.passengers = passengers;
+        WAITING_PASSENGERS.rebuild(passengers);
     }
 
     /**
@@ -642,4 +870,268 @@ public class Gameplay {
     public Taxi getTaxi() {
         return taxi;
     }
+
+    /**
+     * Gets the driver involved in the gameplay.
+     * @return The driver involved in the gameplay.
+     */
+    public Driver getDriver() {
+        return driver;
+    }
+
+    /**
+     * Gets the trip end flag of the current trip.
+     * @return The trip end flag of the current trip, or null if no trip has started yet.
+     */
+    public TripEndFlag getTripEndFlag() {
+        return tripEndFlag;
+    }
+
+    /**
+     * Gets all passengers in the gameplay. The list is the gameplay's own, so it must not be modified.
+     * @return All passengers in the gameplay.
+     */
+    public List<Passenger> getPassengers() {
+        return passengers;
+    }
+
+    /**
+     * Gets the cars currently in the gameplay. The list is the gameplay's own, so it must not be modified.
+     * @return The cars currently in the gameplay.
+     */
+    public List<Car> getCars() {
+        return cars;
+    }
+
+    /**
+     * Gets the fireballs currently in flight. The list is the gameplay's own, so it must not be modified.
+     * @return The fireballs currently in flight.
+     */
+    public List<Fireball> getFireballs() {
+        return fireballs;
+    }
+
+    /**
+     * Writes the state of every entity in the gameplay to a game snapshot.
+     * First writes what is needed to create the broken taxis, cars and fireballs when restoring: their numbers, the
+     * kind of each car (0 for an enemy car, otherwise the image number of an other car), and the car that shot each
+     * fireball. Then writes the state of the current taxi, broken taxis, driver, passengers, power-ups, cars and
+     * fireballs, the current trip if there is one, the passenger health shown, the particles, and the frames until the
+     * next other car and enemy car spawn.
+     * Every entity is indexed once up front, so references between entities are written in constant time each.
+     * @param buffer The buffer to write to.
+     */
+    public void writeState(ByteBuffer buffer) {
+        indexForSnapshot();
+        buffer.putInt(damagedTaxis.size());
+        buffer.putInt(cars.size());
+        for (Car car : cars) {
+            buffer.put((byte) (car instanceof OtherCar ? ((OtherCar) car).getImageNumber() : 0));
+        }
+        buffer.putInt(fireballs.size());
+        for (Fireball fireball : fireballs) {
+            buffer.putInt(getSnapshotIndex(fireball.getSpawnedBy()));
+        }
+
+        taxi.writeState(buffer, CAR_INDICES, PASSENGER_INDICES);
+        for (Taxi damagedTaxi : damagedTaxis) {
+            damagedTaxi.writeState(buffer, CAR_INDICES, PASSENGER_INDICES);
+        }
+        driver.writeState(buffer, CAR_INDICES);
+        for (Passenger passenger : passengers) {
+            passenger.writeState(buffer, CAR_INDICES);
+        }
+        for (PowerUp powerUp : powerUps) {
+            powerUp.writeState(buffer);
+        }
+        for (Car car : cars) {
+            car.writeState(buffer, DAMAGEABLE_INDICES);
+        }
+        for (Fireball fireball : fireballs) {
+            fireball.writeState(buffer);
+        }
+
+        SnapshotUtils.putBoolean(buffer, trip != null);
+        if (trip != null) {
+            buffer.putInt(getPassengerIndex(trip.getPassenger()));
+            tripEndFlag.writeState(buffer);
+            trip.writeState(buffer);
+        }
+        buffer.putDouble(passengerHealth);
+        buffer.putDouble(lowestPassengerHealth);
+        buffer.putInt(getPassengerIndex(lastEjectedPassenger));
+        PARTICLES.writeState(buffer);
+        OTHER_CAR_SPAWNS.writeState(buffer);
+        ENEMY_CAR_SPAWNS.writeState(buffer);
+    }
+
+    /**
+     * Restores the state of every entity in the gameplay from a game snapshot written by writeState.
+     * The driver, passengers and power-ups are restored in place, as they are never added or removed during a game.
+     * The broken taxis, cars and fireballs are created again, and the current taxi is restored in place.
+     * The traffic of the restored frame must already have been published, so that new enemy cars get its fireball rate.
+     * @param buffer The buffer to read from.
+     */
+    public void readState(ByteBuffer buffer) {
+        int damagedTaxiCount = buffer.getInt();
+        damagedTaxis.clear();
+        for (int i = 0; i < damagedTaxiCount; i++) {
+            damagedTaxis.add(new Taxi(0, 0, this, POWER_UP_STATE, TIMING_WHEEL, GAME_PROPS, MESSAGE_PROPS));
+        }
+        int carCount = buffer.getInt();
+        for (Car car : cars) {
+            car.despawn();
+        }
+        cars.clear();
+        for (int i = 0; i < carCount; i++) {
+            int imageNumber = buffer.get();
+            // Enemy cars keep shooting into the same list of fireballs, so the list is reused rather than replaced.
+            cars.add(imageNumber == 0 ? new EnemyCar(GAME_PROPS, fireballs, TIMING_WHEEL, fireballSpawnRate)
+                    : new OtherCar(GAME_PROPS, TIMING_WHEEL, imageNumber));
+        }
+        int fireballCount = buffer.getInt();
+        fireballs.clear();
+        for (int i = 0; i < fireballCount; i++) {
+            fireballs.add(new Fireball(GAME_PROPS, 0, 0, (EnemyCar) getCar(buffer.getInt())));
+        }
+
+        taxi.readState(buffer, this::getCar, this::getPassenger);
+        for (Taxi damagedTaxi : damagedTaxis) {
+            damagedTaxi.readState(buffer, this::getCar, this::getPassenger);
+        }
+        driver.readState(buffer, this::getCar);
+        for (Passenger passenger : passengers) {
+            passenger.readState(buffer, this::getCar);
+        }
+        WAITING_PASSENGERS.rebuild(passengers);
+        for (PowerUp powerUp : powerUps) {
+            powerUp.readState(buffer);
+        }
+        for (Car car : cars) {
+            car.readState(buffer, this::getDamageable);
+        }
+        for (Fireball fireball : fireballs) {
+            fireball.readState(buffer);
+        }
+
+        trip = null;
+        tripEndFlag = null;
+        if (SnapshotUtils.getBoolean(buffer)) {
+            Passenger tripPassenger = getPassenger(buffer.getInt());
+            tripEndFlag = new TripEndFlag(0, 0, 0, GAME_PROPS);
+            tripEndFlag.readState(buffer);
+            trip = new Trip(taxi, tripPassenger, tripEndFlag, POWER_UP_STATE, GAME_STATS, GAME_PROPS);
+            trip.readState(buffer);
+        }
+        passengerHealth = buffer.getDouble();
+        lowestPassengerHealth = buffer.getDouble();
+        lastEjectedPassenger = getPassenger(buffer.getInt());
+        PARTICLES.readState(buffer);
+        OTHER_CAR_SPAWNS.readState(buffer);
+        ENEMY_CAR_SPAWNS.readState(buffer);
+    }
+
+    /**
+     * Numbers every damageable object for the game snapshot being written. Damageable objects are numbered in order:
+     * the cars, the broken taxis, the current taxi, the driver, and then the passengers.
+     */
+    private void indexForSnapshot() {
+        SNAPSHOT_INDICES.clear();
+        int index = 0;
+        for (Car car : cars) {
+            SNAPSHOT_INDICES.put(car, index++);
+        }
+        for (Taxi damagedTaxi : damagedTaxis) {
+            SNAPSHOT_INDICES.put(damagedTaxi, index++);
+        }
+        SNAPSHOT_INDICES.put(taxi, index++);
+        SNAPSHOT_INDICES.put(driver, index++);
+        firstPassengerSnapshotIndex = index;
+        for (Passenger passenger : passengers) {
+            SNAPSHOT_INDICES.put(passenger, index++);
+        }
+    }
+
+    /**
+     * Gets the index of a damageable object in the game snapshot being written, as numbered by indexForSnapshot.
+     * @param damageable The damageable object, or null.
+     * @return The index of the damageable object, or -1 for null or an object no longer in the game.
+     */
+    private int getSnapshotIndex(Damageable damageable) {
+        Integer index = SNAPSHOT_INDICES.get(damageable);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Gets the index of a damageable object that a car collided with in the game snapshot being written.
+     * An object is never removed from the game while a car still refers to it (see removeFarOffScreenObjects), so
+     * every object collided with has an index.
+     * @param damageable The damageable object, or null.
+     * @return The index of the damageable object, or -1 for null.
+     * @throws IllegalStateException If the object is no longer in the game.
+     */
+    private int getDamageableIndex(Damageable damageable) {
+        if (damageable == null) {
+            return -1;
+        }
+        int index = getSnapshotIndex(damageable);
+        if (index < 0) {
+            throw new IllegalStateException("A car refers to an object collided with that is no longer in the game");
+        }
+        return index;
+    }
+
+    /**
+     * Gets the index of a passenger in the game snapshot being written.
+     * @param passenger The passenger, or null.
+     * @return The index of the passenger, or -1 for null.
+     */
+    private int getPassengerIndex(Passenger passenger) {
+        int index = getSnapshotIndex(passenger);
+        return index < 0 ? -1 : index - firstPassengerSnapshotIndex;
+    }
+
+    /**
+     * Gets the damageable object at an index in a game snapshot, numbered as in indexForSnapshot.
+     * @param index The index of the damageable object, or -1 for null.
+     * @return The damageable object, or null.
+     */
+    private Damageable getDamageable(int index) {
+        if (index < 0) {
+            return null;
+        }
+        if (index < cars.size()) {
+            return cars.get(index);
+        }
+        int taxiIndex = index - cars.size();
+        if (taxiIndex < damagedTaxis.size()) {
+            return damagedTaxis.get(taxiIndex);
+        }
+        int driverIndex = cars.size() + damagedTaxis.size() + 1;
+        if (index == driverIndex - 1) {
+            return taxi;
+        }
+        if (index == driverIndex) {
+            return driver;
+        }
+        return passengers.get(index - driverIndex - 1);
+    }
+
+    /**
+     * Gets the car at an index in a game snapshot.
+     * @param index The index of the car, or -1 for null.
+     * @return The car, or null.
+     */
+    private Car getCar(int index) {
+        return index < 0 ? null : cars.get(index);
+    }
+
+    /**
+     * Gets the passenger at an index in a game snapshot.
+     * @param index The index of the passenger, or -1 for null.
+     * @return The passenger, or null.
+     */
+    private Passenger getPassenger(int index) {
+        return index < 0 ? null : passengers.get(index);
+    }
 }
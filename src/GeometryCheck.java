@@ -0,0 +1,181 @@
+import java.util.Properties;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Checks that the squared-distance checks in GeometryUtils give exactly the same results as the square root
+ * distances they replaced, then times both.
+ * Every radius in the game properties, and every sum of two of them (the combined radius of a collision), is checked
+ * against every offset within a couple of pixels of it on both axes, so every point exactly on or next to a boundary is
+ * covered, for both the strict (collision) and the non-strict (proximity) comparison. The run fails, with a non-zero
+ * exit code, if any result differs.
+ */
+public class GeometryCheck {
+
+    /**
+     * The exit code when a squared-distance check differed from the square root distance it replaced.
+     */
+    private static final int MISMATCH_EXIT_CODE = 1;
+
+    /**
+     * The number of pixels beyond a range up to which offsets are checked.
+     */
+    private static final int MARGIN = 2;
+
+    /**
+     * Ranges that are not in the game properties but are checked anyway: no range, a fractional range, and a negative
+     * range (which can happen when a radius sum is set up wrongly, and must contain nothing).
+     */
+    private static final double[] EXTRA_RANGES = {0, 0.5, 10.5, -1};
+
+    /**
+     * The X-coordinate of the first point of every checked pair, in the middle of the window.
+     */
+    private static final int CENTER_X = 512;
+
+    /**
+     * The Y-coordinate of the first point of every checked pair, in the middle of the window.
+     */
+    private static final int CENTER_Y = 384;
+
+    /**
+     * The number of random pairs of points timed for each implementation.
+     */
+    private static final int TIMED_CHECKS = 10_000_000;
+
+    /**
+     * The ranges checked, in increasing order.
+     */
+    private final TreeSet<Double> RANGES;
+
+    /**
+     * Constructor for the geometry check.
+     * @param gameProps The properties object containing game configuration values, from which every radius is read.
+     */
+    public GeometryCheck(Properties gameProps) {
+        TreeSet<Double> radii = new TreeSet<>();
+        for (String key : gameProps.stringPropertyNames()) {
+            if (key.toLowerCase().endsWith("radius")) {
+                radii.add(Double.parseDouble(gameProps.getProperty(key)));
+            }
+        }
+
+        this.RANGES = new TreeSet<>(radii);
+        for (double first : radii) {
+            for (double second : radii) {
+                RANGES.add(first + second);
+            }
+        }
+        for (double range : EXTRA_RANGES) {
+            RANGES.add(range);
+        }
+    }
+
+    /**
+     * Compares the old and new checks at every offset around every range, then times both.
+     * @return True if every result was the same, false otherwise.
+     */
+    public boolean run() {
+        long checks = 0;
+        long mismatches = 0;
+        for (double range : RANGES) {
+            int extent = (int) Math.ceil(Math.abs(range)) + MARGIN;
+            double squaredRange = GeometryUtils.getSquaredRange(range);
+            for (int dx = -extent; dx <= extent; dx++) {
+                for (int dy = -extent; dy <= extent; dy++) {
+                    int x = CENTER_X + dx;
+                    int y = CENTER_Y + dy;
+                    double distance = getOldDistance(CENTER_X, CENTER_Y, x, y);
+                    boolean isWithin = distance <= range;
+                    boolean isStrictlyWithin = distance < range;
+
+                    checks++;
+                    if (GeometryUtils.isWithinRange(CENTER_X, CENTER_Y, x, y, range) != isWithin
+                            || GeometryUtils.isWithinSquaredRange(CENTER_X, CENTER_Y, x, y, squaredRange) != isWithin
+                            || GeometryUtils.isStrictlyWithinRange(CENTER_X, CENTER_Y, x, y, range)
+                            != isStrictlyWithin) {
+                        mismatches++;
+                        System.out.printf("Mismatch: range %s, offset (%d, %d), distance %s%n", range, dx, dy,
+                                distance);
+                    }
+                }
+            }
+        }
+        System.out.printf("Ranges checked: %d, offsets checked: %d, mismatches: %d%n", RANGES.size(), checks,
+                mismatches);
+
+        timeChecks();
+        boolean isSame = mismatches == 0;
+        System.out.printf("Geometry check: %s%n", isSame ? "passed" : "failed");
+        return isSame;
+    }
+
+    /**
+     * Times the old and new non-strict checks over the same random points on the window, with the largest range
+     * checked.
+     */
+    private void timeChecks() {
+        Random random = new Random(0);
+        int[] coordinates = new int[4096];
+        for (int i = 0; i < coordinates.length; i++) {
+            coordinates[i] = random.nextInt(1024);
+        }
+        double range = RANGES.last();
+
+        // Each implementation is run twice, and only the second run is timed, so both are compiled when timed.
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            int oldHits = 0;
+            for (int i = 0; i < TIMED_CHECKS; i++) {
+                int j = i & (coordinates.length - 4);
+                if (getOldDistance(coordinates[j], coordinates[j + 1], coordinates[j + 2], coordinates[j + 3])
+                        <= range) {
+                    oldHits++;
+                }
+            }
+            long oldNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int newHits = 0;
+            for (int i = 0; i < TIMED_CHECKS; i++) {
+                int j = i & (coordinates.length - 4);
+                if (GeometryUtils.isWithinRange(coordinates[j], coordinates[j + 1], coordinates[j + 2],
+                        coordinates[j + 3], range)) {
+                    newHits++;
+                }
+            }
+            long newNanos = System.nanoTime() - start;
+
+            if (round == 1) {
+                System.out.printf("Square root distance: %.2f ns per check (%d hits)%n",
+                        (double) oldNanos / TIMED_CHECKS, oldHits);
+                System.out.printf("Squared distance:     %.2f ns per check (%d hits)%n",
+                        (double) newNanos / TIMED_CHECKS, newHits);
+            }
+        }
+    }
+
+    /**
+     * Calculates the distance between two points the way every distance check did before GeometryUtils.
+     * @param x1 The x-coordinate of the first point.
+     * @param y1 The y-coordinate of the first point.
+     * @param x2 The x-coordinate of the second point.
+     * @param y2 The y-coordinate of the second point.
+     * @return The distance between both points.
+     */
+    private static double getOldDistance(int x1, int y1, int x2, int y2) {
+        return Math.sqrt(Math.pow(x2 - x1, 2) + Math.pow(y2 - y1, 2));
+    }
+
+    /**
+     * Entry point for the geometry check.
+     * Exits with a non-zero exit code if any squared-distance check differed from the square root distance.
+     * @param args Command line arguments (not used).
+     */
+    public static void main(String[] args) {
+        Properties game_props = IOUtils.readPropertiesFile("res/app.properties");
+        if (!new GeometryCheck(game_props).run()) {
+            System.exit(MISMATCH_EXIT_CODE);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * A utility class that provides the geometry calculations shared by all collision and proximity checks.
+ * Every check compares squared distances using integer arithmetic, so no square roots are ever computed.
+ */
+public class GeometryUtils {
+
+    /**
+     * Calculates the squared Euclidean distance between two points.
+     * Uses long arithmetic so that the result cannot overflow for any pair of int coordinates.
+     * @param x1 The x-coordinate of the first point.
+     * @param y1 The y-coordinate of the first point.
+     * @param x2 The x-coordinate of the second point.
+     * @param y2 The y-coordinate of the second point.
+     * @return The squared Euclidean distance between both points.
+     */
+    public static long getSquaredDistance(int x1, int y1, int x2, int y2) {
+        long dx = (long) x2 - x1;
+        long dy = (long) y2 - y1;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Squares a range (e.g. a combined collision radius) so it can be compared against a squared distance.
+     * Negative ranges can never contain any point, so they are mapped to -1.
+     * @param range The range to be squared.
+     * @return The squared range, or -1 if the range is negative.
+     */
+    public static double getSquaredRange(double range) {
+        return range < 0 ? -1 : range * range;
+    }
+
+    /**
+     * Checks if two points are within (or exactly on) a given range of each other.
+     * Equivalent to {@code distance <= range}.
+     * @param x1 The x-coordinate of the first point.
+     * @param y1 The y-coordinate of the first point.
+     * @param x2 The x-coordinate of the second point.
+     * @param y2 The y-coordinate of the second point.
+     * @param range The maximum distance allowed between both points.
+     * @return True if the distance between both points is less than or equal to the range, false otherwise.
+     */
+    public static boolean isWithinRange(int x1, int y1, int x2, int y2, double range) {
+        return getSquaredDistance(x1, y1, x2, y2) <= getSquaredRange(range);
+    }
+
+    /**
+     * Checks if two points are strictly within a given range of each other.
+     * Equivalent to {@code distance < range}, which is the condition used for collisions.
+     * @param x1 The x-coordinate of the first point.
+     * @param y1 The y-coordinate of the first point.
+     * @param x2 The x-coordinate of the second point.
+     * @param y2 The y-coordinate of the second point.
+     * @param range The distance that both points must be closer than.
+     * @return True if the distance between both points is less than the range, false otherwise.
+     */
+    public static boolean isStrictlyWithinRange(int x1, int y1, int x2, int y2, double range) {
+        return getSquaredDistance(x1, y1, x2, y2) < getSquaredRange(range);
+    }
+
+    /**
+     * Checks if two points are within (or exactly on) a pre-squared range of each other.
+     * Used by entities that cache the squared range of a fixed pair of radii.
+     * @param x1 The x-coordinate of the first point.
+     * @param y1 The y-coordinate of the first point.
+     * @param x2 The x-coordinate of the second point.
+     * @param y2 The y-coordinate of the second point.
+     * @param squaredRange The squared maximum distance allowed between both points.
+     * @return True if the squared distance between both points is less than or equal to the squared range.
+     */
+    public static boolean isWithinSquaredRange(int x1, int y1, int x2, int y2, double squaredRange) {
+        return getSquaredDistance(x1, y1, x2, y2) <= squaredRange;
+    }
+}
@@ -0,0 +1,29 @@
+/**
+ * Tracks whether the game runs headless: without a window or the graphics context bagel sets up with it, such as in
+ * the headless and soak runs on a build server.
+ * Headless, no image or font file is loaded, nothing is drawn, and all text is measured as 0 wide. Everything else
+ * (the gameplay, the entities and their timers) runs exactly as it does in a window.
+ * Must be enabled before any screen or entity is created, as images and fonts are loaded when they are created.
+ */
+public class Headless {
+
+    /**
+     * Whether the game runs headless.
+     */
+    private static boolean isEnabled = false;
+
+    /**
+     * Makes the game run headless from now on.
+     */
+    public static void enable() {
+        isEnabled = true;
+    }
+
+    /**
+     * Checks if the game runs headless.
+     * @return True if the game runs headless, false if it runs in a window.
+     */
+    public static boolean isEnabled() {
+        return isEnabled;
+    }
+}
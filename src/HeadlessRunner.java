@@ -0,0 +1,162 @@
+import java.util.Properties;
+
+/**
+ * Runs the ongoing game loop for a fixed number of frames with the autopilot at the wheel, measuring the bytes the game
+ * thread allocates per frame and in each phase of the frame. A new game is started whenever one ends.
+ * The game runs headless (see Headless): no window or graphics context is created, and no image or font is loaded, so
+ * the run works on a build server. The random number generator is seeded, so every run plays the same games and
+ * allocates the same objects.
+ * Once the JVM has warmed up, the only allocations left are inherent to the game: the cars and fireballs spawned
+ * (with their timers), and the HUD text formatted again when a decimal value changes. The average bytes these take
+ * per frame were measured once and set as the baseline in the game properties. The run fails, with a non-zero exit
+ * code, if the game allocates more per frame than that baseline plus a small tolerance for differences in how the
+ * JIT compiler optimises the code, so any new allocation on the frame path is caught.
+ * By default the games are played with the normal game traffic (the headless profile). Run with the argument "stress"
+ * to play them with the stress traffic instead (the headless.stress profile), which spawns far more cars and fireballs
+ * than a normal game, and so allocates far more per frame; it is checked against its own baseline.
+ */
+public class HeadlessRunner {
+
+    /**
+     * The exit code when the game allocated more per frame than its baseline allows.
+     */
+    private static final int OVER_BASELINE_EXIT_CODE = 1;
+
+    /**
+     * The prefix of the properties of the normal headless run.
+     */
+    private static final String DEFAULT_PROFILE = "headless";
+
+    /**
+     * The prefix of the properties of the headless run with the stress traffic.
+     */
+    private static final String STRESS_PROFILE = "headless.stress";
+
+    /**
+     * The prefix of the properties of this run.
+     */
+    private final String PROFILE;
+
+    /**
+     * The screen running the game.
+     */
+    private final OngoingGameScreen SCREEN;
+
+    /**
+     * The autopilot playing the game.
+     */
+    private final Autopilot AUTOPILOT;
+
+    /**
+     * The probe measuring the allocations per frame.
+     */
+    private final AllocationProbe PROBE;
+
+    /**
+     * The number of frames run before allocations are measured, while the JVM warms up.
+     */
+    private final int WARMUP_FRAMES;
+
+    /**
+     * The number of frames measured.
+     */
+    private final int MEASURED_FRAMES;
+
+    /**
+     * The average bytes per frame the game was measured to allocate with the seeded random number generator.
+     */
+    private final double ALLOCATION_BASELINE;
+
+    /**
+     * The most bytes per frame the average may grow above the baseline.
+     */
+    private final double ALLOCATION_TOLERANCE;
+
+    /**
+     * Constructor for the headless runner.
+     * The games are played with the traffic of the profile (trafficFile) instead of the game traffic, and with the
+     * random number generator seeded with headless.randomSeed. The allocations are checked against the baseline and
+     * tolerance of the profile (allocationBaseline and allocationTolerance).
+     * @param gameProps The properties object containing game configuration values.
+     * @param messageProps The properties object containing text configuration values.
+     * @param profile The prefix of the properties of the run, either "headless" or "headless.stress".
+     */
+    public HeadlessRunner(Properties gameProps, Properties messageProps, String profile) {
+        Properties headlessProps = new Properties();
+        headlessProps.putAll(gameProps);
+        headlessProps.setProperty("gamePlay.trafficFile", gameProps.getProperty(profile + ".trafficFile"));
+
+        MiscUtils.setRandomSeed(Long.parseLong(gameProps.getProperty("headless.randomSeed")));
+        this.SCREEN = new OngoingGameScreen(new GameMetrics(new MetricsRegistry()), headlessProps, messageProps);
+        this.AUTOPILOT = new Autopilot(SCREEN, gameProps);
+        this.PROBE = new AllocationProbe();
+        this.WARMUP_FRAMES = Integer.parseInt(gameProps.getProperty("headless.warmupFrames"));
+        this.MEASURED_FRAMES = Integer.parseInt(gameProps.getProperty("headless.frames"));
+        this.PROFILE = profile;
+        this.ALLOCATION_BASELINE = Double.parseDouble(gameProps.getProperty(profile + ".allocationBaseline"));
+        this.ALLOCATION_TOLERANCE = Double.parseDouble(gameProps.getProperty(profile + ".allocationTolerance"));
+    }
+
+    /**
+     * Runs the warmup frames, then the measured frames, and prints the allocations per frame and per phase.
+     * @return True if the game allocated no more per frame than its baseline and tolerance, false otherwise.
+     */
+    public boolean run() {
+        FramePhaseEvent.setAllocationProbe(PROBE);
+        try {
+            runFrames(WARMUP_FRAMES);
+            PROBE.reset();
+            runFrames(MEASURED_FRAMES);
+        } finally {
+            FramePhaseEvent.setAllocationProbe(null);
+        }
+
+        PROBE.printReport();
+        double growth = PROBE.getAverageFrameBytes() - ALLOCATION_BASELINE;
+        boolean isWithinBaseline = growth <= ALLOCATION_TOLERANCE;
+        System.out.printf("Allocation baseline (%s): %.1f bytes per frame, growth %+.1f (allowed %.1f, %s)%n",
+                PROFILE, ALLOCATION_BASELINE, growth, ALLOCATION_TOLERANCE, isWithinBaseline ? "passed" : "exceeded");
+        return isWithinBaseline;
+    }
+
+    /**
+     * Runs a number of frames, starting a new game whenever one ends. Starting a new game is not measured.
+     * @param frames The number of frames to be run.
+     */
+    private void runFrames(int frames) {
+        for (int i = 0; i < frames; i++) {
+            if (SCREEN.canGameEnd()) {
+                SCREEN.resetGame();
+            }
+            PROBE.beginFrame();
+            FramePhaseEvent drawPhase = FramePhaseEvent.start("draw");
+            SCREEN.draw();
+            drawPhase.finish();
+            AUTOPILOT.update();
+            SCREEN.update(AUTOPILOT);
+            PROBE.endFrame();
+        }
+    }
+
+    /**
+     * Entry point for the headless run, in which the autopilot plays the game without a window.
+     * Exits with a non-zero exit code if the game allocated more per frame than its baseline allows.
+     * @param args Command line arguments: nothing for the normal run, or "stress" for the run with the stress traffic.
+     */
+    public static void main(String[] args) {
+        String profile = DEFAULT_PROFILE;
+        if (args.length == 1 && args[0].equals("stress")) {
+            profile = STRESS_PROFILE;
+        } else if (args.length > 0) {
+            throw new IllegalArgumentException("The only argument of the headless run can be \"stress\"");
+        }
+
+        Headless.enable();
+        Properties game_props = IOUtils.readPropertiesFile("res/app.properties");
+        Properties message_props = IOUtils.readPropertiesFile("res/message_en.properties");
+        HeadlessRunner runner = new HeadlessRunner(game_props, message_props, profile);
+        if (!runner.run()) {
+            System.exit(OVER_BASELINE_EXIT_CODE);
+        }
+    }
+}
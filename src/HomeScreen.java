@@ -44,7 +44,7 @@ public class HomeScreen extends Screen {
      * @param messageProps The properties object containing text configuration values.
      */
     public HomeScreen(Properties gameProps, Properties messageProps) {
-        super(gameProps, messageProps, new Image(gameProps.getProperty("backgroundImage.home")));
+        super(gameProps, messageProps, SpriteCache.getSprite(gameProps.getProperty("backgroundImage.home")));
 
         TITLE_FONT_SIZE = Integer.parseInt(GAME_PROPS.getProperty("home.title.fontSize"));
         INSTRUCTION_FONT_SIZE = Integer.parseInt(GAME_PROPS.getProperty("home.instruction.fontSize"));
@@ -0,0 +1,89 @@
+/**
+ * A text label on the heads-up display, made of a fixed prefix (e.g. "TAXI ") followed by a numeric value.
+ * The prefix and the value are drawn separately so they never have to be concatenated, and the value text is
+ * only regenerated when the value changes. Drawing a label whose value has not changed allocates nothing.
+ */
+public class HudLabel {
+
+    /**
+     * The font used to draw the label.
+     */
+    private final GameFont FONT;
+
+    /**
+     * The fixed text drawn before the value.
+     */
+    private final String PREFIX;
+
+    /**
+     * The width of the prefix text, measured once so the value can be drawn right after it.
+     */
+    private final double PREFIX_WIDTH;
+
+    /**
+     * The format used for decimal values (e.g. "%.2f"), or null to use the default text of a double.
+     */
+    private final String VALUE_FORMAT;
+
+    /**
+     * The last value drawn by this label.
+     */
+    private double lastValue;
+
+    /**
+     * The text of the last value drawn by this label, or null if no value has been drawn yet.
+     */
+    private String valueText;
+
+    /**
+     * Constructor for a HUD label.
+     * @param font The font used to draw the label.
+     * @param prefix The fixed text drawn before the value.
+     * @param valueFormat The format used for decimal values, or null to use the default text of a double.
+     */
+    public HudLabel(GameFont font, String prefix, String valueFormat) {
+        this.FONT = font;
+        this.PREFIX = prefix;
+        this.PREFIX_WIDTH = font.getWidth(prefix);
+        this.VALUE_FORMAT = valueFormat;
+        this.valueText = null;
+    }
+
+    /**
+     * Draws the label with a decimal value, formatting the value only if it differs from the last drawn value.
+     * @param value The value to be drawn after the prefix.
+     * @param x The X-coordinate of the start of the label.
+     * @param y The Y-coordinate of the label.
+     */
+    public void draw(double value, double x, double y) {
+        if (valueText == null || Double.compare(value, lastValue) != 0) {
+            lastValue = value;
+            valueText = VALUE_FORMAT == null ? Double.toString(value) : String.format(VALUE_FORMAT, value);
+        }
+        drawText(valueText, x, y);
+    }
+
+    /**
+     * Draws the label with an integer value.
+     * Integer texts are cached, so counters that change every frame can be drawn without allocating.
+     * @param value The value to be drawn after the prefix.
+     * @param x The X-coordinate of the start of the label.
+     * @param y The Y-coordinate of the label.
+     */
+    public void draw(int value, double x, double y) {
+        drawText(TextUtils.intToString(value), x, y);
+    }
+
+    /**
+     * Draws the prefix followed by the value text.
+     * @param text The value text.
+     * @param x The X-coordinate of the start of the label.
+     * @param y The Y-coordinate of the label.
+     */
+    private void drawText(String text, double x, double y) {
+        if (!PREFIX.isEmpty()) {
+            FONT.drawString(PREFIX, x, y);
+        }
+        FONT.drawString(text, x + PREFIX_WIDTH, y);
+    }
+}
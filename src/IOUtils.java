@@ -57,20 +57,4 @@ public class IOUtils {
 
         return appProps;
     }
-
-    /**
-     * Write a score to a file
-     * @param filename The name of the file
-     * @param score The score to be written
-     */
-    public static void writeScoreToFile(String filename, String score) {
-        try(FileWriter fw = new FileWriter(filename, true);
-            BufferedWriter bw = new BufferedWriter(fw);
-            PrintWriter out = new PrintWriter(bw))
-        {
-            out.println(score);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
-}
\ No newline at end of file
+}
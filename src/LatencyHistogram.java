@@ -0,0 +1,195 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A metric recording the distribution of a duration, such as frame time, with high dynamic range.
+ * Durations are counted in log-linear buckets in the style of an HDR histogram: values below 128 ns each get their
+ * own bucket, and every power of two above that is split into 64 equal buckets, so every recorded duration is kept to
+ * within about 1.6% from nanoseconds up to a minute. Recording is a couple of atomic increments, with no locking and
+ * no allocation, and the histogram is exported as a Prometheus summary with quantiles in seconds.
+ */
+public class LatencyHistogram implements Metric {
+
+    /**
+     * The number of low bits of a duration kept exactly in each power of two (128 sub-buckets, half of which are
+     * used above the first power of two).
+     */
+    private static final int SUB_BUCKET_BITS = 7;
+
+    /**
+     * The number of buckets each power of two above the first is split into.
+     */
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << (SUB_BUCKET_BITS - 1);
+
+    /**
+     * The largest duration that can be recorded, in nanoseconds. Longer durations are counted as this.
+     */
+    private static final long MAX_NANOS = (1L << 36) - 1;
+
+    /**
+     * The quantiles exported for the histogram.
+     */
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    /**
+     * The number of nanoseconds in a second.
+     */
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    /**
+     * The name the histogram is exported under.
+     */
+    private final String NAME;
+
+    /**
+     * The description of the histogram.
+     */
+    private final String HELP;
+
+    /**
+     * The number of durations recorded in each bucket.
+     */
+    private final AtomicLongArray COUNTS;
+
+    /**
+     * The total of all durations recorded, in nanoseconds.
+     */
+    private final AtomicLong TOTAL_NANOS;
+
+    /**
+     * Constructor for a latency histogram with no durations recorded.
+     * @param name The name the histogram is exported under.
+     * @param help The description of the histogram.
+     */
+    public LatencyHistogram(String name, String help) {
+        this.NAME = name;
+        this.HELP = help;
+        this.COUNTS = new AtomicLongArray(getBucketIndex(MAX_NANOS) + 1);
+        this.TOTAL_NANOS = new AtomicLong();
+    }
+
+    /**
+     * Records a duration.
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        long clampedNanos = Math.max(0, Math.min(nanos, MAX_NANOS));
+        COUNTS.incrementAndGet(getBucketIndex(clampedNanos));
+        TOTAL_NANOS.addAndGet(clampedNanos);
+    }
+
+    /**
+     * Gets the duration below which the given fraction of recorded durations fall.
+     * @param quantile The fraction of durations, between 0 and 1.
+     * @return The duration at the quantile in nanoseconds, or 0 if nothing has been recorded.
+     */
+    public long getValueAtQuantile(double quantile) {
+        long[] counts = copyCounts();
+        return getValueAtQuantile(counts, getTotalCount(counts), quantile);
+    }
+
+    /**
+     * Gets the name the histogram is exported under.
+     * @return The name of the histogram.
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Appends the histogram as a Prometheus summary, in seconds.
+     * The buckets are copied one at a time while the game keeps recording, so the quantiles, sum and count may be a
+     * few frames apart from each other.
+     * @param out The builder the histogram is appended to.
+     */
+    @Override
+    public void writePrometheus(StringBuilder out) {
+        long[] counts = copyCounts();
+        long totalCount = getTotalCount(counts);
+
+        out.append("# HELP ").append(NAME).append(' ').append(HELP).append('\n');
+        out.append("# TYPE ").append(NAME).append(" summary\n");
+        for (double quantile : QUANTILES) {
+            double seconds = getValueAtQuantile(counts, totalCount, quantile) / NANOS_PER_SECOND;
+            out.append(NAME).append("{quantile=\"").append(quantile).append("\"} ").append(seconds).append('\n');
+        }
+        out.append(NAME).append("_sum ").append(TOTAL_NANOS.get() / NANOS_PER_SECOND).append('\n');
+        out.append(NAME).append("_count ").append(totalCount).append('\n');
+    }
+
+    /**
+     * Copies the count of every bucket.
+     * @return The count of every bucket.
+     */
+    private long[] copyCounts() {
+        long[] counts = new long[COUNTS.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = COUNTS.get(i);
+        }
+        return counts;
+    }
+
+    /**
+     * Adds up the counts of all buckets.
+     * @param counts The count of every bucket.
+     * @return The number of durations recorded.
+     */
+    private static long getTotalCount(long[] counts) {
+        long totalCount = 0;
+        for (long count : counts) {
+            totalCount += count;
+        }
+        return totalCount;
+    }
+
+    /**
+     * Gets the duration at a quantile from copied bucket counts, as the highest duration its bucket can hold.
+     * @param counts The count of every bucket.
+     * @param totalCount The number of durations recorded.
+     * @param quantile The fraction of durations, between 0 and 1.
+     * @return The duration at the quantile in nanoseconds, or 0 if nothing has been recorded.
+     */
+    private static long getValueAtQuantile(long[] counts, long totalCount, double quantile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return getBucketUpperBound(i) - 1;
+            }
+        }
+        return MAX_NANOS;
+    }
+
+    /**
+     * Gets the bucket a duration is counted in.
+     * @param nanos The duration in nanoseconds, between 0 and the maximum duration.
+     * @return The index of the bucket.
+     */
+    private static int getBucketIndex(long nanos) {
+        if (nanos < 2 * SUB_BUCKET_HALF_COUNT) {
+            return (int) nanos;
+        }
+        // Keep the top SUB_BUCKET_BITS - 1 bits below the highest set bit.
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos)) - (SUB_BUCKET_BITS - 1);
+        return (shift << (SUB_BUCKET_BITS - 1)) + (int) (nanos >>> shift);
+    }
+
+    /**
+     * Gets the smallest duration above every duration counted in a bucket.
+     * @param index The index of the bucket.
+     * @return The exclusive upper bound of the bucket in nanoseconds.
+     */
+    private static long getBucketUpperBound(int index) {
+        if (index < 2 * SUB_BUCKET_HALF_COUNT) {
+            return index + 1;
+        }
+        int shift = (index >>> (SUB_BUCKET_BITS - 1)) - 1;
+        long subBucket = index - ((long) shift << (SUB_BUCKET_BITS - 1));
+        return (subBucket + 1) << shift;
+    }
+}
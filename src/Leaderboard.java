@@ -0,0 +1,340 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Properties;
+
+/**
+ * Keeps track of the top scores and statistics of all games without reading the whole history of games.
+ * The history is stored as a snapshot of folded statistics (see ScoreHistory) plus binary journal segments of the
+ * games played since the snapshot was saved (see ScoreJournal). On startup only the snapshot and the segments are
+ * read. On shutdown every segment is compacted into a new snapshot.
+ * Several game processes can share the same score files: each process appends to a segment of its own, so recording
+ * a score never waits on another process. Only reading the snapshot and compacting, which are done once per process,
+ * take a lock on the lock file: shared for reading, exclusive for compacting.
+ * The first time the game runs with this leaderboard, the old CSV scores file is migrated into the first snapshot.
+ * The snapshot and journal are loaded on a background thread as soon as the leaderboard is created, and stay loaded
+ * for every game after that, so the end of a game never waits on the disk.
+ * If the score files cannot be loaded (a damaged snapshot, for example), the failure is logged once and the
+ * leaderboard is unavailable for the rest of the session: scores are neither recorded nor saved, and the files are left
+ * as they are, but the game keeps running.
+ */
+public class Leaderboard {
+
+    /**
+     * The file path of the old CSV scores file, only read once to migrate it.
+     */
+    private final String LEGACY_SCORES_FILE;
+
+    /**
+     * The file path of the snapshot of the score history.
+     */
+    private final String SNAPSHOT_FILE;
+
+    /**
+     * The file path of the score journal, to which each process appends a unique segment name.
+     */
+    private final String JOURNAL_FILE;
+
+    /**
+     * The file path of the lock file, locked while reading the snapshot or compacting.
+     */
+    private final String LOCK_FILE;
+
+    /**
+     * The thread loading the snapshot and journal.
+     */
+    private final Thread LOADER;
+
+    /**
+     * The history of every game, including games recorded since startup. Set once loaded.
+     */
+    private ScoreHistory history;
+
+    /**
+     * The journal segment of this process, recording games played since startup. Set once loaded.
+     */
+    private ScoreJournal journal;
+
+    /**
+     * The service that appends new scores to the journal in the background. Set once loaded.
+     */
+    private ScorePersistenceService scorePersistence;
+
+    /**
+     * The reason the snapshot and journal could not be loaded, or null if they were loaded (or are still loading).
+     * Set on the loader thread.
+     */
+    private Exception loadFailure;
+
+    /**
+     * Constructor for the leaderboard. Starts loading the snapshot and journal in the background.
+     * @param gameProps The properties object containing game configuration values.
+     */
+    public Leaderboard(Properties gameProps) {
+        this.LEGACY_SCORES_FILE = gameProps.getProperty("gameEnd.scoresFile");
+        this.SNAPSHOT_FILE = gameProps.getProperty("gameEnd.scoreSnapshotFile");
+        this.JOURNAL_FILE = gameProps.getProperty("gameEnd.scoreJournalFile");
+        this.LOCK_FILE = gameProps.getProperty("gameEnd.scoreLockFile");
+
+        this.LOADER = new Thread(this::load, "leaderboard-loader");
+        this.LOADER.setDaemon(true);
+        this.LOADER.start();
+    }
+
+    /**
+     * Runs on the loader thread. Loads the snapshot (migrating the old CSV scores file if there is no snapshot yet),
+     * then replays every segment past the offset already folded into the snapshot, and creates the segment of this
+     * process. Records still being written by other processes are skipped, as they are incomplete.
+     * Any failure is logged and kept, which makes the leaderboard unavailable, rather than ending the game.
+     */
+    private void load() {
+        try {
+            if (!new File(SNAPSHOT_FILE).exists()) {
+                try (FileChannel lockChannel = openLockFile()) {
+                    lockChannel.lock();
+                    // Another process may have migrated the scores while this one waited for the lock.
+                    if (!new File(SNAPSHOT_FILE).exists()) {
+                        migrateLegacyScores();
+                    }
+                }
+            }
+            // The segment is created while holding the lock, so it is never mistaken for a finished one.
+            try (FileChannel lockChannel = openLockFile()) {
+                lockChannel.lock(0, Long.MAX_VALUE, true);
+                history = ScoreHistory.load(SNAPSHOT_FILE);
+                for (Path segment : listSegments()) {
+                    String segmentName = segment.getFileName().toString();
+                    new ScoreJournal(segment.toString()).replay(history.getSegmentOffset(segmentName), history::add);
+                }
+                journal = new ScoreJournal(JOURNAL_FILE + "." + ProcessHandle.current().pid() + "-" +
+                        System.nanoTime());
+                journal.open();
+            }
+            scorePersistence = new ScorePersistenceService(journal);
+        } catch (IOException | RuntimeException e) {
+            // A malformed score in the old CSV scores file, for example, fails with a NumberFormatException.
+            loadFailure = e;
+            System.err.println("Could not load the score history, so no score is recorded until the game restarts");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Waits until the snapshot and journal have been loaded, and checks if they could be. Returns straight away once
+     * they have been loaded.
+     * @return True if the score history was loaded, false if it could not be or the wait was interrupted.
+     */
+    public boolean isAvailable() {
+        try {
+            LOADER.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return loadFailure == null;
+    }
+
+    /**
+     * Waits until the snapshot and journal have been loaded. Returns straight away once they have.
+     * @throws IllegalStateException If the score history is unavailable (see isAvailable).
+     */
+    private void awaitLoaded() {
+        if (!isAvailable()) {
+            throw new IllegalStateException("The score history is unavailable", loadFailure);
+        }
+    }
+
+    /**
+     * Records the final score of a player, folding it into the history and appending it to the journal in the
+     * background. Does nothing if the score history is unavailable.
+     * @param playerName The name of the player.
+     * @param playerScore The final score of the player.
+     */
+    public void record(String playerName, double playerScore) {
+        if (!isAvailable()) {
+            return;
+        }
+        ScoreEntry scoreEntry = new ScoreEntry(playerName, playerScore);
+        history.add(scoreEntry);
+        scorePersistence.submit(scoreEntry);
+    }
+
+    /**
+     * Gets the current top scores.
+     * @return A list of the top scores (at most ScoreHistory.MAX_NUM_TOP_SCORES), sorted in descending order.
+     * @throws IllegalStateException If the score history is unavailable (see isAvailable).
+     */
+    public ArrayList<ScoreEntry> getTopScores() {
+        awaitLoaded();
+        return history.getTopScores();
+    }
+
+    /**
+     * Gets the best score of a player over every recorded game.
+     * @param playerName The name of the player.
+     * @return The best score of the player, or null if the player has no recorded games.
+     * @throws IllegalStateException If the score history is unavailable (see isAvailable).
+     */
+    public Double getPlayerBest(String playerName) {
+        awaitLoaded();
+        return history.getPlayerBest(playerName);
+    }
+
+    /**
+     * Gets the rank of a score among every recorded game, where 1 is the highest.
+     * @param score The score to be ranked.
+     * @return The rank of the score.
+     * @throws IllegalStateException If the score history is unavailable (see isAvailable).
+     */
+    public long getRank(double score) {
+        awaitLoaded();
+        return history.getRank(score);
+    }
+
+    /**
+     * Gets the percentile of a score among every recorded game.
+     * @param score The score to be compared against.
+     * @return The percentile of the score, from 0 to 100.
+     * @throws IllegalStateException If the score history is unavailable (see isAvailable).
+     */
+    public double getPercentile(double score) {
+        awaitLoaded();
+        return history.getPercentile(score);
+    }
+
+    /**
+     * Gets the number of games recorded.
+     * @return The number of games.
+     * @throws IllegalStateException If the score history is unavailable (see isAvailable).
+     */
+    public long getGameCount() {
+        awaitLoaded();
+        return history.getGameCount();
+    }
+
+    /**
+     * Gets the history of every game, including games recorded since startup.
+     * @return The score history.
+     * @throws IllegalStateException If the score history is unavailable (see isAvailable).
+     */
+    public ScoreHistory getHistory() {
+        awaitLoaded();
+        return history;
+    }
+
+    /**
+     * Writes every recorded score to the segment of this process and closes it, then compacts every segment into a
+     * new snapshot. Called once when the game is closed. Does nothing if the score history could not be loaded, as
+     * no score was recorded then.
+     */
+    public void close() {
+        try {
+            LOADER.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (loadFailure != null) {
+            return;
+        }
+        scorePersistence.close();
+        try {
+            journal.close();
+            compact();
+        } catch (IOException e) {
+            // The segments are left as they are, so they are compacted next time instead.
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Folds every segment into a new snapshot, then deletes the segments no process can append to anymore.
+     * The snapshot is rebuilt from the files on disk rather than the in-memory history, so that it only ever
+     * contains games that are durably recorded. Segments still open in other processes are folded up to their last
+     * complete record, and the rest is folded by a later compaction. A finished segment is only deleted after a
+     * snapshot recording its final offset is saved, so a crash in between never folds it twice.
+     * @throws IOException If the snapshot or a segment could not be read or written.
+     */
+    private void compact() throws IOException {
+        try (FileChannel lockChannel = openLockFile()) {
+            lockChannel.lock();
+            ScoreHistory compacted = ScoreHistory.load(SNAPSHOT_FILE);
+            HashSet<String> segmentNames = new HashSet<>();
+            ArrayList<ScoreJournal> finishedSegments = new ArrayList<>();
+            for (Path segment : listSegments()) {
+                String segmentName = segment.getFileName().toString();
+                ScoreJournal segmentJournal = new ScoreJournal(segment.toString());
+                // Checked before replaying, so a finished segment is folded to its very end.
+                boolean isFinished = !ScoreJournal.isInUse(segment.toString());
+                long end = segmentJournal.replay(compacted.getSegmentOffset(segmentName), compacted::add);
+                compacted.setSegmentOffset(segmentName, end);
+                segmentNames.add(segmentName);
+                if (isFinished) {
+                    finishedSegments.add(segmentJournal);
+                }
+            }
+            // Segments deleted by an earlier compaction no longer need their offsets.
+            compacted.retainSegments(segmentNames);
+            compacted.save(SNAPSHOT_FILE);
+            for (ScoreJournal segmentJournal : finishedSegments) {
+                segmentJournal.delete();
+            }
+        }
+    }
+
+    /**
+     * Builds the first snapshot from the old CSV scores file, in which every line is: playerName,playerScore
+     * Player names may themselves contain commas, so the score is always taken from the last column.
+     * The CSV file is left untouched, but is never read again once the snapshot exists.
+     * @throws IOException If the snapshot could not be written.
+     */
+    private void migrateLegacyScores() throws IOException {
+        ScoreHistory migrated = new ScoreHistory();
+        if (LEGACY_SCORES_FILE != null && new File(LEGACY_SCORES_FILE).exists()) {
+            for (String[] row : IOUtils.readCommaSeparatedFile(LEGACY_SCORES_FILE)) {
+                if (row.length >= 2) {
+                    String playerName = String.join(",", Arrays.copyOf(row, row.length - 1));
+                    migrated.add(new ScoreEntry(playerName, Double.parseDouble(row[row.length - 1])));
+                }
+            }
+        }
+        migrated.save(SNAPSHOT_FILE);
+    }
+
+    /**
+     * Opens the lock file, creating it if needed. Closing the channel releases any lock taken through it.
+     * @return The channel of the lock file.
+     * @throws IOException If the lock file could not be opened.
+     */
+    private FileChannel openLockFile() throws IOException {
+        return FileChannel.open(Paths.get(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Lists the journal segments of every process, which are the files named after the journal file followed by a
+     * dot and a segment name.
+     * @return The file paths of the segments.
+     * @throws IOException If the directory of the journal could not be read.
+     */
+    private ArrayList<Path> listSegments() throws IOException {
+        Path journalPath = Paths.get(JOURNAL_FILE).toAbsolutePath();
+        String prefix = journalPath.getFileName() + ".";
+        ArrayList<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> directory = Files.newDirectoryStream(journalPath.getParent(),
+                path -> path.getFileName().toString().startsWith(prefix))) {
+            for (Path segment : directory) {
+                segments.add(segment);
+            }
+        }
+        return segments;
+    }
+}
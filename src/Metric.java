@@ -0,0 +1,18 @@
+/**
+ * Interface for a metric in the metrics registry, which can be written out in the Prometheus text format.
+ */
+public interface Metric {
+
+    /**
+     * Gets the name the metric is exported under.
+     * @return The name of the metric.
+     */
+    String getName();
+
+    /**
+     * Appends the current value of the metric, including its HELP and TYPE lines, in the Prometheus text format.
+     * Called from the exporter thread, so it must only read values that the game thread publishes safely.
+     * @param out The builder the metric is appended to.
+     */
+    void writePrometheus(StringBuilder out);
+}
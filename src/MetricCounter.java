@@ -0,0 +1,68 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A metric counting how many times something has happened since the game started, such as cars spawned.
+ */
+public class MetricCounter implements Metric {
+
+    /**
+     * The name the counter is exported under.
+     */
+    private final String NAME;
+
+    /**
+     * The description of the counter.
+     */
+    private final String HELP;
+
+    /**
+     * The current count. Incremented without locking.
+     */
+    private final LongAdder COUNT;
+
+    /**
+     * Constructor for a metric counter, starting at zero.
+     * @param name The name the counter is exported under.
+     * @param help The description of the counter.
+     */
+    public MetricCounter(String name, String help) {
+        this.NAME = name;
+        this.HELP = help;
+        this.COUNT = new LongAdder();
+    }
+
+    /**
+     * Adds one to the counter.
+     */
+    public void increment() {
+        COUNT.increment();
+    }
+
+    /**
+     * Gets the current count.
+     * @return The current count.
+     */
+    public long get() {
+        return COUNT.sum();
+    }
+
+    /**
+     * Gets the name the counter is exported under.
+     * @return The name of the counter.
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Appends the counter in the Prometheus text format.
+     * @param out The builder the counter is appended to.
+     */
+    @Override
+    public void writePrometheus(StringBuilder out) {
+        out.append("# HELP ").append(NAME).append(' ').append(HELP).append('\n');
+        out.append("# TYPE ").append(NAME).append(" counter\n");
+        out.append(NAME).append(' ').append(get()).append('\n');
+    }
+}
@@ -0,0 +1,77 @@
+import java.util.function.DoubleSupplier;
+
+/**
+ * A metric holding a value that can go up and down, such as the number of cars currently on the road.
+ * The value is either set by the game thread, or sampled from a source each time the gauge is exported.
+ */
+public class MetricGauge implements Metric {
+
+    /**
+     * The name the gauge is exported under.
+     */
+    private final String NAME;
+
+    /**
+     * The description of the gauge.
+     */
+    private final String HELP;
+
+    /**
+     * The source sampled when the gauge is exported, or null if the value is set by the game thread.
+     */
+    private final DoubleSupplier SOURCE;
+
+    /**
+     * The value last set by the game thread.
+     */
+    private volatile double value;
+
+    /**
+     * Constructor for a metric gauge.
+     * @param name The name the gauge is exported under.
+     * @param help The description of the gauge.
+     * @param source The source sampled when the gauge is exported, or null if the value is set by the game thread.
+     */
+    public MetricGauge(String name, String help, DoubleSupplier source) {
+        this.NAME = name;
+        this.HELP = help;
+        this.SOURCE = source;
+        this.value = 0;
+    }
+
+    /**
+     * Sets the value of the gauge.
+     * @param value The new value of the gauge.
+     */
+    public void set(double value) {
+        this.value = value;
+    }
+
+    /**
+     * Gets the current value of the gauge, sampling the source if it has one.
+     * @return The current value of the gauge.
+     */
+    public double get() {
+        return SOURCE != null ? SOURCE.getAsDouble() : value;
+    }
+
+    /**
+     * Gets the name the gauge is exported under.
+     * @return The name of the gauge.
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Appends the gauge in the Prometheus text format.
+     * @param out The builder the gauge is appended to.
+     */
+    @Override
+    public void writePrometheus(StringBuilder out) {
+        out.append("# HELP ").append(NAME).append(' ').append(HELP).append('\n');
+        out.append("# TYPE ").append(NAME).append(" gauge\n");
+        out.append(NAME).append(' ').append(get()).append('\n');
+    }
+}
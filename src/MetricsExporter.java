@@ -0,0 +1,106 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Periodically writes every metric of the game to a file in the Prometheus text format, on a background thread so the
+ * game thread never waits on the disk. Each write goes to a temporary file which then replaces the metrics file, so a
+ * local scraper reading the file always sees a complete set of metrics. Closing the exporter writes the metrics one
+ * last time before returning.
+ */
+public class MetricsExporter {
+
+    /**
+     * The registry whose metrics are written.
+     */
+    private final MetricsRegistry REGISTRY;
+
+    /**
+     * The file path the metrics are written to.
+     */
+    private final Path FILE;
+
+    /**
+     * The temporary file path each write goes to before replacing the metrics file.
+     */
+    private final Path TEMP_FILE;
+
+    /**
+     * The time between writes, in milliseconds.
+     */
+    private final long INTERVAL_MILLIS;
+
+    /**
+     * The thread that periodically writes the metrics.
+     */
+    private final Thread WRITER;
+
+    /**
+     * Boolean indicating whether the exporter has been closed.
+     */
+    private volatile boolean isClosed;
+
+    /**
+     * Constructor for the metrics exporter. Starts the writer thread.
+     * @param registry The registry whose metrics are written.
+     * @param gameProps The properties object containing game configuration values.
+     */
+    public MetricsExporter(MetricsRegistry registry, Properties gameProps) {
+        this.REGISTRY = registry;
+        this.FILE = Paths.get(gameProps.getProperty("metrics.file"));
+        this.TEMP_FILE = Paths.get(FILE + ".tmp");
+        this.INTERVAL_MILLIS = Long.parseLong(gameProps.getProperty("metrics.intervalMillis"));
+        this.isClosed = false;
+
+        this.WRITER = new Thread(this::writePeriodically, "metrics-exporter");
+        this.WRITER.setDaemon(true);
+        this.WRITER.start();
+    }
+
+    /**
+     * Stops the writer thread, then writes the final value of every metric.
+     */
+    public void close() {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+        WRITER.interrupt();
+        try {
+            WRITER.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeMetrics();
+    }
+
+    /**
+     * Runs on the writer thread. Writes the metrics once every interval until the exporter is closed.
+     */
+    private void writePeriodically() {
+        while (!isClosed) {
+            try {
+                Thread.sleep(INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            writeMetrics();
+        }
+    }
+
+    /**
+     * Writes the current value of every metric to the temporary file, then moves it over the metrics file.
+     */
+    private void writeMetrics() {
+        try {
+            Files.write(TEMP_FILE, REGISTRY.toPrometheusText().getBytes(StandardCharsets.UTF_8));
+            Files.move(TEMP_FILE, FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+import java.util.ArrayList;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Keeps every metric of the game, in the order they were registered, and writes them out in the Prometheus text
+ * format. Metrics are registered once at startup, after which the game thread only updates them.
+ */
+public class MetricsRegistry {
+
+    /**
+     * The registered metrics.
+     */
+    private final ArrayList<Metric> METRICS;
+
+    /**
+     * Constructor for an empty metrics registry.
+     */
+    public MetricsRegistry() {
+        this.METRICS = new ArrayList<>();
+    }
+
+    /**
+     * Creates and registers a counter.
+     * @param name The name the counter is exported under.
+     * @param help The description of the counter.
+     * @return The new counter.
+     */
+    public synchronized MetricCounter counter(String name, String help) {
+        return register(new MetricCounter(name, help));
+    }
+
+    /**
+     * Creates and registers a gauge whose value is set by the game thread.
+     * @param name The name the gauge is exported under.
+     * @param help The description of the gauge.
+     * @return The new gauge.
+     */
+    public synchronized MetricGauge gauge(String name, String help) {
+        return register(new MetricGauge(name, help, null));
+    }
+
+    /**
+     * Creates and registers a gauge whose value is sampled from a source whenever it is exported.
+     * @param name The name the gauge is exported under.
+     * @param help The description of the gauge.
+     * @param source The source of the gauge's value, which must be safe to call from the exporter thread.
+     * @return The new gauge.
+     */
+    public synchronized MetricGauge gauge(String name, String help, DoubleSupplier source) {
+        return register(new MetricGauge(name, help, source));
+    }
+
+    /**
+     * Creates and registers a latency histogram.
+     * @param name The name the histogram is exported under.
+     * @param help The description of the histogram.
+     * @return The new histogram.
+     */
+    public synchronized LatencyHistogram histogram(String name, String help) {
+        return register(new LatencyHistogram(name, help));
+    }
+
+    /**
+     * Writes every registered metric in the Prometheus text format.
+     * @return The current values of all metrics, in the Prometheus text format.
+     */
+    public synchronized String toPrometheusText() {
+        StringBuilder out = new StringBuilder();
+        for (Metric metric : METRICS) {
+            metric.writePrometheus(out);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Adds a metric to the registry.
+     * @param metric The metric to be registered.
+     * @return The metric.
+     * @throws IllegalArgumentException If a metric with the same name is already registered.
+     */
+    private <T extends Metric> T register(T metric) {
+        for (Metric registered : METRICS) {
+            if (registered.getName().equals(metric.getName())) {
+                throw new IllegalArgumentException("Metric already registered: " + metric.getName());
+            }
+        }
+        METRICS.add(metric);
+        return metric;
+    }
+}
@@ -1,21 +1,65 @@
 import bagel.Input;
 import bagel.Keys;
 
-import java.util.Random;
-
 /**
  * This class contains miscellaneous utility methods.
  */
 public class MiscUtils {
 
     /**
-     * Check if the game should spawn a new invader.
-     * @param invRate The rate of invader spawn.
-     * @return true if the game should spawn a new invader, false otherwise.
+     * The multiplier of the random number generator, the same as java.util.Random's.
+     */
+    private static final long RANDOM_MULTIPLIER = 0x5DEECE66DL;
+
+    /**
+     * The increment of the random number generator, the same as java.util.Random's.
+     */
+    private static final long RANDOM_ADDEND = 0xBL;
+
+    /**
+     * The mask keeping the 48 bits of the state of the random number generator.
+     */
+    private static final long RANDOM_MASK = (1L << 48) - 1;
+
+    /**
+     * The whole state of the random number generator shared by the whole game.
+     * The generator is the linear congruential generator of java.util.Random, so it draws the same numbers for the
+     * same seed, but its state is a single number that game snapshots can save and restore.
+     */
+    private static long randomState = scrambleSeed(System.nanoTime());
+
+    /**
+     * Seeds the random number generator of the game, so that a run with the same input plays out the same way every
+     * time, such as a headless run measured against a baseline.
+     * @param seed The seed.
+     */
+    public static void setRandomSeed(long seed) {
+        randomState = scrambleSeed(seed);
+    }
+
+    /**
+     * Gets the whole state of the random number generator, to be written to a game snapshot.
+     * @return The state of the random number generator.
+     */
+    public static long getRandomState() {
+        return randomState;
+    }
+
+    /**
+     * Restores the state of the random number generator from a game snapshot, so the game draws the same numbers
+     * from there as it did when the snapshot was taken.
+     * @param state The state of the random number generator, as returned by getRandomState.
+     */
+    public static void setRandomState(long state) {
+        randomState = state & RANDOM_MASK;
+    }
+
+    /**
+     * Get a random double between 0 (inclusive) and 1 (exclusive).
+     * @return A random double between 0 and 1.
      */
-    public static boolean canSpawn(int invRate) {
-        int rnd = new Random().nextInt(1000) + 1; // Random delay between 1 and 10 seconds
-        return rnd % invRate == 0;
+    public static double getRandomDouble() {
+        return (((long) nextRandomBits(26) << 27) + nextRandomBits(27)) * 0x1.0p-53;
     }
 
     /**
@@ -25,7 +69,7 @@ public class MiscUtils {
      * @return A random integer between min and max.
      */
     public static int getRandomInt(int min, int max) {
-        return new Random().nextInt(max - min) + min;
+        return nextRandomInt(max - min) + min;
     }
 
     /**
@@ -35,7 +79,49 @@ public class MiscUtils {
      * @return A random value between val1 and val2.
      */
     public static int selectAValue(int val1, int val2) {
-        return new Random().nextBoolean() ? val1 : val2;
+        return nextRandomBits(1) != 0 ? val1 : val2;
+    }
+
+    /**
+     * Turns a seed into a state of the random number generator, as java.util.Random does.
+     * @param seed The seed.
+     * @return The state of the random number generator.
+     */
+    private static long scrambleSeed(long seed) {
+        return (seed ^ RANDOM_MULTIPLIER) & RANDOM_MASK;
+    }
+
+    /**
+     * Advances the random number generator and takes the highest bits of its new state, as java.util.Random does.
+     * @param bits The number of random bits, at most 32.
+     * @return The random bits.
+     */
+    private static int nextRandomBits(int bits) {
+        randomState = (randomState * RANDOM_MULTIPLIER + RANDOM_ADDEND) & RANDOM_MASK;
+        return (int) (randomState >>> (48 - bits));
+    }
+
+    /**
+     * Draws a random integer between 0 (inclusive) and a bound (exclusive), as java.util.Random.nextInt does.
+     * @param bound The bound, which must be positive.
+     * @return A random integer between 0 and the bound.
+     */
+    private static int nextRandomInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("Random bound must be positive, got " + bound);
+        }
+        int bits = nextRandomBits(31);
+        if ((bound & -bound) == bound) {
+            // A power of two takes the highest bits, which are the most random.
+            return (int) ((bound * (long) bits) >> 31);
+        }
+        int value = bits % bound;
+        // Draws again when the bits fall into the last, incomplete range of the bound, so every value is as likely.
+        while (bits - value + (bound - 1) < 0) {
+            bits = nextRandomBits(31);
+            value = bits % bound;
+        }
+        return value;
     }
 
     /**
@@ -1,6 +1,9 @@
 import bagel.*;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Properties;
 
 /**
@@ -8,7 +11,7 @@ import java.util.Properties;
  * Handles the logic behind switching between sunny and rainy background screens.
  * Also handles the ongoing game's background scrolling.
  */
-public class OngoingGameScreen extends Screen {
+public class OngoingGameScreen extends Screen implements WeatherChangeListener {
 
     /**
      * The vertical movement speed of the ongoing game background.
@@ -61,54 +64,114 @@ public class OngoingGameScreen extends Screen {
     private Gameplay gameplay;
 
     /**
-     * A boolean flag indicating whether the weather is currently raining or not.
+     * The timing wheel on which all frame-based timers of the ongoing game are scheduled.
      */
-    private boolean isRaining;
+    private TimingWheel timingWheel;
+
+    /**
+     * The background image drawn while the weather is sunny.
+     */
+    private final Sprite SUNNY_BACKGROUND_IMAGE;
+
+    /**
+     * The background image drawn while the weather is raining.
+     */
+    private final Sprite RAINING_BACKGROUND_IMAGE;
 
     /**
      * The Y-coordinate position for the first background to mimic scrolling effect.
      */
-    private double background1Y = Window.getHeight() / 2.0;
+    private double background1Y;
 
     /**
      * The Y-coordinate position for the second background to mimic scrolling effect.
      */
-    private double background2Y = -Window.getHeight() / 2.0;
+    private double background2Y;
 
     /**
-     * List of weather conditions that controls the sunny/rainy weather in-game.
+     * Timeline of weather conditions that controls the sunny/rainy weather in-game.
      */
-    private ArrayList<Weather> weatherInfo;
+    private WeatherTimeline weatherTimeline;
+
+    /**
+     * Timeline of traffic that controls how often cars and fireballs spawn in-game.
+     */
+    private TrafficTimeline trafficTimeline;
 
     /**
      * The current frame of the game, increases by 1 per unit time and is capped at a certain number.
      */
     private int currentFrame;
 
+    /**
+     * Tracks the game-over conditions that depend on the passengers and the total score.
+     */
+    private GameOverTracker gameOverTracker;
+
+    /**
+     * The reason the current game has ended for, or null if it has not ended.
+     */
+    private GameEndReason endReason;
+
+    /**
+     * The buffer game snapshots are written to, kept between snapshots and doubled whenever a snapshot outgrows it.
+     */
+    private ByteBuffer snapshotBuffer;
+
+    /**
+     * The snapshots of the most recent frames, which the game can be rewound to.
+     */
+    private final RollbackBuffer ROLLBACK;
+
+    /**
+     * Whether the snapshot of every frame is recorded so the game can be rewound. Off by default, as it serialises the
+     * whole game every frame only for debugging.
+     */
+    private final boolean IS_ROLLBACK_ENABLED;
+
+    /**
+     * The metrics in which gameplay events are counted, shared by every game played.
+     */
+    private final GameMetrics METRICS;
+
     /**
      * Constructor for ongoing game screen class.
      * Initialises both sunny/rainy background images, various gameplay related classes to handle logic and track
      * gameplay statistics.
-     * Calls helper functions to load in and create initial entities on screen as well as sunny/rain conditions based
-     * on game objects and weather information files.
+     * Calls helper functions to load in and create initial entities on screen as well as sunny/rain conditions and
+     * traffic based on game objects, weather and traffic information files.
+     * @param metrics The metrics in which gameplay events are counted.
      * @param gameProps The properties object containing game configuration values.
      * @param messageProps The properties object containing text configuration values.
      */
-    public OngoingGameScreen(Properties gameProps, Properties messageProps) {
-        super(gameProps, messageProps, new Image(gameProps.getProperty("backgroundImage.sunny")));
+    public OngoingGameScreen(GameMetrics metrics, Properties gameProps, Properties messageProps) {
+        super(gameProps, messageProps, SpriteCache.getSprite(gameProps.getProperty("backgroundImage.sunny")));
+
+        SUNNY_BACKGROUND_IMAGE = BACKGROUND_IMAGE;
+        RAINING_BACKGROUND_IMAGE = SpriteCache.getSprite(gameProps.getProperty("backgroundImage.raining"));
+        background1Y = WINDOW_HEIGHT / 2.0;
+        background2Y = -WINDOW_HEIGHT / 2.0;
 
         // Scroll speed for the ongoing game background can be referred to taxi's "scroll speed".
         SCROLL_SPEED = Integer.parseInt(gameProps.getProperty("gameObjects.taxi.speedY"));
 
         WINDOW_MAX_HEIGHT = Integer.parseInt(gameProps.getProperty("window.height"));
 
-        powerUpState = new PowerUpState(gameProps);
-        gameStats = new GameStats(gameProps, messageProps);
-        gameplay = new Gameplay(tripEndFlag, powerUpState, gameStats, gameProps, messageProps);
-        loadGameObjects(gameProps.getProperty("gamePlay.objectsFile"));
+        timingWheel = new TimingWheel();
+        powerUpState = new PowerUpState(timingWheel, gameProps);
+        gameOverTracker = new GameOverTracker();
+        gameStats = new GameStats(gameOverTracker, gameProps, messageProps);
+        METRICS = metrics;
+        gameplay = new Gameplay(tripEndFlag, powerUpState, gameStats, timingWheel, METRICS, gameProps, messageProps);
         loadWeatherInfo(gameProps.getProperty("gamePlay.weatherFile"));
+        loadTrafficInfo(gameProps.getProperty("gamePlay.trafficFile"));
+        loadGameObjects(gameProps.getProperty("gamePlay.objectsFile"));
 
         currentFrame = 0;
+        snapshotBuffer = ByteBuffer.allocate(4096);
+        ROLLBACK = new RollbackBuffer(Integer.parseInt(gameProps.getProperty("gamePlay.rollback.frames")),
+                Integer.parseInt(gameProps.getProperty("gamePlay.rollback.keyframeInterval")));
+        IS_ROLLBACK_ENABLED = Boolean.parseBoolean(gameProps.getProperty("gamePlay.rollback.enabled"));
     }
 
     /**
@@ -116,31 +179,31 @@ public class OngoingGameScreen extends Screen {
      */
     @Override
     public void draw() {
-        Weather currentWeather = getCurrentWeather();
-
-        assert currentWeather != null; // This should always pass as long as the weather file is set up properly.
-
-        if (currentWeather.getType().equals("SUNNY")) {
-            BACKGROUND_IMAGE = new Image(this.GAME_PROPS.getProperty("backgroundImage.sunny"));
-            isRaining = false;
-        } else {
-            BACKGROUND_IMAGE = new Image(this.GAME_PROPS.getProperty("backgroundImage.raining"));
-            isRaining = true;
-        }
+        // Publishes a weather change event to this screen and all passengers if the weather has changed.
+        weatherTimeline.update(currentFrame);
 
         // Draw first background image, coordinate (512, 384)
-        BACKGROUND_IMAGE.draw(Window.getWidth() / 2.0, background1Y);
+        BACKGROUND_IMAGE.draw(WINDOW_WIDTH / 2.0, background1Y);
 
         // Draw second background image, coordinate (512, -384)
-        BACKGROUND_IMAGE.draw(Window.getWidth() / 2.0, background2Y);
+        BACKGROUND_IMAGE.draw(WINDOW_WIDTH / 2.0, background2Y);
+    }
+
+    /**
+     * Switches the background image to match the new weather.
+     * @param weather The new weather type.
+     */
+    @Override
+    public void onWeatherChanged(WeatherType weather) {
+        BACKGROUND_IMAGE = weather == WeatherType.RAINING ? RAINING_BACKGROUND_IMAGE : SUNNY_BACKGROUND_IMAGE;
     }
 
     /**
      * Resets the ongoing game background to its original position.
      */
     public void resetBackground() {
-        background1Y = Window.getHeight() / 2.0;
-        background2Y = -Window.getHeight() / 2.0;
+        background1Y = WINDOW_HEIGHT / 2.0;
+        background2Y = -WINDOW_HEIGHT / 2.0;
     }
 
     /**
@@ -148,9 +211,13 @@ public class OngoingGameScreen extends Screen {
      * Mainly for the vertical scrolling.
      * @param input The current mouse/keyboard input.
      */
-    public void update(Input input) {
+    public void update(GameInput input) {
         final int BACKGROUND_LEFT_BOTTOM_WINDOW = 1152;
+        FramePhaseEvent timersPhase = FramePhaseEvent.start("timers");
         currentFrame++;
+        // Publishes a traffic change event to the gameplay if the traffic has changed, before this frame's spawns.
+        trafficTimeline.update(currentFrame);
+        timingWheel.tick();
 
         if (input.isDown(Keys.UP)) {
             background1Y += SCROLL_SPEED;
@@ -158,23 +225,36 @@ public class OngoingGameScreen extends Screen {
 
             // Check if backgrounds need to be repositioned
             if (background1Y >= BACKGROUND_LEFT_BOTTOM_WINDOW) {
-                background1Y = background2Y - Window.getHeight();
+                background1Y = background2Y - WINDOW_HEIGHT;
             }
             if (background2Y >= BACKGROUND_LEFT_BOTTOM_WINDOW) {
-                background2Y = background1Y - Window.getHeight();
+                background2Y = background1Y - WINDOW_HEIGHT;
             }
 
         }
 
         powerUpState.update();
         gameStats.update();
-        gameplay.update(input, isRaining);
+        timersPhase.finish();
+
+        FramePhaseEvent gameplayPhase = FramePhaseEvent.start("gameplay");
+        gameplay.update(input);
+        gameplayPhase.finish();
+
+        if (IS_ROLLBACK_ENABLED) {
+            FramePhaseEvent rollbackPhase = FramePhaseEvent.start("rollback");
+            writeSnapshot();
+            ROLLBACK.record(snapshotBuffer.array(), snapshotBuffer.position());
+            rollbackPhase.finish();
+        }
     }
 
     /**
      * Loads given game object file path, creates instance of taxi, driver, array of passengers instances,
      * array of coins instances, and array of invincible power instances to be used by the game (class).
-     * Also initialises necessary other classes inside classes such as gameplay and passenger for gameplay logic.
+     * Also initialises necessary other classes inside classes such as gameplay and passenger for gameplay logic,
+     * and registers this screen and all passengers to be notified of weather changes, and the gameplay to be notified
+     * of traffic changes.
      * @param filePath The game objects csv file path to be processed (i.e. gameObjects.csv).
      */
     private void loadGameObjects(String filePath) {
@@ -187,12 +267,12 @@ public class OngoingGameScreen extends Screen {
                 case "TAXI":
                     int taxiX = Integer.parseInt(objectData[1]);
                     int taxiY = Integer.parseInt(objectData[2]);
-                    taxi = new Taxi(taxiX, taxiY, gameplay, powerUpState, GAME_PROPS, MESSAGE_PROPS);
+                    taxi = new Taxi(taxiX, taxiY, gameplay, powerUpState, timingWheel, GAME_PROPS, MESSAGE_PROPS);
                     break;
                 case "DRIVER":
                     int driverX = Integer.parseInt(objectData[1]);
                     int driverY = Integer.parseInt(objectData[2]);
-                    driver = new Driver(driverX, driverY, powerUpState, GAME_PROPS, MESSAGE_PROPS);
+                    driver = new Driver(driverX, driverY, powerUpState, timingWheel, GAME_PROPS, MESSAGE_PROPS);
                     break;
                 case "PASSENGER":
                     int passengerX = Integer.parseInt(objectData[1]);
@@ -202,7 +282,7 @@ public class OngoingGameScreen extends Screen {
                     int distanceY = Integer.parseInt(objectData[5]);
                     int hasUmbrella = Integer.parseInt(objectData[6]);
                     passengers.add(new Passenger(passengerX, passengerY, priority, endX, distanceY, hasUmbrella,
-                            powerUpState, GAME_PROPS, MESSAGE_PROPS));
+                            powerUpState, timingWheel, gameOverTracker, GAME_PROPS, MESSAGE_PROPS));
                     break;
                 case "COIN":
                     int coinX = Integer.parseInt(objectData[1]);
@@ -220,38 +300,50 @@ public class OngoingGameScreen extends Screen {
         gameplay.initialisePassengers(passengers);
         gameplay.initialisePowerUps(powerUps);
 
+        weatherTimeline.reset();
+        weatherTimeline.addListener(this);
         for (Passenger passenger : passengers) {
             passenger.initialiseDriver(driver);
+            weatherTimeline.addListener(passenger);
         }
+        trafficTimeline.reset();
+        trafficTimeline.addListener(gameplay);
     }
 
     /**
-     * Loads given weather file path, creates instances of Weather and stores them in a list.
+     * Loads given weather file path, creates instances of Weather and compiles them into a weather timeline.
      * This will serve as a guide to the type of weather (sunny/rainy) to be rendered at a certain timeframe.
      * @param filePath The weather csv file path to be processed (i.e. gameWeather.csv).
      */
     private void loadWeatherInfo(String filePath) {
-        weatherInfo = new ArrayList<>();
+        ArrayList<Weather> weatherInfo = new ArrayList<>();
         String[][] rows = IOUtils.readCommaSeparatedFile(filePath);
         for (String[] row : rows) {
-            String type = row[0];
+            WeatherType type = WeatherType.valueOf(row[0]);
             int startFrame = Integer.parseInt(row[1]);
             int endFrame = Integer.parseInt(row[2]);
             weatherInfo.add(new Weather(type, startFrame, endFrame));
         }
+        weatherTimeline = new WeatherTimeline(weatherInfo);
     }
 
     /**
-     * Gets the current weather type at a given timeframe.
-     * @return The weather type for currentFrame.
+     * Loads given traffic file path, creates instances of Traffic and compiles them into a traffic timeline.
+     * Each row holds the start frame, end frame, and the spawn rates of other cars, enemy cars and fireballs.
+     * @param filePath The traffic csv file path to be processed (i.e. rushHourTraffic.csv).
      */
-    private Weather getCurrentWeather() {
-        for (Weather weather : weatherInfo) {
-            if (currentFrame >= weather.getStartFrame() && currentFrame <= weather.getEndFrame()) {
-                return weather;
-            }
+    private void loadTrafficInfo(String filePath) {
+        ArrayList<Traffic> trafficInfo = new ArrayList<>();
+        String[][] rows = IOUtils.readCommaSeparatedFile(filePath);
+        for (String[] row : rows) {
+            int startFrame = Integer.parseInt(row[0]);
+            int endFrame = Integer.parseInt(row[1]);
+            int otherCarSpawnRate = Integer.parseInt(row[2]);
+            int enemyCarSpawnRate = Integer.parseInt(row[3]);
+            int fireballSpawnRate = Integer.parseInt(row[4]);
+            trafficInfo.add(new Traffic(startFrame, endFrame, otherCarSpawnRate, enemyCarSpawnRate, fireballSpawnRate));
         }
-        return null; // It should never reach here if the weather file is set up correctly.
+        trafficTimeline = new TrafficTimeline(trafficInfo);
     }
 
     /**
@@ -262,31 +354,168 @@ public class OngoingGameScreen extends Screen {
         passengers = new ArrayList<>();
         powerUps = new ArrayList<>();
         tripEndFlag = null;
-        powerUpState = new PowerUpState(GAME_PROPS);
-        gameStats = new GameStats(GAME_PROPS, MESSAGE_PROPS);
-        gameplay = new Gameplay(tripEndFlag, powerUpState, gameStats, GAME_PROPS, MESSAGE_PROPS);
+        timingWheel = new TimingWheel();
+        powerUpState = new PowerUpState(timingWheel, GAME_PROPS);
+        gameOverTracker = new GameOverTracker();
+        gameStats = new GameStats(gameOverTracker, GAME_PROPS, MESSAGE_PROPS);
+        gameplay = new Gameplay(tripEndFlag, powerUpState, gameStats, timingWheel, METRICS, GAME_PROPS, MESSAGE_PROPS);
         resetBackground();
         loadGameObjects(GAME_PROPS.getProperty("gamePlay.objectsFile"));
         currentFrame = 0;
+        endReason = null;
+        ROLLBACK.clear();
+    }
+
+    /**
+     * Saves the whole state of the ongoing game as a game snapshot (see SnapshotUtils for the format).
+     * State: number of passengers and power-ups (int each), current frame (int), background positions (double each),
+     * then the state of the power-ups, game statistics and gameplay, and finally the state of the random number
+     * generator (long) and the timing wheel. The last two come last because restoring the gameplay creates objects
+     * again, which draws random numbers and schedules timers. Restoring them makes the game carry on exactly as it
+     * did from the frame of the snapshot, given the same input.
+     * The weather and traffic are not written, as they only depend on the current frame.
+     * @return The game snapshot.
+     */
+    public byte[] saveSnapshot() {
+        writeSnapshot();
+        return Arrays.copyOf(snapshotBuffer.array(), snapshotBuffer.position());
+    }
+
+    /**
+     * Writes a game snapshot of the ongoing game into the snapshot buffer, growing the buffer if needed.
+     */
+    private void writeSnapshot() {
+        while (true) {
+            snapshotBuffer.clear();
+            try {
+                SnapshotUtils.putHeader(snapshotBuffer);
+                snapshotBuffer.putInt(passengers.size());
+                snapshotBuffer.putInt(powerUps.size());
+                snapshotBuffer.putInt(currentFrame);
+                snapshotBuffer.putDouble(background1Y);
+                snapshotBuffer.putDouble(background2Y);
+                powerUpState.writeState(snapshotBuffer);
+                gameStats.writeState(snapshotBuffer);
+                gameplay.writeState(snapshotBuffer);
+                snapshotBuffer.putLong(MiscUtils.getRandomState());
+                timingWheel.writeState(snapshotBuffer);
+                SnapshotUtils.putChecksum(snapshotBuffer);
+                return;
+            } catch (BufferOverflowException e) {
+                snapshotBuffer = ByteBuffer.allocate(snapshotBuffer.capacity() * 2);
+            }
+        }
+    }
+
+    /**
+     * Restores the ongoing game to the state saved in a game snapshot, so that it carries on from that frame.
+     * The snapshot can come from this game or from any other game loaded from the same game objects file.
+     * @param snapshot The game snapshot, as returned by saveSnapshot.
+     * @throws IllegalArgumentException If the snapshot is damaged, of an unknown format, or was taken with a different
+     *                                  game objects file. The game is left untouched in that case.
+     */
+    public void restoreSnapshot(byte[] snapshot) {
+        restoreState(snapshot);
+        // The recorded frames belong to the game as it was before the snapshot was restored.
+        ROLLBACK.clear();
+    }
+
+    /**
+     * Rewinds the ongoing game to a recent frame, which it then carries on from.
+     * Frames are only kept while rollback is enabled (gamePlay.rollback.enabled).
+     * @param framesBack The number of frames to go back: 0 for the latest frame.
+     * @return True if the game was rewound, false if that frame is not kept.
+     */
+    public boolean rewind(int framesBack) {
+        byte[] snapshot = ROLLBACK.rewind(framesBack);
+        if (snapshot == null) {
+            return false;
+        }
+        restoreState(snapshot);
+        return true;
+    }
+
+    /**
+     * Gets the number of recent frames the ongoing game can be rewound to, counting the latest frame.
+     * @return The number of frames that can be rewound to.
+     */
+    public int getRewindableFrames() {
+        return ROLLBACK.getRewindableFrames();
+    }
+
+    /**
+     * Restores the ongoing game to the state saved in a game snapshot.
+     * @param snapshot The game snapshot.
+     * @throws IllegalArgumentException If the snapshot is damaged, of an unknown format, or was taken with a different
+     *                                  game objects file.
+     */
+    private void restoreState(byte[] snapshot) {
+        ByteBuffer buffer = SnapshotUtils.openSnapshot(snapshot);
+        if (buffer.getInt() != passengers.size() || buffer.getInt() != powerUps.size()) {
+            throw new IllegalArgumentException("Game snapshot was taken with a different game objects file");
+        }
+        currentFrame = buffer.getInt();
+        timingWheel.restoreCurrentFrame(currentFrame);
+        // Publish the traffic of the restored frame before the gameplay is restored, so that the enemy cars created
+        // again get its fireball rate.
+        trafficTimeline.update(currentFrame);
+        background1Y = buffer.getDouble();
+        background2Y = buffer.getDouble();
+
+        // Notify this screen and the passengers of the weather of the restored frame before the passengers' own state
+        // is restored, since the weather changes their priority.
+        weatherTimeline.update(currentFrame);
+        powerUpState.readState(buffer);
+        gameStats.readState(buffer);
+        gameplay.readState(buffer);
+        MiscUtils.setRandomState(buffer.getLong());
+        timingWheel.readState(buffer);
+        gameOverTracker.recount(passengers, gameStats.isTargetScoreReached());
+        endReason = null;
     }
 
     /**
      * Checks if the game can end.
      * There are 5 conditions in which a game can be declared to have ended, each will be explained in its own functions
-     * below.
+     * below. The first time the game can end, the reason is recorded and counted in the metrics.
      * @return True if game can end, false otherwise.
      */
     public boolean canGameEnd() {
-        return ranOutOfFrames() || winningScoreReached() || taxiLeftScreenWithoutDriver()
-                || isDriverDead() || isPassengerDead();
+        if (endReason == null) {
+            endReason = findEndReason();
+            if (endReason != null) {
+                METRICS.gameEnded(endReason);
+            }
+        }
+        return endReason != null;
+    }
+
+    /**
+     * Finds the first of the 5 conditions in which the game ends that holds. Every condition is checked in O(1) time,
+     * as the conditions that depend on many objects are tracked by the game-over tracker as they change.
+     * @return The reason the game ends for, or null if the game cannot end yet.
+     */
+    private GameEndReason findEndReason() {
+        if (ranOutOfFrames()) {
+            return GameEndReason.OUT_OF_FRAMES;
+        } else if (gameOverTracker.isTargetScoreReached()) {
+            return GameEndReason.TARGET_SCORE_REACHED;
+        } else if (taxiLeftScreenWithoutDriver()) {
+            return GameEndReason.TAXI_LEFT_WITHOUT_DRIVER;
+        } else if (isDriverDead()) {
+            return GameEndReason.DRIVER_DEAD;
+        } else if (gameOverTracker.isPassengerDead()) {
+            return GameEndReason.PASSENGER_DEAD;
+        }
+        return null;
     }
 
     /**
-     * Checks if maximum total score has been reached. This will result in a win.
-     * @return True if maximum total score has been reached, false otherwise.
+     * Gets the reason the current game has ended for.
+     * @return The reason the game has ended for, or null if the game has not ended.
      */
-    private boolean winningScoreReached() {
-        return gameStats.getTotalScore() >= 500;
+    public GameEndReason getEndReason() {
+        return endReason;
     }
 
     /**
@@ -313,19 +542,6 @@ public class OngoingGameScreen extends Screen {
         return driver.getCurrentHealth() <= 0;
     }
 
-    /**
-     * Checks if any passenger is dead. This will result in a loss.
-     * @return True if any passenger has died, false otherwise.
-     */
-    private boolean isPassengerDead() {
-        for (Passenger passenger : passengers) {
-            if (passenger.getCurrentHealth() <= 0) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     /**
      * Gets total score from game stats.
      * @return The current total score of gameplay.
@@ -333,4 +549,12 @@ public class OngoingGameScreen extends Screen {
     public double getTotalScore() {
         return gameStats.getTotalScore();
     }
+
+    /**
+     * Gets the gameplay of the current game, which is replaced whenever the game is reset.
+     * @return The gameplay of the current game.
+     */
+    public Gameplay getGameplay() {
+        return gameplay;
+    }
 }
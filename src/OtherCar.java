@@ -5,16 +5,41 @@ import java.util.Properties;
  */
 public class OtherCar extends Car {
 
+    /**
+     * The number of the image of the car, as there are two possible images for other cars.
+     */
+    private final int IMAGE_NUMBER;
+
     /**
      * Constructor for Enemy Car class.
      * Initialises its initial (x, y) position, image, radius, starting health, damage, fixed speed. (Extends from car).
      * @param gameProps The game properties object containing various game configuration values.
+     * @param timingWheel The timing wheel on which the car's collision timeout timers are scheduled.
+     */
+    public OtherCar(Properties gameProps, TimingWheel timingWheel) {
+        this(gameProps, timingWheel, MiscUtils.selectAValue(1, 2));
+    }
+
+    /**
+     * Constructor for an Other Car with a given image, used when restoring the car from a game snapshot.
+     * @param gameProps The game properties object containing various game configuration values.
+     * @param timingWheel The timing wheel on which the car's collision timeout timers are scheduled.
+     * @param imageNumber The number of the image of the car, either 1 or 2.
      */
-    public OtherCar(Properties gameProps) {
-        super(gameProps,
-                String.format(gameProps.getProperty("gameObjects.otherCar.image"), MiscUtils.selectAValue(1, 2)),
+    public OtherCar(Properties gameProps, TimingWheel timingWheel, int imageNumber) {
+        super(gameProps, timingWheel,
+                String.format(gameProps.getProperty("gameObjects.otherCar.image"), imageNumber),
                 "gameObjects.otherCar.radius", "gameObjects.otherCar.health",
                 "gameObjects.otherCar.damage", "gameObjects.otherCar.minSpeedY",
                 "gameObjects.otherCar.maxSpeedY");
+        this.IMAGE_NUMBER = imageNumber;
+    }
+
+    /**
+     * Gets the number of the image of the car.
+     * @return The number of the image of the car, either 1 or 2.
+     */
+    public int getImageNumber() {
+        return IMAGE_NUMBER;
     }
 }
@@ -0,0 +1,204 @@
+import bagel.Keys;
+import java.nio.ByteBuffer;
+import java.util.Properties;
+
+/**
+ * Stores and renders every short-lived visual effect (smoke, fire, blood) in the game.
+ * Particles are stored in a ring buffer of primitive arrays rather than as objects, so spawning and expiring
+ * particles creates no garbage. Particles are appended at the tail and, since they live for a similar number of
+ * frames, expire from the head. All particles are drawn, scrolled and aged in a single pass every frame.
+ */
+public class ParticleSystem {
+
+    /**
+     * The initial capacity of the ring buffer. Must be a power of 2.
+     */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * The sprite of each particle type, indexed by the ordinal of the type.
+     */
+    private final Sprite[] SPRITES;
+
+    /**
+     * The time to live (in frames) of each particle type, indexed by the ordinal of the type.
+     */
+    private final int[] TTLS;
+
+    /**
+     * The vertical speed at which particles scroll down the screen.
+     */
+    private final int SCROLL_SPEED;
+
+    /**
+     * The X-coordinate of each particle.
+     */
+    private int[] xs;
+
+    /**
+     * The Y-coordinate of each particle.
+     */
+    private int[] ys;
+
+    /**
+     * The number of frames each particle is still drawn for. A particle with 0 remaining frames has expired.
+     */
+    private int[] remainingFrames;
+
+    /**
+     * The ordinal of the particle type of each particle.
+     */
+    private byte[] types;
+
+    /**
+     * The index of the oldest particle in the ring buffer.
+     */
+    private int head;
+
+    /**
+     * The number of particles between the head and the tail of the ring buffer, including expired ones not yet
+     * removed from the head.
+     */
+    private int count;
+
+    /**
+     * Constructor for the particle system.
+     * Loads the image and time to live of every particle type once.
+     * @param gameProps The game properties object containing various game configuration values.
+     */
+    public ParticleSystem(Properties gameProps) {
+        ParticleType[] particleTypes = ParticleType.values();
+        SPRITES = new Sprite[particleTypes.length];
+        TTLS = new int[particleTypes.length];
+        for (ParticleType type : particleTypes) {
+            SPRITES[type.ordinal()] = SpriteCache.getSprite(gameProps.getProperty(type.getPropertyPrefix() + ".image"));
+            TTLS[type.ordinal()] = Integer.parseInt(gameProps.getProperty(type.getPropertyPrefix() + ".ttl"));
+        }
+        SCROLL_SPEED = Integer.parseInt(gameProps.getProperty("gameObjects.taxi.speedY"));
+
+        xs = new int[INITIAL_CAPACITY];
+        ys = new int[INITIAL_CAPACITY];
+        remainingFrames = new int[INITIAL_CAPACITY];
+        types = new byte[INITIAL_CAPACITY];
+        clear();
+    }
+
+    /**
+     * Creates a new particle. It is drawn by the next updates, for as many frames as its type's ttl.
+     * @param type The type of the particle.
+     * @param x The X-coordinate at which the particle is drawn.
+     * @param y The Y-coordinate at which the particle is drawn.
+     */
+    public void spawn(ParticleType type, int x, int y) {
+        if (count == xs.length) {
+            grow();
+        }
+        int tail = (head + count) & (xs.length - 1);
+        xs[tail] = x;
+        ys[tail] = y;
+        remainingFrames[tail] = TTLS[type.ordinal()];
+        types[tail] = (byte) type.ordinal();
+        count++;
+    }
+
+    /**
+     * Draws every live particle, moves them down if the up key is pressed, and ages them by one frame.
+     * Expired particles at the head of the ring buffer are then removed.
+     * @param input The current mouse/keyboard input.
+     */
+    public void update(GameInput input) {
+        boolean isScrolling = input.isDown(Keys.UP);
+        int mask = xs.length - 1;
+        for (int i = 0; i < count; i++) {
+            int index = (head + i) & mask;
+            if (remainingFrames[index] > 0) {
+                SPRITES[types[index]].draw(xs[index], ys[index]);
+                if (isScrolling) {
+                    ys[index] += SCROLL_SPEED;
+                }
+                remainingFrames[index]--;
+            }
+        }
+
+        while (count > 0 && remainingFrames[head] == 0) {
+            head = (head + 1) & mask;
+            count--;
+        }
+    }
+
+    /**
+     * Removes every particle.
+     */
+    public void clear() {
+        head = 0;
+        count = 0;
+    }
+
+    /**
+     * Gets the number of particles that have not been removed yet.
+     * @return The number of particles in the ring buffer.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Writes every live particle to a game snapshot, oldest first.
+     * Format: particle count (int), then each particle's X and Y-coordinates (int), remaining frames (int) and type
+     * (byte).
+     * @param buffer The buffer to write to.
+     */
+    public void writeState(ByteBuffer buffer) {
+        int mask = xs.length - 1;
+        buffer.putInt(count);
+        for (int i = 0; i < count; i++) {
+            int index = (head + i) & mask;
+            buffer.putInt(xs[index]);
+            buffer.putInt(ys[index]);
+            buffer.putInt(remainingFrames[index]);
+            buffer.put(types[index]);
+        }
+    }
+
+    /**
+     * Replaces every particle with the particles of a game snapshot.
+     * @param buffer The buffer to read from.
+     */
+    public void readState(ByteBuffer buffer) {
+        clear();
+        int particleCount = buffer.getInt();
+        for (int i = 0; i < particleCount; i++) {
+            if (count == xs.length) {
+                grow();
+            }
+            xs[i] = buffer.getInt();
+            ys[i] = buffer.getInt();
+            remainingFrames[i] = buffer.getInt();
+            types[i] = buffer.get();
+            count++;
+        }
+    }
+
+    /**
+     * Doubles the capacity of the ring buffer, moving the particles to the start of the new arrays in order.
+     */
+    private void grow() {
+        int capacity = xs.length;
+        int[] grownXs = new int[capacity * 2];
+        int[] grownYs = new int[capacity * 2];
+        int[] grownRemainingFrames = new int[capacity * 2];
+        byte[] grownTypes = new byte[capacity * 2];
+        for (int i = 0; i < count; i++) {
+            int index = (head + i) & (capacity - 1);
+            grownXs[i] = xs[index];
+            grownYs[i] = ys[index];
+            grownRemainingFrames[i] = remainingFrames[index];
+            grownTypes[i] = types[index];
+        }
+        xs = grownXs;
+        ys = grownYs;
+        remainingFrames = grownRemainingFrames;
+        types = grownTypes;
+        head = 0;
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * ParticleType indicates the possible types of short-lived visual effects managed by the particle system.
+ * SMOKE is created when a car or taxi takes damage.
+ * FIRE is created when a car or taxi is destroyed.
+ * BLOOD is created when the driver or a passenger dies.
+ * Each type reads its image and time to live from the game properties under its property prefix.
+ */
+public enum ParticleType {
+    SMOKE("gameObjects.smoke"),
+    FIRE("gameObjects.fire"),
+    BLOOD("gameObjects.blood");
+
+    /**
+     * The prefix of the game property keys of this particle type (e.g. gameObjects.smoke).
+     */
+    private final String PROPERTY_PREFIX;
+
+    /**
+     * Constructor for a particle type.
+     * @param propertyPrefix The prefix of the game property keys of this particle type.
+     */
+    ParticleType(String propertyPrefix) {
+        this.PROPERTY_PREFIX = propertyPrefix;
+    }
+
+    /**
+     * Gets the prefix of the game property keys of this particle type.
+     * @return The property key prefix (e.g. gameObjects.smoke).
+     */
+    public String getPropertyPrefix() {
+        return PROPERTY_PREFIX;
+    }
+}
@@ -1,21 +1,19 @@
+import java.nio.ByteBuffer;
 import java.util.Properties;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
 import bagel.*;
-import bagel.Font;
 
 /**
  * Class for the passenger entity.
  * Includes every single logic that involves the Passenger entity and its interactions with other game entities.
+ * Passengers without an umbrella listen to weather changes, since rain changes their priority.
  */
-public class Passenger extends Entity implements Damageable, Ejectable {
+public class Passenger extends Entity implements Damageable, Ejectable, WeatherChangeListener {
     /**
-     * The size of the font used to display the passenger's health text.
+     * The font used for rendering the passenger's expected earnings and priority text.
      */
-    private final int FONT_SIZE;
-
-    /**
-     * The file path to the font used for rendering the passenger's health text.
-     */
-    private final String FONT_PATH;
+    private final GameFont FONT;
 
     /**
      * The base rate used for calculating the trip earnings.
@@ -52,6 +50,11 @@ public class Passenger extends Entity implements Damageable, Ejectable {
      */
     private final int COLLISION_RADIUS;
 
+    /**
+     * The squared taxi detect radius, cached so adjacency checks against the taxi need no square root.
+     */
+    private final double SQUARED_DETECT_RADIUS;
+
     /**
      * The initial health value of the passenger.
      */
@@ -102,6 +105,11 @@ public class Passenger extends Entity implements Damageable, Ejectable {
      */
     private boolean hasUmbrella;
 
+    /**
+     * Boolean indicating whether the weather is currently raining, as last published by the weather timeline.
+     */
+    private boolean isRaining;
+
     /**
      * The final X-coordinate of the flag the passenger is moving towards after being dropped off.
      */
@@ -118,29 +126,29 @@ public class Passenger extends Entity implements Damageable, Ejectable {
     private double penalty;
 
     /**
-     * Boolean indicating whether the passenger has been picked up by a taxi from the side road.
+     * Bit of the trip flags indicating that the passenger's priority has been decreased (due to a coin power-up).
      */
-    private boolean isPickedUp;
+    private static final byte PRIORITY_DECREASED = 1;
 
     /**
-     * Boolean indicating whether the passenger is moving to its target flag position after being dropped off by the taxi.
+     * Bit of the trip flags indicating that the passenger's trip earnings have been added to the total score.
      */
-    private boolean isMovingToFlag;
+    private static final byte EARNINGS_ADDED = 1 << 1;
 
     /**
-     * Boolean indicating whether the passenger has been dropped off by a taxi.
+     * Bit of the trip flags indicating that a penalty has been imposed on the passenger's trip.
      */
-    private boolean isDroppedOff;
+    private static final byte PENALTY_IMPOSED = 1 << 2;
 
     /**
-     * Boolean indicating that the passenger's priority has been decreased (due to a coin power-up).
+     * The current stage of the passenger, from waiting on the side road to being delivered to its trip end flag.
      */
-    private boolean isPriorityDecreased;
+    private PassengerState state;
 
     /**
-     * Boolean indicating whether the passenger is currently inside a taxi or not.
+     * The things that can only happen once to the passenger's trip, packed as the bits above.
      */
-    private boolean isInTaxi;
+    private byte tripFlags;
 
     /**
      * The total earnings for the passenger after completing a trip.
@@ -148,14 +156,14 @@ public class Passenger extends Entity implements Damageable, Ejectable {
     private double earnings;
 
     /**
-     * Boolean indicating whether the passenger's trip earnings have been added to the total score.
+     * The expected earnings text drawn next to the passenger, formatted whenever the earnings change.
      */
-    private boolean isEarningsAdded;
+    private String earningsLabel;
 
     /**
-     * Boolean indicating whether a penalty has been imposed on the passenger's trip, if any.
+     * The priority text drawn next to the passenger, formatted whenever the priority changes.
      */
-    private boolean isPenaltyImposed;
+    private String priorityLabel;
 
     /**
      * The current health of the passenger.
@@ -168,14 +176,10 @@ public class Passenger extends Entity implements Damageable, Ejectable {
     private Car collidingCar;
 
     /**
-     * The number of frames remaining to separate the car from another damageable object post-collision.
+     * The collision timeout of the passenger, used to separate it from another damageable object post-collision and to
+     * prevent further collisions for a while.
      */
-    private int initialCollisionTimeoutFramesRemaining;
-
-    /**
-     * The number of frames remaining before the car can collide with another damageable object after any collision.
-     */
-    private int collisionTimeoutFramesRemaining;
+    private final CollisionTimeout COLLISION_TIMEOUT;
 
     /**
      * The power-up state class that tracks all current active power-ups such as coins.
@@ -187,6 +191,11 @@ public class Passenger extends Entity implements Damageable, Ejectable {
      */
     private Driver driver;
 
+    /**
+     * The tracker of game-over conditions, which is told when the passenger dies.
+     */
+    private final GameOverTracker GAME_OVER_TRACKER;
+
 
     /**
      * Constructor for the Passenger class.
@@ -197,11 +206,14 @@ public class Passenger extends Entity implements Damageable, Ejectable {
      * @param distanceY The minimum distance the passenger needs to travel along the Y-axis to complete a trip.
      * @param hasUmbrella Indicates if the passenger has an umbrella.
      * @param powerUpState The current power-up state affecting the passenger (e.g. is coin currently active or not).
+     * @param timingWheel The timing wheel on which the passenger's collision timeout timers are scheduled.
+     * @param gameOverTracker The tracker of game-over conditions, which is told when the passenger dies.
      * @param gameProps The properties file containing various game configuration values.
      * @param messageProps The properties file containing text configuration values.
      */
     public Passenger(int x, int y, int priority, int endX, int distanceY, int hasUmbrella,
-                     PowerUpState powerUpState, Properties gameProps, Properties messageProps) {
+                     PowerUpState powerUpState, TimingWheel timingWheel, GameOverTracker gameOverTracker,
+                     Properties gameProps, Properties messageProps) {
         super(x, y, gameProps,"gameObjects.passenger.image",
                 "gameObjects.passenger.taxiDetectRadius");
         this.originalPriority = this.priority = priority;
@@ -210,21 +222,19 @@ public class Passenger extends Entity implements Damageable, Ejectable {
         this.finalFlagX = -1; // has not been set
         this.finalFlagY = -1; // has not been set
         this.hasUmbrella = (hasUmbrella != 0); // Convert int from world file to boolean
+        this.isRaining = false;
         this.penalty = 0;
         this.powerUpState = powerUpState;
-        this.isPickedUp = false;
-        this.isDroppedOff = false;
-        this.isMovingToFlag = false;
-        this.isInTaxi = false;
-        this.isPriorityDecreased = false;
-        this.isEarningsAdded = false;
-        this.isPenaltyImposed = false;
+        this.COLLISION_TIMEOUT = new CollisionTimeout(timingWheel);
+        this.GAME_OVER_TRACKER = gameOverTracker;
+        this.state = PassengerState.WAITING;
+        this.tripFlags = 0;
 
         WALK_SPEED_X = Integer.parseInt(gameProps.getProperty("gameObjects.passenger.walkSpeedX"));
         WALK_SPEED_Y = Integer.parseInt(gameProps.getProperty("gameObjects.passenger.walkSpeedY"));
 
-        FONT_SIZE = Integer.parseInt(gameProps.getProperty("gameObjects.passenger.fontSize"));
-        FONT_PATH = gameProps.getProperty("font");
+        FONT = new GameFont(gameProps.getProperty("font"),
+                Integer.parseInt(gameProps.getProperty("gameObjects.passenger.fontSize")));
 
         TRIP_RATE = Double.parseDouble(gameProps.getProperty("trip.rate.perY"));
         PRIORITY_RATE_1 = Integer.parseInt(gameProps.getProperty("trip.rate.priority1"));
@@ -233,10 +243,11 @@ public class Passenger extends Entity implements Damageable, Ejectable {
 
         int PROPS_TO_GAME_MULTIPLIER = 100; // The game properties stores health and damage as (value / 100).
         COLLISION_RADIUS = Integer.parseInt(gameProps.getProperty("gameObjects.passenger.radius"));
+        SQUARED_DETECT_RADIUS = GeometryUtils.getSquaredRange(RADIUS);
         HEALTH = Double.parseDouble(gameProps.getProperty("gameObjects.passenger.health")) * PROPS_TO_GAME_MULTIPLIER;
 
         this.currentHealth = HEALTH;
-        this.earnings = calculateEarnings();
+        refreshEarnings();
     }
 
     /**
@@ -245,24 +256,24 @@ public class Passenger extends Entity implements Damageable, Ejectable {
      */
     @Override
     public void receiveDamage(double damage) {
+        boolean wasAlive = this.currentHealth > 0;
         this.currentHealth -= damage;
         if (this.currentHealth < 0) {
             this.currentHealth = 0;
         }
+        if (wasAlive && this.currentHealth <= 0) {
+            GAME_OVER_TRACKER.passengerDied();
+        }
     }
 
     /**
-     * Reduces the collision timeout frames remaining if it is still active.
-     * This function is called once every frame.
+     * Checks if this object still refers to another object it collided with, which it does until it lets go of it.
+     * @param other The other object.
+     * @return True if this object still refers to the other object, false otherwise.
      */
     @Override
-    public void updateCollisionTimeoutFramesRemaining() {
-        if (initialCollisionTimeoutFramesRemaining > 0) {
-            initialCollisionTimeoutFramesRemaining--;
-        }
-        if (collisionTimeoutFramesRemaining > 0) {
-            collisionTimeoutFramesRemaining--;
-        }
+    public boolean isStillCollidedWith(Damageable other) {
+        return collidingCar == other;
     }
 
     /**
@@ -272,7 +283,7 @@ public class Passenger extends Entity implements Damageable, Ejectable {
      */
     @Override
     public void separateFromObject(Damageable other) {
-        if (initialCollisionTimeoutFramesRemaining > 0 && initialCollisionTimeoutFramesRemaining <= 10) {
+        if (COLLISION_TIMEOUT.isSeparating()) {
             int otherX = other.getX();
             int otherY = other.getY();
             int thisX = this.getX();
@@ -302,15 +313,13 @@ public class Passenger extends Entity implements Damageable, Ejectable {
      */
     @Override
     public boolean handleCollision(Car other) {
-        if (other.getCurrentHealth() > 0 && !isInTaxi) {
-            double distance = getDistanceTo(other.getX(), other.getY());
-            double collisionRange = this.getRadius() + other.getRadius();
-            if (collisionTimeoutFramesRemaining == 0 && distance < collisionRange) {
+        if (other.getCurrentHealth() > 0 && !state.isInTaxi()) {
+            if (!COLLISION_TIMEOUT.isActive() && GeometryUtils.isStrictlyWithinRange(getX(), getY(),
+                    other.getX(), other.getY(), this.getRadius() + other.getRadius())) {
                 this.receiveDamage(other.getDamage());
                 collidingCar = other;
                 other.receiveCollision(this);
-                collisionTimeoutFramesRemaining = COLLISION_TIMEOUT_FRAMES_TOTAL;
-                initialCollisionTimeoutFramesRemaining = COLLISION_TIMEOUT_FRAMES_INITIAL;
+                COLLISION_TIMEOUT.start(COLLISION_TIMEOUT_FRAMES_INITIAL, COLLISION_TIMEOUT_FRAMES_TOTAL);
                 return true;
             }
         }
@@ -319,37 +328,140 @@ public class Passenger extends Entity implements Damageable, Ejectable {
 
     /**
      * Constantly updates the passenger entity.
-     * Controls rendering, updating of collision timeouts frames, priority change according to movement,
+     * Controls rendering, separation after collisions, priority change according to movement,
      * and movement according to other active entities such as driver as well as current user keyboard input.
+     * Each state has its own update function that only does what applies to a passenger in that state.
+     * Priority changes caused by the weather are handled when the weather changes instead of every frame.
      * @param input The user's mouse/keyboard input.
-     * @param isRaining True if the weather is currently raining, false otherwise.
      */
-    public void update(Input input, boolean isRaining) {
-        draw(); // Draws the passenger entity.
-        displayEarnings(); // Displays the expected earnings for each passenger entity.
-        if (input.isDown(Keys.UP)) {
+    public void update(GameInput input) {
+        boolean isScrolling = input.isDown(Keys.UP);
+        switch (state) {
+            case WAITING, BOARDING -> updateWaiting(isScrolling);
+            case RIDING -> updateRiding(isScrolling);
+            case EJECTED -> updateEjected(isScrolling);
+            case ALIGHTING -> updateAlighting(isScrolling);
+            case DELIVERED -> updateDelivered(isScrolling);
+        }
+    }
+
+    /**
+     * Updates a passenger waiting on the side road (or walking to the taxi, which moves it on its own).
+     * Draws the passenger with its expected earnings, and scrolls it with the road.
+     * @param isScrolling Whether the road is scrolling down this frame.
+     */
+    private void updateWaiting(boolean isScrolling) {
+        draw();
+        displayEarnings();
+        if (isScrolling) {
+            moveDown();
+        }
+        updateSeparation();
+    }
+
+    /**
+     * Updates a passenger riding in the taxi, which is not drawn.
+     * Keeps the passenger on the driver's coordinates, so that it leaves the taxi from where the taxi is.
+     * @param isScrolling Whether the road is scrolling down this frame.
+     */
+    private void updateRiding(boolean isScrolling) {
+        if (isScrolling) {
+            moveDown();
+        }
+        // Passenger is in taxi, so make sure that it is always update to date.
+        // This is to prevent unwanted animations during dropping off passengers to flag.
+        setX(driver.getX());
+        setY(driver.getY());
+        decreasePriorityIfCoinActivated();
+        updateSeparation();
+    }
+
+    /**
+     * Updates a passenger ejected from a broken taxi, which walks towards the driver until the driver gets back in.
+     * @param isScrolling Whether the road is scrolling down this frame.
+     */
+    private void updateEjected(boolean isScrolling) {
+        draw();
+        if (isScrolling) {
+            moveDown();
+        }
+        // Provides animation to ejected passenger moving towards driver.
+        walkTowards(driver.getX(), driver.getY());
+        decreasePriorityIfCoinActivated();
+        updateSeparation();
+    }
+
+    /**
+     * Updates a passenger walking from the taxi to its trip end flag. The walking itself is done by dropOff, so this
+     * draws the passenger and scrolls both it and its flag position with the road.
+     * @param isScrolling Whether the road is scrolling down this frame.
+     */
+    private void updateAlighting(boolean isScrolling) {
+        draw();
+        if (isScrolling) {
             moveDown();
             moveFinalFlagPositionDown();
         }
-        // Make sure passenger coordinates are up-to-date with taxi's coordinates if they are on an ongoing trip.
-        updateWithDriverMovement(driver.getX(), driver.getY());
+        decreasePriorityIfCoinActivated();
+        updateSeparation();
+    }
 
-        // Decrease passenger's priority number if passenger is on an ongoing trip and coin effect is in place
-        if (this.isPickedUp && powerUpState.isCoinActivated()) {
-            this.decreasePriority();
+    /**
+     * Updates a passenger delivered to its trip end flag, whose trip is over: it only needs to be drawn and scrolled
+     * with the road until it is off screen.
+     * @param isScrolling Whether the road is scrolling down this frame.
+     */
+    private void updateDelivered(boolean isScrolling) {
+        draw();
+        if (isScrolling) {
+            moveDown();
+            moveFinalFlagPositionDown();
         }
+        updateSeparation();
+    }
 
-        if (!hasUmbrella && !isDroppedOff) {
-            // Change passenger's priority according to weather changes, and then recalculate earnings.
-            if (isRaining) {
-                this.priority = 1;
-            } else {
-                this.priority = originalPriority;
-            }
-            this.earnings = calculateEarnings();
+    /**
+     * Decreases the passenger's priority number if the passenger is on an ongoing trip and a coin effect is in place.
+     */
+    private void decreasePriorityIfCoinActivated() {
+        if (powerUpState.isCoinActivated()) {
+            decreasePriority();
         }
-        updateCollisionTimeoutFramesRemaining();
+    }
+
+    /**
+     * Continues separating the passenger from the last car that collided with it, if still in initial timeout.
+     */
+    private void updateSeparation() {
         separateFromObject(collidingCar);
+        if (!COLLISION_TIMEOUT.isSeparating()) {
+            collidingCar = null; // Let go of the other object once separated, so it can be removed from the game.
+        }
+    }
+
+    /**
+     * Recalculates the passenger's priority and earnings when the weather changes.
+     * @param weather The new weather type.
+     */
+    @Override
+    public void onWeatherChanged(WeatherType weather) {
+        this.isRaining = weather == WeatherType.RAINING;
+        if (!hasUmbrella && state != PassengerState.DELIVERED) {
+            applyWeatherToPriority();
+            refreshEarnings();
+        }
+    }
+
+    /**
+     * Sets the priority of a passenger without an umbrella according to the current weather.
+     * Rain sets the priority to 1, otherwise the passenger keeps their original priority.
+     */
+    private void applyWeatherToPriority() {
+        if (isRaining) {
+            this.priority = 1;
+        } else {
+            this.priority = originalPriority;
+        }
     }
 
     /**
@@ -366,6 +478,17 @@ public class Passenger extends Entity implements Damageable, Ejectable {
         }
     }
 
+    /**
+     * Recalculates the cached earnings and the text labels drawn next to the passenger.
+     * Earnings only depend on priority and penalty, so this is called whenever either of them changes
+     * instead of every frame.
+     */
+    private void refreshEarnings() {
+        this.earnings = calculateEarnings();
+        this.earningsLabel = String.format("%.1f", earnings);
+        this.priorityLabel = TextUtils.intToString(priority);
+    }
+
     /**
      * Helper function to get priority rate according to their priority number.
      * @return The priority rate.
@@ -381,14 +504,11 @@ public class Passenger extends Entity implements Damageable, Ejectable {
 
     /**
      * Draws the expected earnings for all passengers that are not picked up on the side road.
+     * Uses the cached labels, which are only reformatted when the earnings change.
      */
     private void displayEarnings() {
-        if (!isPickedUp) {
-            double preEarnings = calculateEarnings();
-            Font font = new Font(FONT_PATH, FONT_SIZE);
-            font.drawString(String.format("%.1f", preEarnings), getX() - 100, getY()); // Draw estimated earnings text
-            font.drawString(Integer.toString(priority), getX() - 30, getY()); // Draw priority text
-        }
+        FONT.drawString(earningsLabel, getX() - 100, getY()); // Draw estimated earnings text
+        FONT.drawString(priorityLabel, getX() - 30, getY()); // Draw priority text
     }
 
     /**
@@ -396,25 +516,13 @@ public class Passenger extends Entity implements Damageable, Ejectable {
      * @param taxiX The current X-coordinate of the taxi.
      * @param taxiY The current Y-coordinate of the taxi.
      */
-    private void moveTowardsTaxi(double taxiX, double taxiY) {
-        if (!isPickedUp) {
-            if (getX() < taxiX) {
-                setX(getX() + WALK_SPEED_X);
-            } else if (getX() > taxiX) {
-                setX(getX() - WALK_SPEED_X);
-            }
+    private void moveTowardsTaxi(int taxiX, int taxiY) {
+        state = PassengerState.BOARDING;
+        walkTowards(taxiX, taxiY);
 
-            if (getY() < taxiY) {
-                setY(getY() + WALK_SPEED_Y);
-            } else if (getY() > taxiY) {
-                setY(getY() - WALK_SPEED_Y);
-            }
-
-            // Check if the passenger can now be picked up by taxi (i.e. coordinates are equal to taxi)
-            if (getDistanceTo(taxiX, taxiY) == 0) {
-                this.isPickedUp = true;  // Passenger is picked up
-                this.isInTaxi = true;
-            }
+        // Check if the passenger can now be picked up by taxi (i.e. coordinates are equal to taxi)
+        if (getX() == taxiX && getY() == taxiY) {
+            state = PassengerState.RIDING; // Passenger is picked up
         }
     }
 
@@ -422,63 +530,30 @@ public class Passenger extends Entity implements Damageable, Ejectable {
      * Slowly moves the passenger towards the trip end flag.
      */
     private void moveTowardsFlag() {
-        if (isPickedUp && !isDroppedOff) {
-
-            isMovingToFlag = true;
-
-            if (getX() < finalFlagX) {
-                setX(getX() + WALK_SPEED_X);
-            } else if (getX() > finalFlagX) {
-                setX(getX() - WALK_SPEED_X);
-            }
+        state = PassengerState.ALIGHTING;
+        walkTowards(finalFlagX, finalFlagY);
 
-            if (getY() < finalFlagY) {
-                setY(getY() + WALK_SPEED_Y);
-            } else if (getY() > finalFlagY) {
-                setY(getY() - WALK_SPEED_Y);
-            }
-
-            if (getX() == finalFlagX && getY() == finalFlagY) {
-                this.isDroppedOff = true; // Passenger is dropped off
-            }
+        if (getX() == finalFlagX && getY() == finalFlagY) {
+            state = PassengerState.DELIVERED; // Passenger is dropped off
         }
     }
 
     /**
-     * Calculates the Euclidean distance of this passenger and another object.
-     * @param otherX The x-coordinate of the other object.
-     * @param otherY The y-coordinate of the other object.
-     * @return The Euclidean distance between this passenger and the other object.
-     */
-    @Override
-    public double getDistanceTo(double otherX, double otherY) {
-        return Math.sqrt(Math.pow(otherX - getX(), 2) + Math.pow(otherY - getY(), 2));
-    }
-
-    /**
-     * Helper function to keep passenger's coordinates up to date with taxi's coordinate
-     * @param driverX The current X-coordinate of driver.
-     * @param driverY The current Y-coordinate of driver.
+     * Moves the passenger one step towards a position, at its walking speed along each axis.
+     * @param targetX The X-coordinate to walk towards.
+     * @param targetY The Y-coordinate to walk towards.
      */
-    private void updateWithDriverMovement(int driverX, int driverY) {
-        if (isPickedUp && !isInTaxi) {
-            // Provides animation to ejected passenger moving towards driver.
-            if (getX() < driverX) {
-                setX(getX() + WALK_SPEED_X);
-            } else if (getX() > driverX) {
-                setX(getX() - WALK_SPEED_X);
-            }
+    private void walkTowards(int targetX, int targetY) {
+        if (getX() < targetX) {
+            setX(getX() + WALK_SPEED_X);
+        } else if (getX() > targetX) {
+            setX(getX() - WALK_SPEED_X);
+        }
 
-            if (getY() < driverY) {
-                setY(getY() + WALK_SPEED_Y);
-            } else if (getY() > driverY) {
-                setY(getY() - WALK_SPEED_Y);
-            }
-        } else if (isPickedUp && !isMovingToFlag) {
-            // Passenger is in taxi, so make sure that it is always update to date.
-            // This is to prevent unwanted animations during dropping off passengers to flag.
-            setX(driverX);
-            setY(driverY);
+        if (getY() < targetY) {
+            setY(getY() + WALK_SPEED_Y);
+        } else if (getY() > targetY) {
+            setY(getY() - WALK_SPEED_Y);
         }
     }
 
@@ -487,8 +562,8 @@ public class Passenger extends Entity implements Damageable, Ejectable {
      * @param taxiX The current X-coordinate of taxi.
      * @param taxiY The current Y-coordinate of taxi.
      */
-    public void pickUp(double taxiX, double taxiY) {
-        if (!isPickedUp) {
+    public void pickUp(int taxiX, int taxiY) {
+        if (!state.isPickedUp()) {
             moveTowardsTaxi(taxiX, taxiY);
         }
     }
@@ -498,7 +573,7 @@ public class Passenger extends Entity implements Damageable, Ejectable {
      * @param flag The trip end flag entity where the passenger should go towards to.
      */
     public void dropOff(TripEndFlag flag) {
-        if (isPickedUp && !isDroppedOff) {
+        if (state == PassengerState.RIDING || state == PassengerState.ALIGHTING) {
             if ((finalFlagX == -1) && (finalFlagY == -1)) {
                 finalFlagX = flag.getX();
                 finalFlagY = flag.getY();
@@ -508,17 +583,17 @@ public class Passenger extends Entity implements Damageable, Ejectable {
 
         // No longer render the flag ONLY IF taxi has not picked up another passenger before
         // the old passenger arrives to the trip end flag.
-        if (isDroppedOff && (getY() == flag.getY())) {
+        if (state == PassengerState.DELIVERED && (getY() == flag.getY())) {
             deactivate(flag);
         }
     }
 
     /**
-     * Draws the passenger entity.
+     * Draws the passenger entity, unless it is riding in the taxi.
      */
     @Override
     public void draw() {
-        if (!isPickedUp || isMovingToFlag || !isInTaxi || isDroppedOff) {
+        if (state != PassengerState.RIDING) {
             IMAGE.draw(getX(), getY());
         }
     }
@@ -528,14 +603,18 @@ public class Passenger extends Entity implements Damageable, Ejectable {
      */
     public void decreasePriority() {
         // Only can decrease passenger's priority maximum once
-        if (!isPriorityDecreased && originalPriority > 1) {
+        if ((tripFlags & PRIORITY_DECREASED) == 0 && originalPriority > 1) {
             originalPriority--;
-            // Recalculate earnings after decreasing priority due to coins effect
-            this.earnings = calculateEarnings();
 
-            if (hasUmbrella) {priority = originalPriority;} // These passengers' priority are not affected by weather
+            if (hasUmbrella) {
+                priority = originalPriority; // These passengers' priority are not affected by weather
+            } else if (state != PassengerState.DELIVERED) {
+                applyWeatherToPriority();
+            }
+            // Recalculate earnings after decreasing priority due to coins effect
+            refreshEarnings();
         }
-        isPriorityDecreased = true;
+        tripFlags |= PRIORITY_DECREASED;
     }
 
     /**
@@ -561,8 +640,8 @@ public class Passenger extends Entity implements Damageable, Ejectable {
      */
     public void setPenalty(double penalty) {
         this.penalty = penalty;
-        this.earnings = calculateEarnings();
-        isPenaltyImposed = true;
+        refreshEarnings();
+        tripFlags |= PENALTY_IMPOSED;
     }
 
     /**
@@ -570,8 +649,8 @@ public class Passenger extends Entity implements Damageable, Ejectable {
      */
     @Override
     public void eject() {
-        if (isInTaxi) {
-            isInTaxi = false;
+        if (state == PassengerState.RIDING) {
+            state = PassengerState.EJECTED;
             setX(getX() - EJECT_X);
         }
     }
@@ -640,7 +719,7 @@ public class Passenger extends Entity implements Damageable, Ejectable {
      * @return True if the passenger has been picked up, false otherwise.
      */
     public boolean isPickedUp() {
-        return isPickedUp;
+        return state.isPickedUp();
     }
 
     /**
@@ -648,14 +727,14 @@ public class Passenger extends Entity implements Damageable, Ejectable {
      * @return True if earnings has been added, false otherwise.
      */
     public boolean isEarningsAdded() {
-        return isEarningsAdded;
+        return (tripFlags & EARNINGS_ADDED) != 0;
     }
 
     /**
      * Set the passenger earnings to have been added to the total earnings.
      */
     public void addedEarnings() {
-        this.isEarningsAdded = true;
+        tripFlags |= EARNINGS_ADDED;
     }
 
     /**
@@ -663,7 +742,7 @@ public class Passenger extends Entity implements Damageable, Ejectable {
      * @return True if passenger is moving towards its trip end flag, false otherwise.
      */
     public boolean isMovingToFlag() {
-        return isMovingToFlag;
+        return state.isMovingToFlag();
     }
 
     /**
@@ -671,7 +750,7 @@ public class Passenger extends Entity implements Damageable, Ejectable {
      * @return True if penalty has been imposed, false otherwise.
      */
     public boolean isPenaltyImposed() {
-        return isPenaltyImposed;
+        return (tripFlags & PENALTY_IMPOSED) != 0;
     }
 
     /**
@@ -679,14 +758,24 @@ public class Passenger extends Entity implements Damageable, Ejectable {
      * @return True if this passenger is currently in the taxi, false otherwise.
      */
     public boolean isInTaxi() {
-        return isInTaxi;
+        return state.isInTaxi();
     }
 
     /**
-     * Sets the passenger to have entered taxi.
+     * Sets the passenger to have entered taxi, after having been ejected from the previous one.
      */
     public void enteredTaxi() {
-        isInTaxi = true;
+        if (state == PassengerState.EJECTED) {
+            state = PassengerState.RIDING;
+        }
+    }
+
+    /**
+     * Gets the current stage of the passenger.
+     * @return The current state of the passenger.
+     */
+    public PassengerState getState() {
+        return state;
     }
 
     /**
@@ -697,6 +786,14 @@ public class Passenger extends Entity implements Damageable, Ejectable {
         return RADIUS;
     }
 
+    /**
+     * Gets the squared radius responsible for detecting if passenger can enter a taxi.
+     * @return Squared taxi detect radius.
+     */
+    public double getSquaredDetectRadius() {
+        return SQUARED_DETECT_RADIUS;
+    }
+
     /**
      * Initialises the taxi driver.
      * @param driver The taxi driver.
@@ -704,4 +801,46 @@ public class Passenger extends Entity implements Damageable, Ejectable {
     public void initialiseDriver(Driver driver) {
         this.driver = driver;
     }
+
+    /**
+     * Writes the state of the passenger to a game snapshot.
+     * The trip details (end X-coordinate and distance) come from the game objects file and are not written.
+     * @param buffer The buffer to write to.
+     * @param carIndices Gives the index of a car in the snapshot, or -1 for null.
+     */
+    public void writeState(ByteBuffer buffer, ToIntFunction<Car> carIndices) {
+        writePosition(buffer);
+        buffer.putInt(originalPriority);
+        buffer.putInt(priority);
+        SnapshotUtils.putBoolean(buffer, isRaining);
+        buffer.putInt(finalFlagX);
+        buffer.putInt(finalFlagY);
+        buffer.putDouble(penalty);
+        buffer.put((byte) state.ordinal());
+        buffer.put(tripFlags);
+        buffer.putDouble(currentHealth);
+        buffer.putInt(carIndices.applyAsInt(collidingCar));
+        COLLISION_TIMEOUT.writeState(buffer);
+    }
+
+    /**
+     * Restores the state of the passenger from a game snapshot, then recalculates its earnings.
+     * @param buffer The buffer to read from.
+     * @param cars Gives the car at an index in the snapshot, or null for -1.
+     */
+    public void readState(ByteBuffer buffer, IntFunction<Car> cars) {
+        readPosition(buffer);
+        originalPriority = buffer.getInt();
+        priority = buffer.getInt();
+        isRaining = SnapshotUtils.getBoolean(buffer);
+        finalFlagX = buffer.getInt();
+        finalFlagY = buffer.getInt();
+        penalty = buffer.getDouble();
+        state = PassengerState.fromOrdinal(buffer.get());
+        tripFlags = buffer.get();
+        currentHealth = buffer.getDouble();
+        collidingCar = cars.apply(buffer.getInt());
+        COLLISION_TIMEOUT.readState(buffer);
+        refreshEarnings();
+    }
 }
@@ -0,0 +1,129 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Holds the passengers still waiting to be picked up, sorted by y-coordinate, so that the passengers within a vertical
+ * range of the taxi can be found by binary search instead of checking every passenger.
+ * Waiting passengers all scroll by the same amount when the taxi moves, which keeps their order, and only move on
+ * their own for a few frames (walking to the taxi, or being pushed by a car), so the order is restored with a single
+ * insertion sort pass that costs one comparison per passenger when nothing has changed.
+ */
+public class PassengerIndex {
+
+    /**
+     * The order of passengers in the index, by y-coordinate.
+     */
+    private static final Comparator<Passenger> BY_Y = Comparator.comparingInt(Passenger::getY);
+
+    /**
+     * The waiting passengers, sorted by y-coordinate in the first count elements.
+     */
+    private Passenger[] waiting;
+
+    /**
+     * The number of waiting passengers in the index.
+     */
+    private int count;
+
+    /**
+     * The largest detect radius of any passenger in the index.
+     */
+    private double maxDetectRadius;
+
+    /**
+     * Constructor for an empty passenger index.
+     */
+    public PassengerIndex() {
+        this.waiting = new Passenger[0];
+        this.count = 0;
+        this.maxDetectRadius = 0;
+    }
+
+    /**
+     * Fills the index with the passengers that have not been picked up yet, for a new game or a restored snapshot.
+     * Passengers with the same y-coordinate keep the order of the list.
+     * @param passengers All passengers in the game.
+     */
+    public void rebuild(List<Passenger> passengers) {
+        waiting = new Passenger[passengers.size()];
+        count = 0;
+        maxDetectRadius = 0;
+        for (Passenger passenger : passengers) {
+            if (!passenger.isPickedUp()) {
+                waiting[count++] = passenger;
+                maxDetectRadius = Math.max(maxDetectRadius, passenger.getDetectRadius());
+            }
+        }
+        Arrays.sort(waiting, 0, count, BY_Y);
+    }
+
+    /**
+     * Removes the passengers that have been picked up since the last refresh, and restores the order of those that
+     * have moved on their own. This function is called before the index is searched in a frame.
+     */
+    public void refresh() {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            Passenger passenger = waiting[i];
+            if (passenger.isPickedUp()) {
+                continue;
+            }
+            // Insertion sort step: the passengers before this one are already in order.
+            int j = kept;
+            while (j > 0 && waiting[j - 1].getY() > passenger.getY()) {
+                waiting[j] = waiting[j - 1];
+                j--;
+            }
+            waiting[j] = passenger;
+            kept++;
+        }
+        Arrays.fill(waiting, kept, count, null);
+        count = kept;
+    }
+
+    /**
+     * Finds the first waiting passenger at or below a y-coordinate on screen (i.e. with at least that y-coordinate).
+     * @param minY The smallest y-coordinate of the passengers wanted.
+     * @return The index of the first such passenger, or the number of passengers in the index if there is none.
+     */
+    public int findFirst(double minY) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (waiting[middle].getY() < minY) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Gets the waiting passenger at a position in the index.
+     * @param index The position in the index, from 0 (smallest y-coordinate).
+     * @return The waiting passenger at that position.
+     */
+    public Passenger get(int index) {
+        return waiting[index];
+    }
+
+    /**
+     * Gets the number of waiting passengers in the index.
+     * @return The number of waiting passengers.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Gets the largest detect radius of any passenger in the index, which bounds how far from the taxi a passenger
+     * that can be picked up may be.
+     * @return The largest detect radius.
+     */
+    public double getMaxDetectRadius() {
+        return maxDetectRadius;
+    }
+}
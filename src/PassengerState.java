@@ -0,0 +1,60 @@
+/**
+ * PassengerState indicates the 6 stages a passenger goes through, in order.
+ * A passenger waits on the side road until a stationary taxi is adjacent, then boards by walking to the taxi.
+ * Boarding passengers still count as waiting in the game, and wait where they stopped if the taxi moves off.
+ * Once in the taxi it rides until it is either ejected, after which it follows the driver and rides again when the
+ * driver gets back in a taxi, or dropped off, after which it alights by walking to its trip end flag and is delivered
+ * there.
+ */
+public enum PassengerState {
+    WAITING,
+    BOARDING,
+    RIDING,
+    EJECTED,
+    ALIGHTING,
+    DELIVERED;
+
+    /**
+     * The states in order, so that a state can be read back from its ordinal without copying the array every time.
+     */
+    private static final PassengerState[] STATES = values();
+
+    /**
+     * Checks if a passenger in this state has been picked up by a taxi from the side road.
+     * @return True if the passenger has been picked up, false if it is still waiting or boarding.
+     */
+    public boolean isPickedUp() {
+        return this.compareTo(RIDING) >= 0;
+    }
+
+    /**
+     * Checks if a passenger in this state is in a taxi, as far as collisions and ejections are concerned.
+     * Passengers keep counting as in the taxi once dropped off, so that cars no longer hit them.
+     * @return True if the passenger is in the taxi, false otherwise.
+     */
+    public boolean isInTaxi() {
+        return isPickedUp() && this != EJECTED;
+    }
+
+    /**
+     * Checks if a passenger in this state has been dropped off by the taxi, and is either walking to or standing on its
+     * trip end flag.
+     * @return True if the passenger has been dropped off, false otherwise.
+     */
+    public boolean isMovingToFlag() {
+        return this == ALIGHTING || this == DELIVERED;
+    }
+
+    /**
+     * Gets the state with an ordinal, for reading a state back from a game snapshot.
+     * @param ordinal The ordinal of the state.
+     * @return The state with that ordinal.
+     * @throws IllegalArgumentException If there is no state with that ordinal.
+     */
+    public static PassengerState fromOrdinal(int ordinal) {
+        if (ordinal < 0 || ordinal >= STATES.length) {
+            throw new IllegalArgumentException("Invalid passenger state " + ordinal);
+        }
+        return STATES[ordinal];
+    }
+}
@@ -55,7 +55,7 @@ public class PlayerInfoScreen extends Screen {
      * @param messageProps The properties object containing text configuration values.
      */
     public PlayerInfoScreen(Properties gameProps, Properties messageProps) {
-        super(gameProps, messageProps, new Image(gameProps.getProperty("backgroundImage.playerInfo")));
+        super(gameProps, messageProps, SpriteCache.getSprite(gameProps.getProperty("backgroundImage.playerInfo")));
 
         FONT_SIZE = Integer.parseInt(GAME_PROPS.getProperty("playerInfo.fontSize"));
 
@@ -1,3 +1,4 @@
+import java.nio.ByteBuffer;
 import java.util.Properties;
 
 /**
@@ -52,4 +53,22 @@ public abstract class PowerUp extends Entity {
     public boolean isTaken() {
         return isTaken;
     }
+
+    /**
+     * Writes the state of the power-up to a game snapshot.
+     * @param buffer The buffer to write to.
+     */
+    public void writeState(ByteBuffer buffer) {
+        writePosition(buffer);
+        SnapshotUtils.putBoolean(buffer, isTaken);
+    }
+
+    /**
+     * Restores the state of the power-up from a game snapshot.
+     * @param buffer The buffer to read from.
+     */
+    public void readState(ByteBuffer buffer) {
+        readPosition(buffer);
+        isTaken = SnapshotUtils.getBoolean(buffer);
+    }
 }
@@ -1,4 +1,4 @@
-import bagel.Font;
+import java.nio.ByteBuffer;
 import java.util.Properties;
 
 /**
@@ -36,14 +36,19 @@ public class PowerUpState {
     private final int INVINCIBLE_MAX_FRAMES;
 
     /**
-     * The number of frames to increase the current frame count for power-ups per unit time.
+     * The timing wheel on which the power-up expiry timers are scheduled.
      */
-    private final int INCREASE_PER_FRAME;
+    private final TimingWheel TIMING_WHEEL;
 
     /**
-     * The initial frame count for power-ups.
+     * The timer that deactivates the coin power-up once its duration has passed.
      */
-    private final int INITIAL_FRAME_COUNT;
+    private final WheelTimer COIN_TIMER;
+
+    /**
+     * The timer that deactivates the invincible power-up once its duration has passed.
+     */
+    private final WheelTimer INVINCIBLE_TIMER;
 
     /**
      * Boolean that indicates whether the coin power-up is currently active.
@@ -56,25 +61,24 @@ public class PowerUpState {
     private boolean isInvincibleActivated;
 
     /**
-     * The current frame count for the coin power-up.
+     * The timing wheel frame at which the coin frame count is 0, used to render the coin frame count.
      */
-    private int coinFrameCount;
-
-    /**
-     * The current frame count for the invincible power-up.
-     */
-    private int invincibleFrameCount;
+    private long coinStartFrame;
 
     /**
      * The font object used for rendering text.
      */
-    private final Font FONT;
+    private final GameFont FONT;
 
     /**
      * Constructor to create a power up state class.
+     * @param timingWheel The timing wheel on which the power-up expiry timers are scheduled.
      * @param gameProps The properties object containing game configuration values.
      */
-    public PowerUpState(Properties gameProps) {
+    public PowerUpState(TimingWheel timingWheel, Properties gameProps) {
+        this.TIMING_WHEEL = timingWheel;
+        this.COIN_TIMER = new WheelTimer(() -> isCoinActivated = false);
+        this.INVINCIBLE_TIMER = new WheelTimer(() -> isInvincibleActivated = false);
         this.isCoinActivated = false;
         this.isInvincibleActivated = false;
 
@@ -87,20 +91,15 @@ public class PowerUpState {
         FONT_PATH = gameProps.getProperty("font");
         FONT_SIZE = Integer.parseInt(gameProps.getProperty("gamePlay.info.fontSize"));
 
-        INCREASE_PER_FRAME = 1;
-        INITIAL_FRAME_COUNT = 0;
-
-        this.FONT = new Font(FONT_PATH, FONT_SIZE);
+        this.FONT = new GameFont(FONT_PATH, FONT_SIZE);
     }
 
     /**
-     * Updates the coin and invincible power-up total frames.
      * Draws the total frames of coin in the top right screen.
+     * Power-ups are deactivated by their timers on the timing wheel, so no counting is needed here.
      */
     public void update() {
         renderCoinFrames();
-        updateCoinFrameCount();
-        updateInvincibleFrameCount();
     }
 
     /**
@@ -112,49 +111,31 @@ public class PowerUpState {
     }
 
     /**
-     * Resets the coin total frame count when the coin power-up is picked up.
+     * Restarts the coin power-up duration when the coin power-up is picked up.
+     * The coin frame count starts from 0 on the next frame and the power-up lasts until it exceeds the max frames.
      */
     public void refreshCoinFrameCount() {
-        this.coinFrameCount = INITIAL_FRAME_COUNT;
+        this.coinStartFrame = TIMING_WHEEL.getCurrentFrame() + 1;
         this.isCoinActivated = true;
+        TIMING_WHEEL.schedule(COIN_TIMER, COIN_MAX_FRAMES + 2);
     }
 
     /**
-     * Resets the invincible total frame count when the invincible power-up is picked up.
+     * Restarts the invincible power-up duration when the invincible power-up is picked up.
      */
     public void refreshInvincibleFrameCount() {
-        this.invincibleFrameCount = INITIAL_FRAME_COUNT;
         this.isInvincibleActivated = true;
+        TIMING_WHEEL.schedule(INVINCIBLE_TIMER, INVINCIBLE_MAX_FRAMES + 2);
     }
 
     /**
      * Draws the coin frame count on the top right screen.
+     * The count changes every frame, so its text comes from the cached integer texts to avoid allocating.
      */
     private void renderCoinFrames() {
         if (isCoinActivated) {
-            FONT.drawString(String.valueOf(coinFrameCount), GAMEPLAY_COIN_X, GAMEPLAY_COIN_Y);
-        }
-    }
-
-    /**
-     * Updates the current coin total frame count.
-     */
-    private void updateCoinFrameCount() {
-        if (coinFrameCount <= COIN_MAX_FRAMES) {
-            coinFrameCount += INCREASE_PER_FRAME;
-        } else {
-            isCoinActivated = false;
-        }
-    }
-
-    /**
-     * Updates the current invincible total frame count.
-     */
-    private void updateInvincibleFrameCount() {
-        if (invincibleFrameCount <= INVINCIBLE_MAX_FRAMES) {
-            invincibleFrameCount += INCREASE_PER_FRAME;
-        } else {
-            isInvincibleActivated = false;
+            int coinFrameCount = (int) (TIMING_WHEEL.getCurrentFrame() - coinStartFrame);
+            FONT.drawString(TextUtils.intToString(coinFrameCount), GAMEPLAY_COIN_X, GAMEPLAY_COIN_Y);
         }
     }
 
@@ -162,8 +143,10 @@ public class PowerUpState {
      * Disable all current active power-ups (When taxi is broken).
      */
     public void resetPowerUps() {
-        this.coinFrameCount = COIN_MAX_FRAMES;
-        this.invincibleFrameCount = INVINCIBLE_MAX_FRAMES;
+        TIMING_WHEEL.cancel(COIN_TIMER);
+        TIMING_WHEEL.cancel(INVINCIBLE_TIMER);
+        this.isCoinActivated = false;
+        this.isInvincibleActivated = false;
     }
 
     /**
@@ -181,4 +164,28 @@ public class PowerUpState {
     public boolean isInvincibleActivated() {
         return isInvincibleActivated;
     }
+
+    /**
+     * Writes the state of the power-ups to a game snapshot.
+     * @param buffer The buffer to write to.
+     */
+    public void writeState(ByteBuffer buffer) {
+        SnapshotUtils.putBoolean(buffer, isCoinActivated);
+        SnapshotUtils.putBoolean(buffer, isInvincibleActivated);
+        buffer.putLong(coinStartFrame);
+        TIMING_WHEEL.writeTimer(buffer, COIN_TIMER);
+        TIMING_WHEEL.writeTimer(buffer, INVINCIBLE_TIMER);
+    }
+
+    /**
+     * Restores the state of the power-ups from a game snapshot, rescheduling the timers of active power-ups.
+     * @param buffer The buffer to read from.
+     */
+    public void readState(ByteBuffer buffer) {
+        isCoinActivated = SnapshotUtils.getBoolean(buffer);
+        isInvincibleActivated = SnapshotUtils.getBoolean(buffer);
+        coinStartFrame = buffer.getLong();
+        TIMING_WHEEL.readTimer(buffer, COIN_TIMER);
+        TIMING_WHEEL.readTimer(buffer, INVINCIBLE_TIMER);
+    }
 }
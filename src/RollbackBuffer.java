@@ -0,0 +1,310 @@
+import java.util.Arrays;
+
+/**
+ * Keeps the game snapshots of the most recent frames, so that the game can be rewound to any of them instantly.
+ * Every KEYFRAME_INTERVAL frames the snapshot is stored whole as a keyframe. The snapshots in between are stored as
+ * deltas against the latest keyframe: the snapshot XORed with the keyframe, so that every unchanged byte becomes 0,
+ * then run-length encoded. A delta is a sequence of runs, each being the number of zero bytes (varint), the number
+ * of literal bytes (varint), and the literal bytes themselves.
+ * The slots are allocated up front and only grow when a snapshot or delta outgrows them, so recording a frame
+ * allocates nothing once the buffer has warmed up. A frame can only be rewound to while its keyframe is still kept,
+ * which is always true for the most recent FRAME_CAPACITY - KEYFRAME_INTERVAL + 1 frames.
+ */
+public class RollbackBuffer {
+
+    /**
+     * The number of bytes each slot is allocated with before it is first used.
+     */
+    private static final int INITIAL_SLOT_BYTES = 256;
+
+    /**
+     * The shortest run of zero bytes that ends a run of literal bytes. Shorter zero runs are cheaper to store as
+     * literal bytes than as a new run.
+     */
+    private static final int MIN_ZERO_RUN = 3;
+
+    /**
+     * The number of frames kept.
+     */
+    private final int FRAME_CAPACITY;
+
+    /**
+     * The number of frames between two keyframes.
+     */
+    private final int KEYFRAME_INTERVAL;
+
+    /**
+     * The stored data of each slot: the whole snapshot for a keyframe, or its delta otherwise.
+     */
+    private final byte[][] SLOTS;
+
+    /**
+     * The number of bytes of stored data in each slot.
+     */
+    private final int[] STORED_LENGTHS;
+
+    /**
+     * The length of the snapshot stored in each slot.
+     */
+    private final int[] SNAPSHOT_LENGTHS;
+
+    /**
+     * The sequence number of the keyframe each slot is stored against. A keyframe is stored against itself.
+     */
+    private final long[] KEYFRAME_SEQUENCES;
+
+    /**
+     * The buffer deltas are encoded into before being copied into their slot, which only has to fit the delta.
+     */
+    private byte[] deltaBuffer;
+
+    /**
+     * The sequence number of the oldest frame kept. Frames are numbered from 0 in the order they are recorded.
+     */
+    private long oldestSequence;
+
+    /**
+     * The sequence number the next recorded frame will get.
+     */
+    private long nextSequence;
+
+    /**
+     * The sequence number of the keyframe new frames are stored against, or -1 if there is none yet.
+     */
+    private long keyframeSequence;
+
+    /**
+     * Constructor for an empty rollback buffer.
+     * @param frameCapacity The number of frames kept.
+     * @param keyframeInterval The number of frames between two keyframes. Must be at least 1 and at most the number
+     *                         of frames kept.
+     */
+    public RollbackBuffer(int frameCapacity, int keyframeInterval) {
+        if (keyframeInterval < 1 || keyframeInterval > frameCapacity) {
+            throw new IllegalArgumentException(String.format(
+                    "Keyframe interval must be between 1 and the rollback frame count (%d), got %d",
+                    frameCapacity, keyframeInterval));
+        }
+        this.FRAME_CAPACITY = frameCapacity;
+        this.KEYFRAME_INTERVAL = keyframeInterval;
+        this.SLOTS = new byte[frameCapacity][INITIAL_SLOT_BYTES];
+        this.STORED_LENGTHS = new int[frameCapacity];
+        this.SNAPSHOT_LENGTHS = new int[frameCapacity];
+        this.KEYFRAME_SEQUENCES = new long[frameCapacity];
+        this.deltaBuffer = new byte[INITIAL_SLOT_BYTES];
+        clear();
+    }
+
+    /**
+     * Records the snapshot of the latest frame, dropping the oldest frame if the buffer is full.
+     * @param snapshot The array holding the snapshot.
+     * @param length The length of the snapshot, which starts at index 0 of the array.
+     */
+    public void record(byte[] snapshot, int length) {
+        if (nextSequence - oldestSequence == FRAME_CAPACITY) {
+            oldestSequence++;
+        }
+        long sequence = nextSequence++;
+        int slot = getSlot(sequence);
+        SNAPSHOT_LENGTHS[slot] = length;
+
+        if (keyframeSequence < 0 || sequence - keyframeSequence >= KEYFRAME_INTERVAL) {
+            keyframeSequence = sequence;
+            ensureSlotCapacity(slot, length);
+            System.arraycopy(snapshot, 0, SLOTS[slot], 0, length);
+            STORED_LENGTHS[slot] = length;
+        } else {
+            // At worst a delta holds every byte as a literal, plus two varints for every MIN_ZERO_RUN + 1 bytes.
+            if (deltaBuffer.length < length * 2 + 16) {
+                deltaBuffer = new byte[length * 2 + 16];
+            }
+            int deltaLength = encodeDelta(snapshot, length, getSlot(keyframeSequence), deltaBuffer);
+            ensureSlotCapacity(slot, deltaLength);
+            System.arraycopy(deltaBuffer, 0, SLOTS[slot], 0, deltaLength);
+            STORED_LENGTHS[slot] = deltaLength;
+        }
+        KEYFRAME_SEQUENCES[slot] = keyframeSequence;
+    }
+
+    /**
+     * Gets the snapshot of a recent frame, and forgets every frame after it, so that the game carries on from it.
+     * @param framesBack The number of frames to go back: 0 for the latest recorded frame.
+     * @return The snapshot of that frame, or null if that frame is no longer kept.
+     */
+    public byte[] rewind(int framesBack) {
+        if (framesBack < 0 || framesBack >= getRewindableFrames()) {
+            return null;
+        }
+        long sequence = nextSequence - 1 - framesBack;
+        int slot = getSlot(sequence);
+        byte[] snapshot;
+        if (KEYFRAME_SEQUENCES[slot] == sequence) {
+            snapshot = Arrays.copyOf(SLOTS[slot], SNAPSHOT_LENGTHS[slot]);
+        } else {
+            snapshot = decodeDelta(slot, getSlot(KEYFRAME_SEQUENCES[slot]));
+        }
+        nextSequence = sequence + 1;
+        keyframeSequence = KEYFRAME_SEQUENCES[slot];
+        return snapshot;
+    }
+
+    /**
+     * Gets the number of recent frames that can be rewound to, counting the latest recorded frame.
+     * @return The number of frames that can be rewound to.
+     */
+    public int getRewindableFrames() {
+        // Frames stored against a keyframe that has been dropped can no longer be decoded.
+        long sequence = oldestSequence;
+        while (sequence < nextSequence && KEYFRAME_SEQUENCES[getSlot(sequence)] < oldestSequence) {
+            sequence++;
+        }
+        return (int) (nextSequence - sequence);
+    }
+
+    /**
+     * Forgets every recorded frame. Called when a new game starts.
+     */
+    public void clear() {
+        oldestSequence = 0;
+        nextSequence = 0;
+        keyframeSequence = -1;
+    }
+
+    /**
+     * Encodes a snapshot as a delta against a keyframe.
+     * @param snapshot The array holding the snapshot.
+     * @param length The length of the snapshot.
+     * @param keyframeSlot The slot of the keyframe.
+     * @param out The array the delta is written to, which must be large enough.
+     * @return The length of the delta.
+     */
+    private int encodeDelta(byte[] snapshot, int length, int keyframeSlot, byte[] out) {
+        byte[] keyframe = SLOTS[keyframeSlot];
+        int keyframeLength = SNAPSHOT_LENGTHS[keyframeSlot];
+        int position = 0;
+        int i = 0;
+        while (i < length) {
+            int zeroStart = i;
+            while (i < length && xorAt(snapshot, keyframe, keyframeLength, i) == 0) {
+                i++;
+            }
+            int literalStart = i;
+            int zeroRun = 0;
+            // Extend the literal run until a long enough run of zero bytes (or the end of the snapshot) is found.
+            while (i < length && zeroRun < MIN_ZERO_RUN) {
+                zeroRun = xorAt(snapshot, keyframe, keyframeLength, i) == 0 ? zeroRun + 1 : 0;
+                i++;
+            }
+            if (zeroRun == MIN_ZERO_RUN) {
+                i -= zeroRun;
+            }
+            position = putVarint(out, position, literalStart - zeroStart);
+            position = putVarint(out, position, i - literalStart);
+            for (int j = literalStart; j < i; j++) {
+                out[position++] = xorAt(snapshot, keyframe, keyframeLength, j);
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Decodes a snapshot stored as a delta against a keyframe.
+     * @param slot The slot of the delta.
+     * @param keyframeSlot The slot of the keyframe.
+     * @return The snapshot.
+     */
+    private byte[] decodeDelta(int slot, int keyframeSlot) {
+        byte[] delta = SLOTS[slot];
+        int deltaLength = STORED_LENGTHS[slot];
+        byte[] keyframe = SLOTS[keyframeSlot];
+        int keyframeLength = SNAPSHOT_LENGTHS[keyframeSlot];
+        byte[] snapshot = Arrays.copyOf(keyframe, SNAPSHOT_LENGTHS[slot]);
+        if (snapshot.length > keyframeLength) {
+            // Bytes past the end of the keyframe were XORed with 0.
+            Arrays.fill(snapshot, keyframeLength, snapshot.length, (byte) 0);
+        }
+
+        int position = 0;
+        int i = 0;
+        int[] varint = new int[2];
+        while (position < deltaLength) {
+            position = getVarint(delta, position, varint);
+            i += varint[0];
+            position = getVarint(delta, position, varint);
+            for (int end = i + varint[0]; i < end; i++) {
+                snapshot[i] ^= delta[position++];
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Gets a byte of a snapshot XORed with the same byte of a keyframe. Bytes past the end of the keyframe are XORed
+     * with 0.
+     * @param snapshot The snapshot.
+     * @param keyframe The keyframe.
+     * @param keyframeLength The length of the keyframe.
+     * @param index The index of the byte.
+     * @return The XORed byte.
+     */
+    private static byte xorAt(byte[] snapshot, byte[] keyframe, int keyframeLength, int index) {
+        return index < keyframeLength ? (byte) (snapshot[index] ^ keyframe[index]) : snapshot[index];
+    }
+
+    /**
+     * Writes a non-negative number as a varint: 7 bits per byte, lowest bits first, with the top bit of every byte
+     * but the last set.
+     * @param out The array to write to.
+     * @param position The index to write at.
+     * @param value The number to be written.
+     * @return The index after the varint.
+     */
+    private static int putVarint(byte[] out, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            out[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[position++] = (byte) value;
+        return position;
+    }
+
+    /**
+     * Reads a varint written by putVarint.
+     * @param in The array to read from.
+     * @param position The index to read at.
+     * @param value The array whose first element is set to the number read.
+     * @return The index after the varint.
+     */
+    private static int getVarint(byte[] in, int position, int[] value) {
+        int result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in[position++];
+            result |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        value[0] = result;
+        return position;
+    }
+
+    /**
+     * Grows a slot if it cannot hold the given number of bytes.
+     * @param slot The slot.
+     * @param capacity The number of bytes the slot must be able to hold.
+     */
+    private void ensureSlotCapacity(int slot, int capacity) {
+        if (SLOTS[slot].length < capacity) {
+            SLOTS[slot] = new byte[Math.max(capacity, SLOTS[slot].length * 2)];
+        }
+    }
+
+    /**
+     * Gets the slot a frame is stored in.
+     * @param sequence The sequence number of the frame.
+     * @return The slot of the frame.
+     */
+    private int getSlot(long sequence) {
+        return (int) (sequence % FRAME_CAPACITY);
+    }
+}
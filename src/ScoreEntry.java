@@ -39,9 +39,27 @@ public class ScoreEntry implements Comparable<ScoreEntry> {
         return Double.compare(other.PLAYER_SCORE, this.PLAYER_SCORE);
     }
 
+    /**
+     * Gets the name of the player in this score entry.
+     * @return The name of the player.
+     */
+    public String getPlayerName() {
+        return PLAYER_NAME;
+    }
+
+    /**
+     * Gets the score of the player in this score entry.
+     * @return The score of the player.
+     */
+    public double getPlayerScore() {
+        return PLAYER_SCORE;
+    }
+
     /**
      * Returns a string representation of this ScoreEntry to be displayed in Game End Screen for top 5 scores.
-     * The format is: "playerName - score".
+     * The format is: "playerName - score". Only the top scores are ever displayed, so the text is formatted here
+     * rather than for every score replayed while the leaderboard loads, and the game end screen formats it once per
+     * game.
      * @return A string representation of this ScoreEntry.
      */
     @Override
@@ -0,0 +1,284 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * The history of every recorded game folded into a summary: the best score of each player, the number of games and
+ * their total score, the overall top scores, and how many games ended with each score (to rank scores against).
+ * A summary can be saved as a snapshot, which replaces the journal records it was folded from. The snapshot also
+ * stores, for every journal segment, the offset up to which the segment has been folded into it.
+ * Snapshot format: magic (int), version (int), game count (long), total score (double), player count (int) then each
+ * player's name (UTF) and best score (double), top score count (int) then each top score's name (UTF) and score
+ * (double), the score rank index (see ScoreRankIndex.write), segment count (int) then each segment's name (UTF) and
+ * folded offset (long), and finally a CRC32 checksum (int) of everything before it.
+ */
+public class ScoreHistory {
+
+    /**
+     * The maximum number of top scores kept.
+     */
+    public static final int MAX_NUM_TOP_SCORES = 5;
+
+    /**
+     * The first 4 bytes of every snapshot file.
+     */
+    private static final int SNAPSHOT_MAGIC = 0x53545348;
+
+    /**
+     * The version of the snapshot format written by this class.
+     */
+    private static final int SNAPSHOT_VERSION = 3;
+
+    /**
+     * The best score of each player, by player name.
+     */
+    private final HashMap<String, Double> PLAYER_BESTS;
+
+    /**
+     * The current top scores, with the lowest of them at the head.
+     */
+    private final PriorityQueue<ScoreEntry> TOP_SCORES;
+
+    /**
+     * The index counting how many games ended with each score.
+     */
+    private ScoreRankIndex rankIndex;
+
+    /**
+     * The number of games recorded.
+     */
+    private long gameCount;
+
+    /**
+     * The sum of the scores of every game recorded.
+     */
+    private double totalScore;
+
+    /**
+     * The offset up to which each journal segment has been folded into this history, by segment name.
+     */
+    private final HashMap<String, Long> SEGMENT_OFFSETS;
+
+    /**
+     * Constructor for an empty score history.
+     */
+    public ScoreHistory() {
+        this.PLAYER_BESTS = new HashMap<>();
+        this.TOP_SCORES = new PriorityQueue<>(MAX_NUM_TOP_SCORES + 1, Collections.reverseOrder());
+        this.rankIndex = new ScoreRankIndex();
+        this.gameCount = 0;
+        this.totalScore = 0;
+        this.SEGMENT_OFFSETS = new HashMap<>();
+    }
+
+    /**
+     * Folds the score of a game into the history.
+     * Only compares the score against the player's best and the lowest top score, and counts it in the rank index,
+     * so it costs O(log n) no matter how many games have been recorded.
+     * @param scoreEntry The score of the game.
+     */
+    public void add(ScoreEntry scoreEntry) {
+        gameCount++;
+        totalScore += scoreEntry.getPlayerScore();
+        PLAYER_BESTS.merge(scoreEntry.getPlayerName(), scoreEntry.getPlayerScore(), Math::max);
+        rankIndex.add(scoreEntry.getPlayerScore());
+
+        if (TOP_SCORES.size() < MAX_NUM_TOP_SCORES) {
+            TOP_SCORES.add(scoreEntry);
+        } else if (scoreEntry.getPlayerScore() > TOP_SCORES.peek().getPlayerScore()) {
+            TOP_SCORES.poll();
+            TOP_SCORES.add(scoreEntry);
+        }
+    }
+
+    /**
+     * Gets the current top scores.
+     * @return A list of the top scores (at most MAX_NUM_TOP_SCORES), sorted in descending order.
+     */
+    public ArrayList<ScoreEntry> getTopScores() {
+        ArrayList<ScoreEntry> topScores = new ArrayList<>(TOP_SCORES);
+        Collections.sort(topScores);
+        return topScores;
+    }
+
+    /**
+     * Gets the best score of a player.
+     * @param playerName The name of the player.
+     * @return The best score of the player, or null if the player has no recorded games.
+     */
+    public Double getPlayerBest(String playerName) {
+        return PLAYER_BESTS.get(playerName);
+    }
+
+    /**
+     * Gets the rank of a score among every recorded game, where 1 is the highest. Equal scores share a rank.
+     * @param score The score to be ranked.
+     * @return The rank of the score.
+     */
+    public long getRank(double score) {
+        return rankIndex.getRank(score);
+    }
+
+    /**
+     * Gets the percentile of a score among every recorded game: the percentage of games that ended with a score at
+     * or below it.
+     * @param score The score to be compared against.
+     * @return The percentile of the score, from 0 to 100.
+     */
+    public double getPercentile(double score) {
+        return rankIndex.getPercentile(score);
+    }
+
+    /**
+     * Gets the number of different players with recorded games.
+     * @return The number of players.
+     */
+    public int getPlayerCount() {
+        return PLAYER_BESTS.size();
+    }
+
+    /**
+     * Gets the number of games recorded.
+     * @return The number of games.
+     */
+    public long getGameCount() {
+        return gameCount;
+    }
+
+    /**
+     * Gets the sum of the scores of every game recorded.
+     * @return The total score.
+     */
+    public double getTotalScore() {
+        return totalScore;
+    }
+
+    /**
+     * Gets the offset up to which a journal segment has been folded into this history.
+     * @param segmentName The file name of the segment.
+     * @return The offset of the first record not yet folded, or 0 if none of the segment has been folded.
+     */
+    public long getSegmentOffset(String segmentName) {
+        return SEGMENT_OFFSETS.getOrDefault(segmentName, 0L);
+    }
+
+    /**
+     * Sets the offset up to which a journal segment has been folded into this history.
+     * @param segmentName The file name of the segment.
+     * @param offset The offset of the first record not yet folded.
+     */
+    public void setSegmentOffset(String segmentName, long offset) {
+        SEGMENT_OFFSETS.put(segmentName, offset);
+    }
+
+    /**
+     * Forgets the folded offsets of every segment not in the given set, once their files have been deleted.
+     * @param segmentNames The file names of the segments that still exist.
+     */
+    public void retainSegments(Set<String> segmentNames) {
+        SEGMENT_OFFSETS.keySet().retainAll(segmentNames);
+    }
+
+    /**
+     * Saves the history as a snapshot file.
+     * The snapshot is written to a temporary file, forced to disk, and then moved over the old snapshot, so a crash
+     * while saving always leaves either the old or the new snapshot behind.
+     * @param file The file path of the snapshot.
+     * @throws IOException If the snapshot could not be written.
+     */
+    public void save(String file) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeInt(SNAPSHOT_VERSION);
+        out.writeLong(gameCount);
+        out.writeDouble(totalScore);
+        out.writeInt(PLAYER_BESTS.size());
+        for (Map.Entry<String, Double> playerBest : PLAYER_BESTS.entrySet()) {
+            out.writeUTF(playerBest.getKey());
+            out.writeDouble(playerBest.getValue());
+        }
+        out.writeInt(TOP_SCORES.size());
+        for (ScoreEntry scoreEntry : TOP_SCORES) {
+            out.writeUTF(scoreEntry.getPlayerName());
+            out.writeDouble(scoreEntry.getPlayerScore());
+        }
+        rankIndex.write(out);
+        out.writeInt(SEGMENT_OFFSETS.size());
+        for (Map.Entry<String, Long> segmentOffset : SEGMENT_OFFSETS.entrySet()) {
+            out.writeUTF(segmentOffset.getKey());
+            out.writeLong(segmentOffset.getValue());
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes.toByteArray());
+        out.writeInt((int) checksum.getValue());
+        out.flush();
+
+        Path tempPath = Paths.get(file + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(tempPath.toFile())) {
+            bytes.writeTo(fileOut);
+            fileOut.getFD().sync();
+        }
+        Files.move(tempPath, Paths.get(file), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads a history from a snapshot file.
+     * @param file The file path of the snapshot.
+     * @return The history stored in the snapshot.
+     * @throws IOException If the snapshot could not be read, or is damaged or of an unknown format.
+     */
+    public static ScoreHistory load(String file) throws IOException {
+        byte[] bytes = Files.readAllBytes(Paths.get(file));
+        if (bytes.length < Integer.BYTES) {
+            throw new IOException("Score snapshot is truncated: " + file);
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes, 0, bytes.length - Integer.BYTES);
+        in.skipBytes(bytes.length - Integer.BYTES);
+        if ((int) checksum.getValue() != in.readInt()) {
+            throw new IOException("Score snapshot is damaged: " + file);
+        }
+
+        in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - Integer.BYTES));
+        if (in.readInt() != SNAPSHOT_MAGIC) {
+            throw new IOException("Not a score snapshot: " + file);
+        }
+        if (in.readInt() != SNAPSHOT_VERSION) {
+            throw new IOException("Not a score snapshot of a supported version: " + file);
+        }
+        ScoreHistory history = new ScoreHistory();
+        history.gameCount = in.readLong();
+        history.totalScore = in.readDouble();
+        int playerCount = in.readInt();
+        for (int i = 0; i < playerCount; i++) {
+            history.PLAYER_BESTS.put(in.readUTF(), in.readDouble());
+        }
+        int topScoreCount = in.readInt();
+        for (int i = 0; i < topScoreCount; i++) {
+            history.TOP_SCORES.add(new ScoreEntry(in.readUTF(), in.readDouble()));
+        }
+        history.rankIndex = ScoreRankIndex.read(in);
+        int segmentCount = in.readInt();
+        for (int i = 0; i < segmentCount; i++) {
+            history.SEGMENT_OFFSETS.put(in.readUTF(), in.readLong());
+        }
+        return history;
+    }
+}
@@ -0,0 +1,229 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only binary journal of score entries.
+ * Every record is: name length (int), name (UTF-8 bytes), score (double), then a CRC32 checksum (int) of the
+ * preceding fields of the record. Records are only ever appended, and a reader stops at the first record that is
+ * incomplete or fails its checksum, so a write cut short by a crash (or still in progress) is ignored rather than
+ * misread.
+ * Every game process appends to a journal of its own, so processes never contend on appends. While a process has its
+ * journal open, it holds a lock on the journal, so other processes can tell whether anyone may still append to it.
+ */
+public class ScoreJournal {
+
+    /**
+     * The longest player name, in bytes, that can be stored. Longer lengths can only come from a damaged record.
+     */
+    private static final int MAX_NAME_BYTES = 1024;
+
+    /**
+     * The number of bytes of a record that are not the name: name length, score and checksum.
+     */
+    private static final int FIXED_RECORD_BYTES = Integer.BYTES + Double.BYTES + Integer.BYTES;
+
+    /**
+     * The position of the byte locked by the process appending to the journal. The byte is far past the end of the
+     * file, so the lock never blocks reading or appending records, even where file locks are mandatory.
+     */
+    private static final long OWNER_LOCK_POSITION = Long.MAX_VALUE - 1;
+
+    /**
+     * The file path of the journal.
+     */
+    private final String FILE;
+
+    /**
+     * The channel records are appended through, or null if the journal is not open for appending.
+     */
+    private FileChannel channel;
+
+    /**
+     * The lock showing other processes that the journal is open for appending, or null if it is not.
+     */
+    private FileLock ownerLock;
+
+    /**
+     * Constructor for a score journal.
+     * @param file The file path of the journal.
+     */
+    public ScoreJournal(String file) {
+        this.FILE = file;
+    }
+
+    /**
+     * Creates the journal file if needed and opens it for appending, holding its owner lock until it is closed.
+     * @throws IOException If the journal could not be opened or locked.
+     */
+    public void open() throws IOException {
+        channel = FileChannel.open(Paths.get(FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        ownerLock = channel.lock(OWNER_LOCK_POSITION, 1, false);
+    }
+
+    /**
+     * Releases the owner lock and stops appending to the journal. Does nothing if the journal is not open.
+     * @throws IOException If the journal could not be closed.
+     */
+    public synchronized void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        ownerLock.release();
+        channel.close();
+        ownerLock = null;
+        channel = null;
+    }
+
+    /**
+     * Checks whether a process (including this one) has the journal open for appending.
+     * @param file The file path of the journal.
+     * @return true if the journal is open for appending, false otherwise.
+     * @throws IOException If the journal could not be checked.
+     */
+    public static boolean isInUse(String file) throws IOException {
+        try (FileChannel otherChannel = FileChannel.open(Paths.get(file), StandardOpenOption.WRITE)) {
+            FileLock lock = otherChannel.tryLock(OWNER_LOCK_POSITION, 1, false);
+            if (lock == null) {
+                return true;
+            }
+            lock.release();
+            return false;
+        } catch (OverlappingFileLockException e) {
+            // Locked by this process, through another channel.
+            return true;
+        }
+    }
+
+    /**
+     * Appends a batch of score entries to the journal in a single write, and forces them to disk before returning.
+     * The journal must be open.
+     * @param scoreEntries The score entries to be appended.
+     * @throws IOException If the journal could not be written.
+     */
+    public synchronized void append(List<ScoreEntry> scoreEntries) throws IOException {
+        if (channel == null) {
+            throw new IOException("Score journal is not open: " + FILE);
+        }
+        CRC32 checksum = new CRC32();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (ScoreEntry scoreEntry : scoreEntries) {
+                byte[] name = scoreEntry.getPlayerName().getBytes(StandardCharsets.UTF_8);
+                if (name.length > MAX_NAME_BYTES) {
+                    throw new IOException("Player name too long to be recorded: " + scoreEntry.getPlayerName());
+                }
+                long scoreBits = Double.doubleToLongBits(scoreEntry.getPlayerScore());
+
+                checksum.reset();
+                updateChecksum(checksum, name.length);
+                checksum.update(name);
+                updateChecksum(checksum, scoreBits);
+
+                out.writeInt(name.length);
+                out.write(name);
+                out.writeLong(scoreBits);
+                out.writeInt((int) checksum.getValue());
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Reads every valid record from the given offset, stopping at the end of the journal or at the first record
+     * that is incomplete or damaged.
+     * @param offset The byte offset of the first record to be read.
+     * @param consumer The function every valid score entry is passed to, in the order they were appended.
+     * @return The byte offset right after the last valid record.
+     * @throws IOException If the journal exists but could not be read.
+     */
+    public long replay(long offset, Consumer<ScoreEntry> consumer) throws IOException {
+        if (!new File(FILE).exists()) {
+            return offset;
+        }
+        CRC32 checksum = new CRC32();
+        try (FileInputStream fileIn = new FileInputStream(FILE)) {
+            fileIn.getChannel().position(offset);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(fileIn));
+            while (true) {
+                int nameLength;
+                byte[] name;
+                long scoreBits;
+                int storedChecksum;
+                try {
+                    nameLength = in.readInt();
+                    if (nameLength < 0 || nameLength > MAX_NAME_BYTES) {
+                        return offset;
+                    }
+                    name = new byte[nameLength];
+                    in.readFully(name);
+                    scoreBits = in.readLong();
+                    storedChecksum = in.readInt();
+                } catch (EOFException e) {
+                    return offset;
+                }
+
+                checksum.reset();
+                updateChecksum(checksum, nameLength);
+                checksum.update(name);
+                updateChecksum(checksum, scoreBits);
+                if ((int) checksum.getValue() != storedChecksum) {
+                    return offset;
+                }
+
+                consumer.accept(new ScoreEntry(new String(name, StandardCharsets.UTF_8),
+                        Double.longBitsToDouble(scoreBits)));
+                offset += FIXED_RECORD_BYTES + nameLength;
+            }
+        }
+    }
+
+    /**
+     * Deletes the journal file.
+     */
+    public void delete() {
+        new File(FILE).delete();
+    }
+
+    /**
+     * Adds the 4 bytes of an int to a checksum, in the same order they are written to the journal.
+     * @param checksum The checksum to be updated.
+     * @param value The int to be added.
+     */
+    private static void updateChecksum(CRC32 checksum, int value) {
+        checksum.update(value >>> 24);
+        checksum.update(value >>> 16);
+        checksum.update(value >>> 8);
+        checksum.update(value);
+    }
+
+    /**
+     * Adds the 8 bytes of a long to a checksum, in the same order they are written to the journal.
+     * @param checksum The checksum to be updated.
+     * @param value The long to be added.
+     */
+    private static void updateChecksum(CRC32 checksum, long value) {
+        updateChecksum(checksum, (int) (value >>> 32));
+        updateChecksum(checksum, (int) value);
+    }
+}
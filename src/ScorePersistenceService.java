@@ -0,0 +1,136 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Writes player scores to the score journal on a background thread, so the game never waits on the disk.
+ * Scores are put on a bounded queue and a single writer thread appends everything queued so far in one write
+ * (group commit), forcing it to disk before taking the next batch. Closing the service writes any remaining scores
+ * before returning.
+ */
+public class ScorePersistenceService {
+
+    /**
+     * The maximum number of scores waiting to be written. If the queue is full, scores are written straight away.
+     */
+    private static final int QUEUE_CAPACITY = 64;
+
+    /**
+     * The entry put on the queue to tell the writer thread to stop. Compared by identity, so it can never be
+     * mistaken for a score.
+     */
+    private static final ScoreEntry STOP_SIGNAL = new ScoreEntry("", 0);
+
+    /**
+     * The journal the scores are appended to.
+     */
+    private final ScoreJournal JOURNAL;
+
+    /**
+     * The scores waiting to be written.
+     */
+    private final ArrayBlockingQueue<ScoreEntry> QUEUE;
+
+    /**
+     * The thread that writes the queued scores to the journal.
+     */
+    private final Thread WRITER;
+
+    /**
+     * The lock ensuring no score is queued after the service has been closed.
+     */
+    private final Object LOCK;
+
+    /**
+     * Boolean indicating whether the service has been closed.
+     */
+    private boolean isClosed;
+
+    /**
+     * Constructor for the score persistence service. Starts the writer thread.
+     * @param journal The journal the scores are appended to.
+     */
+    public ScorePersistenceService(ScoreJournal journal) {
+        this.JOURNAL = journal;
+        this.QUEUE = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        this.LOCK = new Object();
+        this.isClosed = false;
+
+        this.WRITER = new Thread(this::writeQueuedScores, "score-writer");
+        this.WRITER.setDaemon(true);
+        this.WRITER.start();
+    }
+
+    /**
+     * Submits a score to be written to the journal. Never waits on the disk unless the queue is full.
+     * @param scoreEntry The final score of a player.
+     */
+    public void submit(ScoreEntry scoreEntry) {
+        synchronized (LOCK) {
+            // Once closed, or if the writer is too far behind, write on the calling thread instead of losing the score.
+            if (isClosed || !QUEUE.offer(scoreEntry)) {
+                ArrayList<ScoreEntry> batch = new ArrayList<>();
+                batch.add(scoreEntry);
+                writeBatch(batch);
+            }
+        }
+    }
+
+    /**
+     * Stops the writer thread after it has written every queued score.
+     * Scores submitted after closing are written straight away.
+     */
+    public void close() {
+        synchronized (LOCK) {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+        }
+        try {
+            QUEUE.put(STOP_SIGNAL);
+            WRITER.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs on the writer thread. Waits for a score, then writes it together with every other queued score.
+     * Stops once the stop signal is taken from the queue.
+     */
+    private void writeQueuedScores() {
+        ArrayList<ScoreEntry> batch = new ArrayList<>();
+        boolean isStopping = false;
+        while (!isStopping) {
+            try {
+                batch.add(QUEUE.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            QUEUE.drainTo(batch);
+
+            // The stop signal is always the last entry queued, since nothing is queued after closing.
+            if (batch.get(batch.size() - 1) == STOP_SIGNAL) {
+                batch.remove(batch.size() - 1);
+                isStopping = true;
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Appends a batch of scores to the journal.
+     * @param batch The scores to be written.
+     */
+    private void writeBatch(ArrayList<ScoreEntry> batch) {
+        try {
+            JOURNAL.append(batch);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
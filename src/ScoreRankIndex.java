@@ -0,0 +1,211 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Counts how many recorded scores are above or below any given score, in O(log n) time.
+ * Scores are rounded to the nearest cent and counted in one bucket per cent, held in a Fenwick tree (binary indexed
+ * tree) so that both adding a score and counting the scores up to a bucket only touch O(log n) buckets. The tree
+ * starts small and doubles whenever a score beyond its last bucket is added. Negative scores are counted in the
+ * bucket of 0, and scores beyond MAX_BUCKETS cents in the last bucket.
+ */
+public class ScoreRankIndex {
+
+    /**
+     * The number of buckets the tree starts with. Must be a power of two.
+     */
+    private static final int INITIAL_BUCKETS = 1024;
+
+    /**
+     * The largest number of buckets the tree can grow to. Must be a power of two.
+     */
+    private static final int MAX_BUCKETS = 1 << 22;
+
+    /**
+     * The number of buckets per unit of score.
+     */
+    private static final int BUCKETS_PER_UNIT = 100;
+
+    /**
+     * The Fenwick tree, indexed from 1. The element at index i holds the number of scores in the buckets
+     * (i - lowestBit(i), i], where bucket i holds the scores rounded to (i - 1) cents.
+     */
+    private long[] tree;
+
+    /**
+     * The total number of scores recorded.
+     */
+    private long count;
+
+    /**
+     * Constructor for an empty score rank index.
+     */
+    public ScoreRankIndex() {
+        this.tree = new long[INITIAL_BUCKETS + 1];
+        this.count = 0;
+    }
+
+    /**
+     * Records a score.
+     * @param score The score to be recorded.
+     */
+    public void add(double score) {
+        add(toBucket(score), 1);
+    }
+
+    /**
+     * Gets the total number of scores recorded.
+     * @return The number of scores.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the number of recorded scores that are strictly higher than a score (to the cent).
+     * @param score The score to be compared against.
+     * @return The number of higher scores.
+     */
+    public long countAbove(double score) {
+        return count - countAtOrBelow(score);
+    }
+
+    /**
+     * Gets the number of recorded scores that are lower than or equal to a score (to the cent).
+     * @param score The score to be compared against.
+     * @return The number of scores at or below the given score.
+     */
+    public long countAtOrBelow(double score) {
+        int bucket = Math.min(toBucket(score), getBucketCount());
+        long total = 0;
+        for (int i = bucket; i > 0; i -= i & -i) {
+            total += tree[i];
+        }
+        return total;
+    }
+
+    /**
+     * Gets the rank a score has among the recorded scores, where 1 is the highest. Equal scores share a rank.
+     * @param score The score to be ranked.
+     * @return The rank of the score.
+     */
+    public long getRank(double score) {
+        return countAbove(score) + 1;
+    }
+
+    /**
+     * Gets the percentile of a score among the recorded scores: the percentage of them that are at or below it.
+     * @param score The score to be compared against.
+     * @return The percentile of the score, from 0 to 100. 100 if no scores are recorded.
+     */
+    public double getPercentile(double score) {
+        if (count == 0) {
+            return 100;
+        }
+        return 100.0 * countAtOrBelow(score) / count;
+    }
+
+    /**
+     * Writes the number of scores in every non-empty bucket.
+     * Format: number of non-empty buckets (int), then each bucket (int) and its number of scores (long).
+     * @param out The stream to write to.
+     * @throws IOException If the index could not be written.
+     */
+    public void write(DataOutputStream out) throws IOException {
+        long[] bucketCounts = getBucketCounts();
+        int nonEmptyBuckets = 0;
+        for (int bucket = 1; bucket < bucketCounts.length; bucket++) {
+            if (bucketCounts[bucket] > 0) {
+                nonEmptyBuckets++;
+            }
+        }
+        out.writeInt(nonEmptyBuckets);
+        for (int bucket = 1; bucket < bucketCounts.length; bucket++) {
+            if (bucketCounts[bucket] > 0) {
+                out.writeInt(bucket);
+                out.writeLong(bucketCounts[bucket]);
+            }
+        }
+    }
+
+    /**
+     * Reads an index written by write.
+     * @param in The stream to read from.
+     * @return The index that was written.
+     * @throws IOException If the index could not be read, or is damaged.
+     */
+    public static ScoreRankIndex read(DataInputStream in) throws IOException {
+        ScoreRankIndex index = new ScoreRankIndex();
+        int nonEmptyBuckets = in.readInt();
+        for (int i = 0; i < nonEmptyBuckets; i++) {
+            int bucket = in.readInt();
+            long bucketCount = in.readLong();
+            if (bucket < 1 || bucket > MAX_BUCKETS || bucketCount < 0) {
+                throw new IOException("Score rank index is damaged");
+            }
+            index.add(bucket, bucketCount);
+        }
+        return index;
+    }
+
+    /**
+     * Adds a number of scores to a bucket, growing the tree first if the bucket is beyond its last bucket.
+     * @param bucket The bucket, from 1.
+     * @param amount The number of scores to be added.
+     */
+    private void add(int bucket, long amount) {
+        while (bucket > getBucketCount()) {
+            grow();
+        }
+        for (int i = bucket; i < tree.length; i += i & -i) {
+            tree[i] += amount;
+        }
+        count += amount;
+    }
+
+    /**
+     * Doubles the number of buckets.
+     * Since the number of buckets is a power of two, every existing element keeps covering the same buckets. The new
+     * elements cover only new (empty) buckets, except the last one, which covers every bucket.
+     */
+    private void grow() {
+        int bucketCount = getBucketCount();
+        long[] grownTree = new long[bucketCount * 2 + 1];
+        System.arraycopy(tree, 0, grownTree, 0, tree.length);
+        grownTree[bucketCount * 2] = count;
+        tree = grownTree;
+    }
+
+    /**
+     * Gets the number of scores in every bucket, by turning the tree back into plain counts.
+     * @return The number of scores in every bucket, indexed from 1.
+     */
+    private long[] getBucketCounts() {
+        long[] bucketCounts = tree.clone();
+        for (int i = bucketCounts.length - 1; i > 0; i--) {
+            int parent = i + (i & -i);
+            if (parent < bucketCounts.length) {
+                bucketCounts[parent] -= tree[i];
+            }
+        }
+        return bucketCounts;
+    }
+
+    /**
+     * Gets the number of buckets in the tree.
+     * @return The number of buckets.
+     */
+    private int getBucketCount() {
+        return tree.length - 1;
+    }
+
+    /**
+     * Gets the bucket a score is counted in.
+     * @param score The score.
+     * @return The bucket, from 1.
+     */
+    private static int toBucket(double score) {
+        long cents = Math.round(score * BUCKETS_PER_UNIT);
+        return (int) Math.min(Math.max(cents, 0), MAX_BUCKETS - 1) + 1;
+    }
+}
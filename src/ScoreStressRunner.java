@@ -0,0 +1,234 @@
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Properties;
+
+/**
+ * Checks that several game processes can share the same score files without losing or double counting a game.
+ * Starts many writer processes at once, each recording its own scores into a fresh directory and compacting when it
+ * closes its leaderboard, while some of them halt without closing, as if they crashed. Once every writer has finished,
+ * the history is loaded and compacted one last time, and must hold exactly the games and total score of every writer.
+ * The run fails, with a non-zero exit code, if the totals differ or a writer process failed.
+ */
+public class ScoreStressRunner {
+
+    /**
+     * The exit code when the recovered games differed from the games recorded, or a writer process failed.
+     */
+    private static final int MISMATCH_EXIT_CODE = 1;
+
+    /**
+     * The properties of the score files, which are moved into the directory of the run.
+     */
+    private static final String[] SCORE_FILE_KEYS = {"gameEnd.scoresFile", "gameEnd.scoreSnapshotFile",
+            "gameEnd.scoreJournalFile", "gameEnd.scoreLockFile"};
+
+    /**
+     * The time a writer pauses after each score, in milliseconds, so that writers still recording overlap with
+     * writers compacting.
+     */
+    private static final long PAUSE_MILLIS = 2;
+
+    /**
+     * The time a writer waits before checking again whether its scores are on disk, in milliseconds.
+     */
+    private static final long POLL_MILLIS = 10;
+
+    /**
+     * The properties object containing game configuration values.
+     */
+    private final Properties GAME_PROPS;
+
+    /**
+     * The number of writer processes.
+     */
+    private final int PROCESSES;
+
+    /**
+     * The number of scores each writer records.
+     */
+    private final int SCORES_PER_PROCESS;
+
+    /**
+     * The number of writers, the last ones started, that halt without closing their leaderboard.
+     */
+    private final int CRASHED_PROCESSES;
+
+    /**
+     * Constructor for the score stress runner.
+     * @param gameProps The properties object containing game configuration values.
+     */
+    public ScoreStressRunner(Properties gameProps) {
+        this.GAME_PROPS = gameProps;
+        this.PROCESSES = Integer.parseInt(gameProps.getProperty("scoreStress.processes"));
+        this.SCORES_PER_PROCESS = Integer.parseInt(gameProps.getProperty("scoreStress.scoresPerProcess"));
+        this.CRASHED_PROCESSES = Integer.parseInt(gameProps.getProperty("scoreStress.crashedProcesses"));
+    }
+
+    /**
+     * Runs every writer process at once in a fresh directory, then checks the games recovered from the score files.
+     * @return True if every game was recovered exactly once, false otherwise.
+     * @throws IOException If the directory or a writer process could not be created.
+     * @throws InterruptedException If interrupted while waiting for the writers.
+     */
+    public boolean run() throws IOException, InterruptedException {
+        if (CRASHED_PROCESSES < 0 || CRASHED_PROCESSES >= PROCESSES) {
+            throw new IllegalArgumentException("scoreStress.crashedProcesses must be at least 0 and less than "
+                    + "scoreStress.processes");
+        }
+        Path directory = Files.createTempDirectory("score-stress");
+        String javaCommand = ProcessHandle.current().info().command().orElse("java");
+        ArrayList<Process> writers = new ArrayList<>();
+        for (int process = 0; process < PROCESSES; process++) {
+            writers.add(new ProcessBuilder(javaCommand, "-cp", System.getProperty("java.class.path"),
+                    ScoreStressRunner.class.getName(), directory.toString(), Integer.toString(process))
+                    .inheritIO().start());
+        }
+        boolean isWriterFailed = false;
+        for (Process writer : writers) {
+            if (writer.waitFor() != 0) {
+                isWriterFailed = true;
+            }
+        }
+
+        // Loading replays the segments of the crashed writers, and closing folds them into the snapshot.
+        Properties scoreProps = getScoreProps(GAME_PROPS, directory);
+        Leaderboard leaderboard = new Leaderboard(scoreProps);
+        long loadedGames = leaderboard.getGameCount();
+        double loadedTotal = leaderboard.getHistory().getTotalScore();
+        leaderboard.close();
+        ScoreHistory compacted = ScoreHistory.load(scoreProps.getProperty("gameEnd.scoreSnapshotFile"));
+
+        long expectedGames = (long) PROCESSES * SCORES_PER_PROCESS;
+        double expectedTotal = 0;
+        for (int process = 0; process < PROCESSES; process++) {
+            for (int game = 0; game < SCORES_PER_PROCESS; game++) {
+                expectedTotal += getScore(process, game);
+            }
+        }
+        System.out.printf("Writers: %d (%d halted without compacting), scores per writer: %d%n", PROCESSES,
+                CRASHED_PROCESSES, SCORES_PER_PROCESS);
+        System.out.printf("Expected: %d games, total %.2f%n", expectedGames, expectedTotal);
+        System.out.printf("Loaded:   %d games, total %.2f%n", loadedGames, loadedTotal);
+        System.out.printf("Compacted: %d games, total %.2f, %d players%n", compacted.getGameCount(),
+                compacted.getTotalScore(), compacted.getPlayerCount());
+
+        boolean isExact = !isWriterFailed && loadedGames == expectedGames && loadedTotal == expectedTotal
+                && compacted.getGameCount() == expectedGames && compacted.getTotalScore() == expectedTotal
+                && compacted.getPlayerCount() == PROCESSES;
+        deleteDirectory(directory);
+        System.out.printf("Score stress run: %s%n", isExact ? "passed" : "failed");
+        return isExact;
+    }
+
+    /**
+     * Runs in a writer process. Records every score of the writer, then either closes the leaderboard, which compacts
+     * every segment, or halts once its scores are on disk, leaving its segment for another process to compact.
+     * @param directory The directory of the run.
+     * @param process The index of the writer.
+     * @throws IOException If the segment of the writer could not be read.
+     * @throws InterruptedException If interrupted while pausing.
+     */
+    private void write(Path directory, int process) throws IOException, InterruptedException {
+        Properties scoreProps = getScoreProps(GAME_PROPS, directory);
+        Leaderboard leaderboard = new Leaderboard(scoreProps);
+        if (!leaderboard.isAvailable()) {
+            throw new IllegalStateException("Writer " + process + " could not load the score history");
+        }
+        for (int game = 0; game < SCORES_PER_PROCESS; game++) {
+            leaderboard.record("player" + process, getScore(process, game));
+            Thread.sleep(PAUSE_MILLIS);
+        }
+
+        if (process < PROCESSES - CRASHED_PROCESSES) {
+            leaderboard.close();
+            return;
+        }
+        // Scores still queued when a process crashes are lost by design, so this writer only halts once they are all
+        // on disk, and the totals of the run stay exact.
+        Path journal = Paths.get(scoreProps.getProperty("gameEnd.scoreJournalFile"));
+        String segmentPrefix = journal.getFileName() + "." + ProcessHandle.current().pid() + "-";
+        while (countOwnRecords(journal.getParent(), segmentPrefix) < SCORES_PER_PROCESS) {
+            Thread.sleep(POLL_MILLIS);
+        }
+        Runtime.getRuntime().halt(0);
+    }
+
+    /**
+     * Counts the complete records in the segments of this process.
+     * @param directory The directory of the journal.
+     * @param segmentPrefix The start of the file names of the segments of this process.
+     * @return The number of complete records.
+     * @throws IOException If a segment could not be read.
+     */
+    private static long countOwnRecords(Path directory, String segmentPrefix) throws IOException {
+        long[] records = {0};
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, segmentPrefix + "*")) {
+            for (Path segment : segments) {
+                new ScoreJournal(segment.toString()).replay(0, scoreEntry -> records[0]++);
+            }
+        }
+        return records[0];
+    }
+
+    /**
+     * Gets a score recorded by a writer. Every score is a multiple of a quarter, so every total is exact.
+     * @param process The index of the writer.
+     * @param game The index of the game of the writer.
+     * @return The score of the game.
+     */
+    private double getScore(int process, int game) {
+        return (process * SCORES_PER_PROCESS + game) * 0.25;
+    }
+
+    /**
+     * Copies the game properties with every score file moved into the directory of the run.
+     * @param gameProps The properties object containing game configuration values.
+     * @param directory The directory of the run.
+     * @return The properties object of the run.
+     */
+    private static Properties getScoreProps(Properties gameProps, Path directory) {
+        Properties scoreProps = new Properties();
+        scoreProps.putAll(gameProps);
+        for (String key : SCORE_FILE_KEYS) {
+            scoreProps.setProperty(key,
+                    directory.resolve(Paths.get(gameProps.getProperty(key)).getFileName()).toString());
+        }
+        return scoreProps;
+    }
+
+    /**
+     * Deletes the directory of the run and every score file in it.
+     * @param directory The directory of the run.
+     * @throws IOException If a file could not be deleted.
+     */
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Entry point for the score stress run. Run without arguments to start the run, or with the directory of the run
+     * and the index of a writer to run that writer.
+     * Exits with a non-zero exit code if the recovered games differed from the games recorded.
+     * @param args Command line arguments: nothing, or the directory of the run and the index of a writer.
+     * @throws IOException If the score files could not be read or written.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Properties game_props = IOUtils.readPropertiesFile("res/app.properties");
+        ScoreStressRunner runner = new ScoreStressRunner(game_props);
+        if (args.length == 2) {
+            runner.write(Paths.get(args[0]), Integer.parseInt(args[1]));
+        } else if (!runner.run()) {
+            System.exit(MISMATCH_EXIT_CODE);
+        }
+    }
+}
@@ -1,4 +1,3 @@
-import bagel.*;
 import java.util.Properties;
 
 /**
@@ -21,25 +20,37 @@ public abstract class Screen implements Drawable {
     /**
      * The background image to be drawn on the screen.
      */
-    protected Image BACKGROUND_IMAGE;
+    protected Sprite BACKGROUND_IMAGE;
 
     /**
      * The file path to the font used for rendering text.
      */
     protected final String FONT_PATH;
 
+    /**
+     * The width of the window.
+     */
+    protected final int WINDOW_WIDTH;
+
+    /**
+     * The height of the window.
+     */
+    protected final int WINDOW_HEIGHT;
+
     /**
      * Constructor for abstract Screen class.
      * @param gameProps The properties object containing game configuration values.
      * @param messageProps The properties object containing rendered text configuration values.
      * @param backgroundImage The background image to be drawn on the screen.
      */
-    public Screen(Properties gameProps, Properties messageProps, Image backgroundImage) {
+    public Screen(Properties gameProps, Properties messageProps, Sprite backgroundImage) {
         this.GAME_PROPS = gameProps;
         this.MESSAGE_PROPS = messageProps;
         this.BACKGROUND_IMAGE = backgroundImage;
 
         this.FONT_PATH = GAME_PROPS.getProperty("font");
+        this.WINDOW_WIDTH = Integer.parseInt(GAME_PROPS.getProperty("window.width"));
+        this.WINDOW_HEIGHT = Integer.parseInt(GAME_PROPS.getProperty("window.height"));
     }
 
     /**
@@ -47,6 +58,6 @@ public abstract class Screen implements Drawable {
      */
     @Override
     public void draw() {
-        BACKGROUND_IMAGE.draw(Window.getWidth() / 2.0, Window.getHeight() / 2.0);
+        BACKGROUND_IMAGE.draw(WINDOW_WIDTH / 2.0, WINDOW_HEIGHT / 2.0);
     }
 }
@@ -23,6 +23,11 @@ public class ShadowTaxi extends AbstractGame {
      */
     private final Properties MESSAGE_PROPS;
 
+    /**
+     * The leaderboard keeping track of the top scores, in which the final scores of players are recorded.
+     */
+    private final Leaderboard LEADERBOARD;
+
     /**
      * The current game state which determines which screen is displayed to the player.
      */
@@ -46,24 +51,46 @@ public class ShadowTaxi extends AbstractGame {
     /**
      * The screen that renders the game over screen which indicates win/loss and player's final score.
      */
-    private GameEndScreen gameEndScreen;
+    private final GameEndScreen GAME_END_SCREEN;
+
+    /**
+     * The tracker measuring how long frames take, including the frame in which a game ends.
+     */
+    private final FrameLatencyTracker FRAME_LATENCY;
+
+    /**
+     * The metrics in which frame, update and draw times and gameplay events are recorded.
+     */
+    private final GameMetrics METRICS;
+
+    /**
+     * The adapter through which the ongoing game reads the player's keyboard.
+     */
+    private final BagelGameInput GAME_INPUT;
 
     /**
      * Constructor for ShadowTaxi class, the main class of the game.
+     * @param leaderboard The leaderboard in which the final scores of players are recorded.
+     * @param metrics The metrics in which frame, update and draw times and gameplay events are recorded.
      * @param gameProps The properties object containing game configuration values.
      * @param messageProps The properties object containing text configuration values.
      */
-    public ShadowTaxi(Properties gameProps, Properties messageProps) {
+    public ShadowTaxi(Leaderboard leaderboard, GameMetrics metrics, Properties gameProps, Properties messageProps) {
         super(Integer.parseInt(gameProps.getProperty("window.width")),
                 Integer.parseInt(gameProps.getProperty("window.height")),
                 messageProps.getProperty("home.title"));
 
         this.GAME_PROPS = gameProps;
         this.MESSAGE_PROPS = messageProps;
+        this.LEADERBOARD = leaderboard;
+        this.METRICS = metrics;
 
         HOME_SCREEN = new HomeScreen(GAME_PROPS, MESSAGE_PROPS);
         PLAYER_INFO_SCREEN = new PlayerInfoScreen(GAME_PROPS, MESSAGE_PROPS);
-        ONGOING_GAME_SCREEN = new OngoingGameScreen(GAME_PROPS, MESSAGE_PROPS);
+        ONGOING_GAME_SCREEN = new OngoingGameScreen(METRICS, GAME_PROPS, MESSAGE_PROPS);
+        GAME_END_SCREEN = new GameEndScreen(LEADERBOARD, GAME_PROPS, MESSAGE_PROPS);
+        FRAME_LATENCY = new FrameLatencyTracker(METRICS);
+        GAME_INPUT = new BagelGameInput();
     }
 
     /**
@@ -72,6 +99,7 @@ public class ShadowTaxi extends AbstractGame {
      */
     @Override
     protected void update(Input input) {
+        FRAME_LATENCY.beginFrame();
         if (input.wasPressed(Keys.ESCAPE)) {
             Window.close();
         }
@@ -92,17 +120,22 @@ public class ShadowTaxi extends AbstractGame {
                 }
                 break;
             case GAME_ONGOING:
+                long drawStart = System.nanoTime();
                 ONGOING_GAME_SCREEN.draw();
-                ONGOING_GAME_SCREEN.update(input);
+                long updateStart = System.nanoTime();
+                GAME_INPUT.setInput(input);
+                ONGOING_GAME_SCREEN.update(GAME_INPUT);
+                METRICS.recordDraw(updateStart - drawStart);
+                METRICS.recordUpdate(System.nanoTime() - updateStart);
                 // Check if game over conditions were met.
                 if (ONGOING_GAME_SCREEN.canGameEnd()) {
                     currentGameState = GameState.GAME_END;
-                    gameEndScreen = new GameEndScreen(PLAYER_INFO_SCREEN.getPlayerName(),
-                            ONGOING_GAME_SCREEN.getTotalScore(), GAME_PROPS, MESSAGE_PROPS);
+                    GAME_END_SCREEN.show(PLAYER_INFO_SCREEN.getPlayerName(), ONGOING_GAME_SCREEN.getTotalScore());
+                    FRAME_LATENCY.markTransition();
                 }
                 break;
             case GAME_END:
-                gameEndScreen.draw();
+                GAME_END_SCREEN.draw();
                 break;
         }
         if (currentGameState == GameState.GAME_END && input.wasPressed(Keys.SPACE)) {
@@ -110,16 +143,29 @@ public class ShadowTaxi extends AbstractGame {
             currentGameState = GameState.HOME_SCREEN;
             ONGOING_GAME_SCREEN.resetGame();
         }
+        FRAME_LATENCY.endFrame();
     }
 
     /**
      * Main entry point for the ShadowTaxi game, initializes properties and runs the game logic.
+     * Scores still waiting to be written are written to the score journal once the game window is closed, and the
+     * journal is then compacted into the score snapshot. The metrics are exported periodically while the game runs,
+     * and one last time once the window is closed.
      * @param args Command line arguments (not used in this game).
      */
     public static void main(String[] args) {
         Properties game_props = IOUtils.readPropertiesFile("res/app.properties");
         Properties message_props = IOUtils.readPropertiesFile("res/message_en.properties");
-        ShadowTaxi game = new ShadowTaxi(game_props, message_props);
-        game.run();
+        Leaderboard leaderboard = new Leaderboard(game_props);
+        MetricsRegistry metricsRegistry = new MetricsRegistry();
+        GameMetrics metrics = new GameMetrics(metricsRegistry);
+        MetricsExporter metricsExporter = new MetricsExporter(metricsRegistry, game_props);
+        try {
+            ShadowTaxi game = new ShadowTaxi(leaderboard, metrics, game_props, message_props);
+            game.run();
+        } finally {
+            leaderboard.close();
+            metricsExporter.close();
+        }
     }
 }
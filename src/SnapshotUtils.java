@@ -0,0 +1,88 @@
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * This class contains the helper methods shared by everything that writes or reads a game snapshot.
+ * A game snapshot is a binary blob holding the whole state of an ongoing game (see OngoingGameScreen.saveSnapshot).
+ * Snapshot format: magic (int), version (int), then the state written by each object in turn, and finally a CRC32
+ * checksum (int) of everything before it. Every number is stored big-endian, booleans are stored as one byte each,
+ * and references to other objects are stored as their index in the list holding them, or -1 for null.
+ */
+public class SnapshotUtils {
+
+    /**
+     * The first 4 bytes of every game snapshot.
+     */
+    private static final int SNAPSHOT_MAGIC = 0x53545853;
+
+    /**
+     * The version of the game snapshot format written by this class.
+     */
+    private static final int SNAPSHOT_VERSION = 4;
+
+    /**
+     * Writes the magic and version that every game snapshot starts with.
+     * @param buffer The buffer to write to.
+     */
+    public static void putHeader(ByteBuffer buffer) {
+        buffer.putInt(SNAPSHOT_MAGIC);
+        buffer.putInt(SNAPSHOT_VERSION);
+    }
+
+    /**
+     * Writes the checksum of everything written to the buffer so far, which ends the snapshot.
+     * @param buffer The buffer to write to.
+     */
+    public static void putChecksum(ByteBuffer buffer) {
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) checksum.getValue());
+    }
+
+    /**
+     * Checks that a game snapshot is complete, undamaged and of a supported version.
+     * @param snapshot The game snapshot.
+     * @return A buffer over the state in the snapshot, positioned after the header.
+     * @throws IllegalArgumentException If the snapshot is truncated, damaged or of an unknown format.
+     */
+    public static ByteBuffer openSnapshot(byte[] snapshot) {
+        final int HEADER_BYTES = 2 * Integer.BYTES;
+        if (snapshot.length < HEADER_BYTES + Integer.BYTES) {
+            throw new IllegalArgumentException("Game snapshot is truncated");
+        }
+        int stateEnd = snapshot.length - Integer.BYTES;
+        ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+
+        CRC32 checksum = new CRC32();
+        checksum.update(snapshot, 0, stateEnd);
+        if ((int) checksum.getValue() != buffer.getInt(stateEnd)) {
+            throw new IllegalArgumentException("Game snapshot is damaged");
+        }
+        if (buffer.getInt() != SNAPSHOT_MAGIC) {
+            throw new IllegalArgumentException("Not a game snapshot");
+        }
+        if (buffer.getInt() != SNAPSHOT_VERSION) {
+            throw new IllegalArgumentException("Game snapshot is of an unsupported version");
+        }
+        buffer.limit(stateEnd);
+        return buffer;
+    }
+
+    /**
+     * Writes a boolean as a single byte.
+     * @param buffer The buffer to write to.
+     * @param value The boolean to be written.
+     */
+    public static void putBoolean(ByteBuffer buffer, boolean value) {
+        buffer.put((byte) (value ? 1 : 0));
+    }
+
+    /**
+     * Reads a boolean written by putBoolean.
+     * @param buffer The buffer to read from.
+     * @return The boolean that was written.
+     */
+    public static boolean getBoolean(ByteBuffer buffer) {
+        return buffer.get() != 0;
+    }
+}
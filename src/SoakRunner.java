@@ -0,0 +1,210 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Plays many consecutive games headlessly with the autopilot, starting each new game the way the game end screen does,
+ * to check that memory stays bounded over a long-running session such as a kiosk. After every game the heap is
+ * measured after a full garbage collection, and once the warmup games are over the live objects are counted by class,
+ * so that any growth at the end can be traced to the classes whose objects are being kept alive. The run fails, with a
+ * non-zero exit code, if the heap grew by more than the allowed amount after the warmup games.
+ * The games run headless (see Headless): no window or graphics context is created, and no image or font is loaded, so
+ * the run can be left unattended on a build server.
+ */
+public class SoakRunner {
+
+    /**
+     * The exit code when the heap grew by more than allowed.
+     */
+    private static final int HEAP_GROWTH_EXIT_CODE = 1;
+
+    /**
+     * The number of classes with the most growth shown in the report.
+     */
+    private static final int REPORTED_CLASSES = 15;
+
+    /**
+     * The pattern of a line in a class histogram: rank, number of instances, bytes, and class name.
+     */
+    private static final Pattern HISTOGRAM_LINE = Pattern.compile("^\\s*\\d+:\\s+(\\d+)\\s+(\\d+)\\s+(\\S+)");
+
+    /**
+     * The number of bytes in a kilobyte.
+     */
+    private static final double BYTES_PER_KILOBYTE = 1024.0;
+
+    /**
+     * The screen running the games.
+     */
+    private final OngoingGameScreen SCREEN;
+
+    /**
+     * The autopilot playing the games.
+     */
+    private final Autopilot AUTOPILOT;
+
+    /**
+     * The number of games played.
+     */
+    private final int GAMES;
+
+    /**
+     * The number of games played before the heap and live objects are first measured, while the JVM warms up.
+     */
+    private final int WARMUP_GAMES;
+
+    /**
+     * The most the heap may grow after the warmup games, in bytes.
+     */
+    private final long MAX_HEAP_GROWTH;
+
+    /**
+     * The heap used after each game, in bytes.
+     */
+    private final long[] HEAP_AFTER_GAME;
+
+    /**
+     * Constructor for the soak runner.
+     * Games are capped at the soak length (soak.maxFramesPerGame) instead of the normal game length.
+     * @param gameProps The properties object containing game configuration values.
+     * @param messageProps The properties object containing text configuration values.
+     */
+    public SoakRunner(Properties gameProps, Properties messageProps) {
+        Properties soakProps = new Properties();
+        soakProps.putAll(gameProps);
+        soakProps.setProperty("gamePlay.maxFrames", gameProps.getProperty("soak.maxFramesPerGame"));
+
+        this.SCREEN = new OngoingGameScreen(new GameMetrics(new MetricsRegistry()), soakProps, messageProps);
+        this.AUTOPILOT = new Autopilot(SCREEN, gameProps);
+        this.GAMES = Integer.parseInt(gameProps.getProperty("soak.games"));
+        this.WARMUP_GAMES = Integer.parseInt(gameProps.getProperty("soak.warmupGames"));
+        this.MAX_HEAP_GROWTH = Long.parseLong(gameProps.getProperty("soak.maxHeapGrowth"));
+        this.HEAP_AFTER_GAME = new long[GAMES];
+    }
+
+    /**
+     * Plays all games, measuring the heap after each one, then prints how the heap and the live objects grew.
+     * @return True if the heap grew by no more than allowed after the warmup games, false otherwise.
+     */
+    public boolean run() {
+        if (WARMUP_GAMES < 1 || WARMUP_GAMES >= GAMES) {
+            throw new IllegalArgumentException("soak.warmupGames must be at least 1 and less than soak.games");
+        }
+        Map<String, long[]> baselineHistogram = null;
+        for (int game = 0; game < GAMES; game++) {
+            playGame();
+            SCREEN.resetGame();
+            if (game == WARMUP_GAMES - 1) {
+                // The final histogram is taken while the baseline is still held, so the baseline is taken while an
+                // equally large histogram is held too, and the two cancel out.
+                Map<String, long[]> heldHistogram = takeClassHistogram();
+                baselineHistogram = takeClassHistogram();
+                heldHistogram.clear();
+            }
+            HEAP_AFTER_GAME[game] = getHeapUsedAfterGc();
+            if ((game + 1) % Math.max(1, GAMES / 10) == 0) {
+                System.out.printf("Game %d: %.1f KB of heap used%n", game + 1,
+                        HEAP_AFTER_GAME[game] / BYTES_PER_KILOBYTE);
+            }
+        }
+
+        long heapGrowth = HEAP_AFTER_GAME[GAMES - 1] - HEAP_AFTER_GAME[WARMUP_GAMES - 1];
+        printClassGrowth(baselineHistogram, takeClassHistogram());
+        boolean isBounded = heapGrowth <= MAX_HEAP_GROWTH;
+        System.out.printf("Heap growth after game %d: %.1f KB (allowed %.1f KB, %s)%n", WARMUP_GAMES,
+                heapGrowth / BYTES_PER_KILOBYTE, MAX_HEAP_GROWTH / BYTES_PER_KILOBYTE,
+                isBounded ? "passed" : "exceeded");
+        return isBounded;
+    }
+
+    /**
+     * Plays the current game until it ends.
+     */
+    private void playGame() {
+        while (!SCREEN.canGameEnd()) {
+            SCREEN.draw();
+            AUTOPILOT.update();
+            SCREEN.update(AUTOPILOT);
+        }
+    }
+
+    /**
+     * Collects all garbage, then measures the heap still in use.
+     * @return The heap used by live objects, in bytes.
+     */
+    private static long getHeapUsedAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Counts the live objects of every class, using the JVM's class histogram (which collects all garbage first).
+     * @return The number of instances and bytes of live objects, by class name.
+     * @throws IllegalStateException If the JVM cannot produce a class histogram.
+     */
+    private static Map<String, long[]> takeClassHistogram() {
+        String histogram;
+        try {
+            histogram = (String) ManagementFactory.getPlatformMBeanServer().invoke(
+                    new ObjectName("com.sun.management:type=DiagnosticCommand"), "gcClassHistogram",
+                    new Object[] {null}, new String[] {String[].class.getName()});
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not take a class histogram", e);
+        }
+
+        Map<String, long[]> counts = new HashMap<>();
+        for (String line : histogram.split("\n")) {
+            Matcher matcher = HISTOGRAM_LINE.matcher(line);
+            if (matcher.find()) {
+                counts.put(matcher.group(3), new long[] {Long.parseLong(matcher.group(1)),
+                        Long.parseLong(matcher.group(2))});
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Prints the classes whose live objects grew the most in bytes between two class histograms.
+     * @param before The class histogram taken after the warmup games.
+     * @param after The class histogram taken after the last game.
+     */
+    private static void printClassGrowth(Map<String, long[]> before, Map<String, long[]> after) {
+        ArrayList<Map.Entry<String, long[]>> growth = new ArrayList<>();
+        for (Map.Entry<String, long[]> entry : after.entrySet()) {
+            long[] previous = before.getOrDefault(entry.getKey(), new long[2]);
+            long[] difference = {entry.getValue()[0] - previous[0], entry.getValue()[1] - previous[1]};
+            if (difference[1] > 0) {
+                growth.add(Map.entry(entry.getKey(), difference));
+            }
+        }
+        growth.sort((first, second) -> Long.compare(second.getValue()[1], first.getValue()[1]));
+
+        System.out.println("Live objects grown the most since the warmup games:");
+        for (int i = 0; i < Math.min(REPORTED_CLASSES, growth.size()); i++) {
+            Map.Entry<String, long[]> entry = growth.get(i);
+            System.out.printf("  %+10d instances %+12d bytes  %s%n", entry.getValue()[0], entry.getValue()[1],
+                    entry.getKey());
+        }
+    }
+
+    /**
+     * Entry point for the soak run, in which the autopilot plays every game without a window.
+     * Exits with a non-zero exit code if the heap grew by more than allowed.
+     * @param args Command line arguments (not used).
+     */
+    public static void main(String[] args) {
+        Headless.enable();
+        Properties game_props = IOUtils.readPropertiesFile("res/app.properties");
+        Properties message_props = IOUtils.readPropertiesFile("res/message_en.properties");
+        SoakRunner runner = new SoakRunner(game_props, message_props);
+        if (!runner.run()) {
+            System.exit(HEAP_GROWTH_EXIT_CODE);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Spawns something at random times at a set spawn rate, using a timer on the timing wheel.
+ * A spawn rate r means that a spawn happens on any frame with a chance of (1000 / r) / 1000 (integer division first),
+ * the same chance as rolling a number between 1 and 1000 every frame and spawning when it is divisible by r.
+ * Instead of rolling every frame, the number of frames until the next spawn is drawn once per spawn from the
+ * geometric distribution with that chance, which gives the same spawn statistics with one random number per spawn.
+ * The spawn rate can change at any time: as the geometric distribution is memoryless, drawing the frames until the next
+ * spawn again at the new rate gives exactly the spawn statistics of the new rate from then on.
+ */
+public class SpawnSchedule {
+
+    /**
+     * The range of the number rolled every frame that the spawn rate is defined against.
+     */
+    private static final int ROLL_RANGE = 1000;
+
+    /**
+     * The timing wheel on which the spawn timer is scheduled.
+     */
+    private final TimingWheel TIMING_WHEEL;
+
+    /**
+     * The timer that runs the next spawn.
+     */
+    private final WheelTimer SPAWN_TIMER;
+
+    /**
+     * The chance of a spawn on any single frame.
+     */
+    private double spawnProbability;
+
+    /**
+     * The natural logarithm of the chance of no spawn on a single frame, used to draw the frames until the next spawn.
+     */
+    private double logNoSpawnProbability;
+
+    /**
+     * Constructor for spawn schedule. Nothing spawns until the spawn rate is set.
+     * @param timingWheel The timing wheel on which the spawn timer is scheduled.
+     * @param spawn The callback that performs a spawn.
+     */
+    public SpawnSchedule(TimingWheel timingWheel, Runnable spawn) {
+        this.TIMING_WHEEL = timingWheel;
+        this.SPAWN_TIMER = new WheelTimer(() -> {
+            scheduleNextSpawn();
+            spawn.run();
+        });
+        this.spawnProbability = 0;
+    }
+
+    /**
+     * Sets the spawn rate and schedules the next spawn at that rate, unless the rate is unchanged.
+     * @param spawnRate The spawn rate, must be at least 1. Rates above 1000 never spawn.
+     */
+    public void setSpawnRate(int spawnRate) {
+        double probability = getSpawnProbability(spawnRate);
+        if (probability == spawnProbability && SPAWN_TIMER.isPending()) {
+            return;
+        }
+        spawnProbability = probability;
+        logNoSpawnProbability = Math.log(1 - probability);
+        TIMING_WHEEL.cancel(SPAWN_TIMER);
+        scheduleNextSpawn();
+    }
+
+    /**
+     * Gets the chance of a spawn on any single frame at a spawn rate.
+     * @param spawnRate The spawn rate, must be at least 1.
+     * @return The chance of a spawn on a single frame.
+     */
+    public static double getSpawnProbability(int spawnRate) {
+        if (spawnRate < 1) {
+            throw new IllegalArgumentException("Spawn rate must be at least 1, got " + spawnRate);
+        }
+        return (double) (ROLL_RANGE / spawnRate) / ROLL_RANGE;
+    }
+
+    /**
+     * Draws the number of frames until the next spawn, counting the frame of the spawn itself.
+     * Frame k is the first with a spawn with chance (1 - p)^(k - 1) * p, which is sampled by inverting its
+     * cumulative distribution.
+     * @return The number of frames until the next spawn, at least 1.
+     */
+    public int sampleFramesUntilSpawn() {
+        double frames = Math.floor(Math.log(1 - MiscUtils.getRandomDouble()) / logNoSpawnProbability);
+        return 1 + (int) Math.min(frames, Integer.MAX_VALUE - 1);
+    }
+
+    /**
+     * Stops spawning, for when the owner of the schedule is removed from the game.
+     */
+    public void stop() {
+        TIMING_WHEEL.cancel(SPAWN_TIMER);
+    }
+
+    /**
+     * Writes the state of the spawn schedule to a game snapshot.
+     * @param buffer The buffer to write to.
+     */
+    public void writeState(ByteBuffer buffer) {
+        TIMING_WHEEL.writeTimer(buffer, SPAWN_TIMER);
+    }
+
+    /**
+     * Restores the state of the spawn schedule from a game snapshot, rescheduling the next spawn.
+     * @param buffer The buffer to read from.
+     */
+    public void readState(ByteBuffer buffer) {
+        TIMING_WHEEL.readTimer(buffer, SPAWN_TIMER);
+    }
+
+    /**
+     * Schedules the next spawn, unless the spawn rate is too high to ever spawn.
+     */
+    private void scheduleNextSpawn() {
+        if (spawnProbability > 0) {
+            TIMING_WHEEL.schedule(SPAWN_TIMER, sampleFramesUntilSpawn());
+        }
+    }
+}
@@ -0,0 +1,289 @@
+import java.util.Properties;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Checks that spawning from geometric inter-arrival times (see SpawnSchedule) gives the same spawn statistics as the
+ * per-frame roll it replaced, which rolled a number between 1 and 1000 every frame and spawned when it was divisible by
+ * the spawn rate.
+ * Every spawn rate in the traffic files of the game properties, plus a few edge cases, is checked three ways:
+ * - the gaps between spawns drawn by SpawnSchedule are compared with the gaps of a simulated per-frame roll using a
+ *   two-sample chi-square test, at a 0.1% significance level, so the chance of any false failure stays small even
+ *   with every rate of every traffic file checked
+ * - the mean gap of both must be within four standard errors of the expected mean gap
+ * - a spawn schedule ticked on a timing wheel must spawn within four standard errors of the expected number of times
+ * The random number generators are seeded again for every rate, so every run draws the same numbers, and adding a
+ * traffic file does not change the numbers drawn for the other rates. The run fails, with a non-zero exit code, if any
+ * check fails.
+ */
+public class SpawnScheduleCheck {
+
+    /**
+     * The exit code when the spawn statistics differed from those of the per-frame roll.
+     */
+    private static final int MISMATCH_EXIT_CODE = 1;
+
+    /**
+     * Spawn rates that are not in the traffic files but are checked anyway: a spawn every frame, a spawn every other
+     * frame, a rate that does not divide 1000, the lowest chance that still spawns, and a rate that never spawns.
+     */
+    private static final int[] EXTRA_RATES = {1, 2, 7, 999, 1001};
+
+    /**
+     * The range of the number rolled every frame by the per-frame roll.
+     */
+    private static final int ROLL_RANGE = 1000;
+
+    /**
+     * The number of gaps between spawns drawn for each spawn rate, by each method.
+     */
+    private static final int GAPS = 200_000;
+
+    /**
+     * The number of bins the gaps are sorted into for the chi-square test, each with the same expected share of gaps.
+     */
+    private static final int BINS = 40;
+
+    /**
+     * The number of frames a spawn schedule is ticked for on a timing wheel.
+     */
+    private static final int TICKED_FRAMES = 10_000_000;
+
+    /**
+     * The most standard errors the mean gap and the number of spawns per frame may differ from what is expected.
+     */
+    private static final double STANDARD_ERRORS = 4;
+
+    /**
+     * The value of the standard normal distribution exceeded with a chance of 0.1%, for the chi-square critical value.
+     */
+    private static final double NORMAL_CRITICAL = 3.0902;
+
+    /**
+     * The seed of the random number generators.
+     */
+    private static final long SEED = 1;
+
+    /**
+     * The spawn rates checked, in increasing order.
+     */
+    private final TreeSet<Integer> RATES;
+
+    /**
+     * Constructor for the spawn schedule check.
+     * @param gameProps The properties object containing game configuration values, from which every traffic file is
+     *                  read.
+     */
+    public SpawnScheduleCheck(Properties gameProps) {
+        this.RATES = new TreeSet<>();
+        for (String key : gameProps.stringPropertyNames()) {
+            if (key.endsWith("trafficFile")) {
+                // Every row is: start frame, end frame, other car, enemy car and fireball spawn rates.
+                for (String[] row : IOUtils.readCommaSeparatedFile(gameProps.getProperty(key))) {
+                    for (int column = 2; column <= 4; column++) {
+                        RATES.add(Integer.parseInt(row[column]));
+                    }
+                }
+            }
+        }
+        for (int rate : EXTRA_RATES) {
+            RATES.add(rate);
+        }
+    }
+
+    /**
+     * Checks the spawn statistics of every spawn rate.
+     * @return True if every check passed, false otherwise.
+     */
+    public boolean run() {
+        boolean isSame = true;
+        System.out.println("Rate   Chance   Mean gap (expected, schedule, roll)   Chi-square (critical)   "
+                + "Spawns per frame");
+        for (int rate : RATES) {
+            double probability = SpawnSchedule.getSpawnProbability(rate);
+            double oldProbability = getRollProbability(rate);
+            if (probability != oldProbability) {
+                System.out.printf("%4d   chance %.4f differs from the roll's %.4f%n", rate, probability,
+                        oldProbability);
+                isSame = false;
+                continue;
+            }
+            MiscUtils.setRandomSeed(SEED + rate);
+            Random rollRandom = new Random(SEED + rate);
+            double spawnsPerFrame = countSpawnsPerFrame(rate);
+            if (probability == 0) {
+                boolean isNeverSpawned = spawnsPerFrame == 0;
+                System.out.printf("%4d   %.4f   never spawns (%s)%n", rate, probability,
+                        isNeverSpawned ? "passed" : "failed");
+                isSame &= isNeverSpawned;
+                continue;
+            }
+
+            SpawnSchedule schedule = new SpawnSchedule(new TimingWheel(), () -> { });
+            schedule.setSpawnRate(rate);
+            long[] scheduleGaps = new long[GAPS];
+            long[] rollGaps = new long[GAPS];
+            for (int i = 0; i < GAPS; i++) {
+                scheduleGaps[i] = schedule.sampleFramesUntilSpawn();
+                rollGaps[i] = rollFramesUntilSpawn(rate, rollRandom);
+            }
+            schedule.stop();
+
+            double expectedMean = 1 / probability;
+            double meanError = Math.sqrt(1 - probability) / probability / Math.sqrt(GAPS);
+            double spawnsError = Math.sqrt(probability * (1 - probability) / TICKED_FRAMES);
+            double scheduleMean = getMean(scheduleGaps);
+            double rollMean = getMean(rollGaps);
+            int[] degreesOfFreedom = new int[1];
+            double chiSquare = getChiSquare(scheduleGaps, rollGaps, probability, degreesOfFreedom);
+            double critical = getChiSquareCritical(degreesOfFreedom[0]);
+
+            boolean isPassed = isClose(scheduleMean, expectedMean, meanError)
+                    && isClose(rollMean, expectedMean, meanError) && chiSquare <= critical
+                    && isClose(spawnsPerFrame, probability, spawnsError);
+            System.out.printf("%4d   %.4f   %9.2f %9.2f %9.2f           %7.1f (%6.1f)        %.5f (%s)%n", rate,
+                    probability, expectedMean, scheduleMean, rollMean, chiSquare, critical, spawnsPerFrame,
+                    isPassed ? "passed" : "failed");
+            isSame &= isPassed;
+        }
+        System.out.printf("Spawn schedule check: %s%n", isSame ? "passed" : "failed");
+        return isSame;
+    }
+
+    /**
+     * Gets the chance of a spawn on a single frame with the per-frame roll, by counting the rolls that spawn.
+     * @param rate The spawn rate.
+     * @return The chance of a spawn on a single frame.
+     */
+    private static double getRollProbability(int rate) {
+        int spawningRolls = 0;
+        for (int roll = 1; roll <= ROLL_RANGE; roll++) {
+            if (roll % rate == 0) {
+                spawningRolls++;
+            }
+        }
+        return (double) spawningRolls / ROLL_RANGE;
+    }
+
+    /**
+     * Counts the frames until the next spawn with the per-frame roll, counting the frame of the spawn itself.
+     * @param rate The spawn rate.
+     * @param random The random number generator rolling every frame.
+     * @return The number of frames until the next spawn.
+     */
+    private static long rollFramesUntilSpawn(int rate, Random random) {
+        long frames = 1;
+        while ((random.nextInt(ROLL_RANGE) + 1) % rate != 0) {
+            frames++;
+        }
+        return frames;
+    }
+
+    /**
+     * Ticks a spawn schedule on a timing wheel for many frames and counts its spawns.
+     * @param rate The spawn rate.
+     * @return The number of spawns per frame.
+     */
+    private static double countSpawnsPerFrame(int rate) {
+        TimingWheel timingWheel = new TimingWheel();
+        long[] spawns = {0};
+        SpawnSchedule schedule = new SpawnSchedule(timingWheel, () -> spawns[0]++);
+        schedule.setSpawnRate(rate);
+        for (int frame = 0; frame < TICKED_FRAMES; frame++) {
+            timingWheel.tick();
+        }
+        schedule.stop();
+        return (double) spawns[0] / TICKED_FRAMES;
+    }
+
+    /**
+     * Calculates the two-sample chi-square statistic of two equally large samples of gaps.
+     * Each gap is sorted into the bin of its cumulative probability under the geometric distribution, so every bin
+     * expects about the same share of gaps. Bins empty in both samples (which happens when only a few gaps are
+     * possible, such as with a spawn every frame) are left out.
+     * @param first The first sample of gaps.
+     * @param second The second sample of gaps, as large as the first.
+     * @param probability The chance of a spawn on a single frame.
+     * @param degreesOfFreedom Set to the degrees of freedom of the statistic.
+     * @return The chi-square statistic.
+     */
+    private static double getChiSquare(long[] first, long[] second, double probability, int[] degreesOfFreedom) {
+        long[] firstCounts = new long[BINS];
+        long[] secondCounts = new long[BINS];
+        for (int i = 0; i < first.length; i++) {
+            firstCounts[getBin(first[i], probability)]++;
+            secondCounts[getBin(second[i], probability)]++;
+        }
+
+        double chiSquare = 0;
+        int usedBins = 0;
+        for (int bin = 0; bin < BINS; bin++) {
+            long total = firstCounts[bin] + secondCounts[bin];
+            if (total > 0) {
+                double difference = firstCounts[bin] - secondCounts[bin];
+                chiSquare += difference * difference / total;
+                usedBins++;
+            }
+        }
+        degreesOfFreedom[0] = Math.max(1, usedBins - 1);
+        return chiSquare;
+    }
+
+    /**
+     * Gets the bin of a gap for the chi-square test.
+     * @param gap The number of frames until a spawn.
+     * @param probability The chance of a spawn on a single frame.
+     * @return The bin, from 0 to BINS - 1.
+     */
+    private static int getBin(long gap, double probability) {
+        double cumulativeProbability = 1 - Math.pow(1 - probability, gap);
+        return (int) Math.min(BINS - 1, Math.floor(cumulativeProbability * BINS));
+    }
+
+    /**
+     * Approximates the value of the chi-square distribution exceeded with a chance of 0.1%, using the Wilson-Hilferty
+     * transformation, which is accurate to within a few percent for the degrees of freedom used here.
+     * @param degreesOfFreedom The degrees of freedom.
+     * @return The critical value.
+     */
+    private static double getChiSquareCritical(int degreesOfFreedom) {
+        double scale = 2.0 / (9 * degreesOfFreedom);
+        return degreesOfFreedom * Math.pow(1 - scale + NORMAL_CRITICAL * Math.sqrt(scale), 3);
+    }
+
+    /**
+     * Calculates the mean of a sample of gaps.
+     * @param gaps The sample of gaps.
+     * @return The mean gap.
+     */
+    private static double getMean(long[] gaps) {
+        double sum = 0;
+        for (long gap : gaps) {
+            sum += gap;
+        }
+        return sum / gaps.length;
+    }
+
+    /**
+     * Checks if a measured value is within a few standard errors of the expected value.
+     * @param measured The measured value.
+     * @param expected The expected value.
+     * @param standardError The standard error of the measured value.
+     * @return True if the values are close enough, false otherwise.
+     */
+    private static boolean isClose(double measured, double expected, double standardError) {
+        return Math.abs(measured - expected) <= STANDARD_ERRORS * standardError;
+    }
+
+    /**
+     * Entry point for the spawn schedule check.
+     * Exits with a non-zero exit code if the spawn statistics differed from those of the per-frame roll.
+     * @param args Command line arguments (not used).
+     */
+    public static void main(String[] args) {
+        Properties game_props = IOUtils.readPropertiesFile("res/app.properties");
+        if (!new SpawnScheduleCheck(game_props).run()) {
+            System.exit(MISMATCH_EXIT_CODE);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+import bagel.Image;
+
+/**
+ * Class representing an image that can be drawn on the screen.
+ * Sprites are obtained from the sprite cache, so entities that share an image also share its texture.
+ * When the game runs headless (see Headless), a sprite has no image and drawing it does nothing.
+ */
+public class Sprite {
+
+    /**
+     * The image of the sprite, or null if the game runs headless.
+     */
+    private final Image IMAGE;
+
+    /**
+     * Constructor for a sprite.
+     * @param image The image of the sprite, or null if the game runs headless.
+     */
+    public Sprite(Image image) {
+        this.IMAGE = image;
+    }
+
+    /**
+     * Draws the sprite centred on the given position.
+     * @param x The X-coordinate of the centre of the sprite.
+     * @param y The Y-coordinate of the centre of the sprite.
+     */
+    public void draw(double x, double y) {
+        if (IMAGE != null) {
+            IMAGE.draw(x, y);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+import bagel.Image;
+import java.util.HashMap;
+
+/**
+ * Provides the sprite of every image file used in the game.
+ * Every image is only loaded once, no matter how many entities use it. When the game runs headless (see Headless), no
+ * image is loaded at all.
+ */
+public class SpriteCache {
+
+    /**
+     * The sprites created so far, by image file path.
+     */
+    private static final HashMap<String, Sprite> SPRITES = new HashMap<>();
+
+    /**
+     * Gets the sprite of an image file, loading the image the first time it is asked for.
+     * @param imagePath The file path of the image (e.g. res/taxi.png).
+     * @return The sprite drawing the image.
+     */
+    public static Sprite getSprite(String imagePath) {
+        Sprite sprite = SPRITES.get(imagePath);
+        if (sprite == null) {
+            sprite = new Sprite(Headless.isEnabled() ? null : new Image(imagePath));
+            SPRITES.put(imagePath, sprite);
+        }
+        return sprite;
+    }
+}
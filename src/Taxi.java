@@ -1,30 +1,22 @@
+import java.nio.ByteBuffer;
 import java.util.Properties;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
 import bagel.*;
-import bagel.Image;
 
 /**
  * Class for the taxi entity in the game.
  */
 public class Taxi extends Entity implements Damageable {
-    /**
-     * The font path used for displaying taxi health information.
-     */
-    private final String FONT_PATH;
-
-    /**
-     * The font size used for displaying taxi health information.
-     */
-    private final int FONT_SIZE;
-
     /**
      * The horizontal speed of taxi.
      */
     private final int SPEED_X;
 
     /**
-     * The text used to render taxi's health on screen.
+     * The label used to render taxi's health on screen.
      */
-    private final String TAXI_TEXT;
+    private final HudLabel TAXI_HEALTH_LABEL;
 
     /**
      * The X-coordinate for displaying the taxi health information text.
@@ -39,7 +31,7 @@ public class Taxi extends Entity implements Damageable {
     /**
      * The image of the taxi when it is broken.
      */
-    private final Image DAMAGED_IMAGE;
+    private final Sprite DAMAGED_IMAGE;
 
     /**
      * The maximum (initial) health of the taxi.
@@ -87,14 +79,10 @@ public class Taxi extends Entity implements Damageable {
     private double currentHealth;
 
     /**
-     * The number of frames remaining to separate the taxi from another damageable object post-collision.
+     * The collision timeout of the taxi, used to separate it from another damageable object post-collision and to
+     * prevent further collisions for a while.
      */
-    private int initialCollisionTimeoutFramesRemaining;
-
-    /**
-     * The number of frames remaining before the taxi can collide with another damageable object after any collision.
-     */
-    private int collisionTimeoutFramesRemaining;
+    private final CollisionTimeout COLLISION_TIMEOUT;
 
     /**
      * The car that is currently colliding with the taxi.
@@ -107,28 +95,30 @@ public class Taxi extends Entity implements Damageable {
      * @param y The Y-coordinate of the taxi.
      * @param gameplay The instance that controls the entire gameplay logic.
      * @param powerUpState The instance which tracks all the currently active power-ups.
+     * @param timingWheel The timing wheel on which the taxi's collision timeout timers are scheduled.
      * @param gameProps The properties object containing game configuration values.
      * @param messageProps The properties object containing rendered text configuration values.
      */
-    public Taxi(int x, int y, Gameplay gameplay, PowerUpState powerUpState, Properties gameProps, Properties messageProps) {
+    public Taxi(int x, int y, Gameplay gameplay, PowerUpState powerUpState, TimingWheel timingWheel,
+                Properties gameProps, Properties messageProps) {
         super(x, y, gameProps, "gameObjects.taxi.image", "gameObjects.taxi.radius");
         this.isTaxiMoved = false;
         this.hasDriver = false;
         this.currentPassenger = null;
         this.GAMEPLAY = gameplay;
         this.POWER_UP_STATE = powerUpState;
+        this.COLLISION_TIMEOUT = new CollisionTimeout(timingWheel);
 
         SPEED_X = Integer.parseInt(gameProps.getProperty("gameObjects.taxi.speedX"));
 
-        FONT_SIZE = Integer.parseInt(gameProps.getProperty("gamePlay.info.fontSize"));
-        FONT_PATH = gameProps.getProperty("font");
-
-        TAXI_TEXT = messageProps.getProperty("gamePlay.taxiHealth");
+        GameFont font = new GameFont(gameProps.getProperty("font"),
+                Integer.parseInt(gameProps.getProperty("gamePlay.info.fontSize")));
+        TAXI_HEALTH_LABEL = new HudLabel(font, messageProps.getProperty("gamePlay.taxiHealth"), null);
         TAXI_TEXT_X = Integer.parseInt(gameProps.getProperty("gamePlay.taxiHealth.x"));
         TAXI_TEXT_Y = Integer.parseInt(gameProps.getProperty("gamePlay.taxiHealth.y"));
 
         int PROPS_TO_GAME_MULTIPLIER = 100; // The game properties stores health and damage as (value / 100).
-        DAMAGED_IMAGE = new Image(gameProps.getProperty("gameObjects.taxi.damagedImage"));
+        DAMAGED_IMAGE = SpriteCache.getSprite(gameProps.getProperty("gameObjects.taxi.damagedImage"));
         HEALTH = Double.parseDouble(gameProps.getProperty("gameObjects.taxi.health")) * PROPS_TO_GAME_MULTIPLIER;
         DAMAGE = Double.parseDouble(gameProps.getProperty("gameObjects.taxi.damage")) * PROPS_TO_GAME_MULTIPLIER;
 
@@ -149,17 +139,13 @@ public class Taxi extends Entity implements Damageable {
     }
 
     /**
-     * Reduces the collision timeout frames remaining if it is still active.
-     * This function is called once every frame.
+     * Checks if this object still refers to another object it collided with, which it does until it lets go of it.
+     * @param other The other object.
+     * @return True if this object still refers to the other object, false otherwise.
      */
     @Override
-    public void updateCollisionTimeoutFramesRemaining() {
-        if (initialCollisionTimeoutFramesRemaining > 0) {
-            initialCollisionTimeoutFramesRemaining--;
-        }
-        if (collisionTimeoutFramesRemaining > 0) {
-            collisionTimeoutFramesRemaining--;
-        }
+    public boolean isStillCollidedWith(Damageable other) {
+        return collidingCar == other;
     }
 
     /**
@@ -169,7 +155,7 @@ public class Taxi extends Entity implements Damageable {
      */
     @Override
     public void separateFromObject(Damageable other) {
-        if (initialCollisionTimeoutFramesRemaining > 0 && initialCollisionTimeoutFramesRemaining <= 10) {
+        if (COLLISION_TIMEOUT.isSeparating()) {
             int otherY = other.getY();
             int thisY = this.getY();
 
@@ -193,17 +179,15 @@ public class Taxi extends Entity implements Damageable {
     @Override
     public boolean handleCollision(Car other) {
         if (other.getCurrentHealth() > 0) {
-            double distance = getDistanceTo(other.getX(), other.getY());
-            double collisionRange = this.getRadius() + other.getRadius();
-            if (collisionTimeoutFramesRemaining == 0 && distance < collisionRange) {
+            if (!COLLISION_TIMEOUT.isActive() && GeometryUtils.isStrictlyWithinRange(getX(), getY(),
+                    other.getX(), other.getY(), this.getRadius() + other.getRadius())) {
                 collidingCar = other;
                 other.receiveCollision(this); // Other entity always receives damage regardless of active power-up.
                 if (POWER_UP_STATE.isInvincibleActivated() && hasDriver) {
                     // Invincible power is active, so a collision has not happened.
                     return false;
                 }
-                collisionTimeoutFramesRemaining = COLLISION_TIMEOUT_FRAMES_TOTAL;
-                initialCollisionTimeoutFramesRemaining = COLLISION_TIMEOUT_FRAMES_INITIAL;
+                COLLISION_TIMEOUT.start(COLLISION_TIMEOUT_FRAMES_INITIAL, COLLISION_TIMEOUT_FRAMES_TOTAL);
                 this.receiveDamage(other.getDamage());
                 return true;
             }
@@ -212,20 +196,20 @@ public class Taxi extends Entity implements Damageable {
     }
 
     /**
-     * Update the collision timeout frames remaining if it is currently in collision timeout.
      * Calls another method to continue separation of object from collided object if still in initial timeout.
-     * If not currently in collision timeout, then moves the object in y direction according to its fixed speed.
      * Renders the object where necessary.
      * Moves the taxi according to player's mouse/keyboard input.
      * Renders the health of taxi on top right of screen.
      * @param input The current mouse/keyboard input.
      */
     @Override
-    public void update(Input input) {
+    public void update(GameInput input) {
         draw();
         checkIsCurrentPassengerDroppedOff();
-        updateCollisionTimeoutFramesRemaining();
         separateFromObject(collidingCar);
+        if (!COLLISION_TIMEOUT.isSeparating()) {
+            collidingCar = null; // Let go of the other object once separated, so it can be removed from the game.
+        }
         isTaxiMoved = false;
 
         if (hasDriver) {
@@ -279,8 +263,7 @@ public class Taxi extends Entity implements Damageable {
     }
 
     private void renderHealth() {
-        Font font = new Font(FONT_PATH, FONT_SIZE);
-        font.drawString( TAXI_TEXT + currentHealth, TAXI_TEXT_X, TAXI_TEXT_Y);
+        TAXI_HEALTH_LABEL.draw(currentHealth, TAXI_TEXT_X, TAXI_TEXT_Y);
     }
 
     /**
@@ -311,7 +294,7 @@ public class Taxi extends Entity implements Damageable {
      */
     public void dropOffPassenger(TripEndFlag flag) {
         if (currentPassenger != null) {
-            if (getY() <= flag.getY() || getDistanceTo(flag.getX(), flag.getY()) <= flag.getRadius()) {
+            if (getY() <= flag.getY() || flag.isWithinRadius(getX(), getY())) {
                 if (!currentPassenger.isMovingToFlag()) {
                     // Only need to initiate drop off, the rest of movement is handled by another function
                     currentPassenger.dropOff(flag);
@@ -326,8 +309,8 @@ public class Taxi extends Entity implements Damageable {
      * @return True if taxi has indeed collided with (can pick up) a power-up, false otherwise.
      */
     public boolean collidedWith(PowerUp powerUp) {
-        double collisionRange = RADIUS + powerUp.getRadius();
-        return getDistanceTo(powerUp.getX(), powerUp.getY()) <= collisionRange;
+        return GeometryUtils.isWithinRange(getX(), getY(), powerUp.getX(), powerUp.getY(),
+                RADIUS + powerUp.getRadius());
     }
 
     /**
@@ -336,7 +319,8 @@ public class Taxi extends Entity implements Damageable {
      * @return True if taxi is adjacent to passenger (and thus can pick up), false otherwise.
      */
     public boolean isAdjacentToPassenger(Passenger passenger) {
-        return getDistanceTo(passenger.getX(), passenger.getY()) <= passenger.getDetectRadius();
+        return GeometryUtils.isWithinSquaredRange(getX(), getY(), passenger.getX(), passenger.getY(),
+                passenger.getSquaredDetectRadius());
     }
 
     /**
@@ -345,18 +329,8 @@ public class Taxi extends Entity implements Damageable {
      * @return True if taxi is adjacent to the driver (and thus driver can enter taxi), false otherwise.
      */
     public boolean isAdjacentToDriver(Driver driver) {
-        return getDistanceTo(driver.getX(), driver.getY()) <= driver.getTaxiGetInRadius();
-    }
-
-    /**
-     * Calculates the Euclidean distance of this taxi and another object.
-     * @param otherX The x-coordinate of the other object.
-     * @param otherY The y-coordinate of the other object.
-     * @return The Euclidean distance between this taxi and the other object.
-     */
-    @Override
-    public double getDistanceTo(double otherX, double otherY) {
-        return Math.sqrt(Math.pow((otherX - getX()), 2) + Math.pow((otherY - getY()), 2));
+        return GeometryUtils.isWithinSquaredRange(getX(), getY(), driver.getX(), driver.getY(),
+                driver.getSquaredTaxiGetInRadius());
     }
 
     /**
@@ -463,4 +437,37 @@ public class Taxi extends Entity implements Damageable {
         currentPassenger = passenger;
     }
 
+    /**
+     * Writes the state of the taxi to a game snapshot.
+     * @param buffer The buffer to write to.
+     * @param carIndices Gives the index of a car in the snapshot, or -1 for null.
+     * @param passengerIndices Gives the index of a passenger in the snapshot, or -1 for null.
+     */
+    public void writeState(ByteBuffer buffer, ToIntFunction<Car> carIndices,
+                           ToIntFunction<Passenger> passengerIndices) {
+        writePosition(buffer);
+        SnapshotUtils.putBoolean(buffer, isTaxiMoved);
+        SnapshotUtils.putBoolean(buffer, hasDriver);
+        buffer.putInt(passengerIndices.applyAsInt(currentPassenger));
+        buffer.putDouble(currentHealth);
+        buffer.putInt(carIndices.applyAsInt(collidingCar));
+        COLLISION_TIMEOUT.writeState(buffer);
+    }
+
+    /**
+     * Restores the state of the taxi from a game snapshot.
+     * @param buffer The buffer to read from.
+     * @param cars Gives the car at an index in the snapshot, or null for -1.
+     * @param passengers Gives the passenger at an index in the snapshot, or null for -1.
+     */
+    public void readState(ByteBuffer buffer, IntFunction<Car> cars, IntFunction<Passenger> passengers) {
+        readPosition(buffer);
+        isTaxiMoved = SnapshotUtils.getBoolean(buffer);
+        hasDriver = SnapshotUtils.getBoolean(buffer);
+        currentPassenger = passengers.apply(buffer.getInt());
+        currentHealth = buffer.getDouble();
+        collidingCar = cars.apply(buffer.getInt());
+        COLLISION_TIMEOUT.readState(buffer);
+    }
+
 }
@@ -0,0 +1,57 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event emitted when the current taxi breaks down and a new one is spawned.
+ */
+@Name("shadowtaxi.TaxiBreakdown")
+@Label("Taxi Breakdown")
+@Category({"ShadowTaxi", "Gameplay"})
+@Description("The current taxi broke down")
+public class TaxiBreakdownEvent extends Event {
+
+    /**
+     * The X-coordinate the taxi broke down at.
+     */
+    @Label("X")
+    private int x;
+
+    /**
+     * The Y-coordinate the taxi broke down at.
+     */
+    @Label("Y")
+    private int y;
+
+    /**
+     * Whether a passenger was ejected from the taxi.
+     */
+    @Label("Passenger Ejected")
+    private boolean passengerEjected;
+
+    /**
+     * Whether the driver was ejected from the taxi.
+     */
+    @Label("Driver Ejected")
+    private boolean driverEjected;
+
+    /**
+     * Emits the event for a taxi that just broke down.
+     * Costs nothing beyond the enabled check when the event is not being recorded.
+     * @param taxi The taxi that broke down.
+     * @param passengerEjected Whether a passenger was ejected from the taxi.
+     * @param driverEjected Whether the driver was ejected from the taxi.
+     */
+    public static void emit(Taxi taxi, boolean passengerEjected, boolean driverEjected) {
+        TaxiBreakdownEvent event = new TaxiBreakdownEvent();
+        if (event.shouldCommit()) {
+            event.x = taxi.getX();
+            event.y = taxi.getY();
+            event.passengerEjected = passengerEjected;
+            event.driverEjected = driverEjected;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * A utility class that provides text formatting for values rendered every frame.
+ */
+public class TextUtils {
+
+    /**
+     * Integers from 0 up to (but not including) this value have their text cached.
+     */
+    private static final int MAX_CACHED_INT = 1 << 16;
+
+    /**
+     * The initial number of cached integer texts.
+     */
+    private static final int INITIAL_CACHE_SIZE = 256;
+
+    /**
+     * The cached text of every non-negative integer formatted so far, indexed by the integer itself.
+     * Grows on demand up to MAX_CACHED_INT entries.
+     */
+    private static String[] intTexts = new String[INITIAL_CACHE_SIZE];
+
+    /**
+     * Converts an integer to its decimal text.
+     * The text of small non-negative integers (e.g. frame counters) is created once and reused afterwards,
+     * so counters that change every frame do not allocate a new string every frame.
+     * @param value The integer to be converted.
+     * @return The decimal text of the integer, identical to Integer.toString(value).
+     */
+    public static String intToString(int value) {
+        if (value < 0 || value >= MAX_CACHED_INT) {
+            return Integer.toString(value);
+        }
+        if (value >= intTexts.length) {
+            int newLength = intTexts.length;
+            while (newLength <= value) {
+                newLength *= 2;
+            }
+            String[] grownTexts = new String[Math.min(newLength, MAX_CACHED_INT)];
+            System.arraycopy(intTexts, 0, grownTexts, 0, intTexts.length);
+            intTexts = grownTexts;
+        }
+
+        String text = intTexts[value];
+        if (text == null) {
+            text = Integer.toString(value);
+            intTexts[value] = text;
+        }
+        return text;
+    }
+}
@@ -0,0 +1,272 @@
+import java.nio.ByteBuffer;
+
+/**
+ * A frame-indexed hierarchical timing wheel.
+ * Timers are scheduled once with a delay in frames and run their callback when that frame is reached, so the cost of
+ * each frame is proportional to the number of expiring timers rather than the number of live entities.
+ * Each level has 64 slots, and every level covers 64 times the range of the level below it. Timers far in the future
+ * are stored on higher levels and cascaded down to lower levels as the current frame gets closer to their expiry.
+ * Timers expiring on the same frame run in the order they were scheduled, which game snapshots keep, so a game
+ * restored from a snapshot runs its timers (and draws its random numbers) in the same order as the original game.
+ */
+
+public class TimingWheel {
+
+    /**
+     * The number of bits of the frame number that index the slots of a single level.
+     */
+    private static final int SLOT_BITS = 6;
+
+    /**
+     * The number of slots in each level.
+     */
+    private static final int SLOTS_PER_LEVEL = 1 << SLOT_BITS;
+
+    /**
+     * The mask used to turn a frame number into a slot index.
+     */
+    private static final int SLOT_MASK = SLOTS_PER_LEVEL - 1;
+
+    /**
+     * The number of levels of the wheel.
+     */
+    private static final int LEVELS = 4;
+
+    /**
+     * The longest delay that can be scheduled. Longer delays are clamped to this value.
+     */
+    private static final long MAX_DELAY_FRAMES = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    /**
+     * The first timer of every slot of every level, or null if the slot is empty. The timers of a slot are linked in
+     * the order they were scheduled.
+     */
+    private final WheelTimer[][] SLOT_HEADS;
+
+    /**
+     * The last timer of every slot of every level, or null if the slot is empty.
+     */
+    private final WheelTimer[][] SLOT_TAILS;
+
+    /**
+     * The current frame of the wheel, increases by 1 every tick.
+     */
+    private long currentFrame;
+
+    /**
+     * The sequence number given to the next timer scheduled.
+     */
+    private long nextSequence;
+
+    /**
+     * Constructor for timing wheel.
+     * The wheel starts at frame 0 with no timers scheduled.
+     */
+    public TimingWheel() {
+        this.SLOT_HEADS = new WheelTimer[LEVELS][SLOTS_PER_LEVEL];
+        this.SLOT_TAILS = new WheelTimer[LEVELS][SLOTS_PER_LEVEL];
+        this.currentFrame = 0;
+        this.nextSequence = 0;
+    }
+
+    /**
+     * Schedules a timer to expire after a number of frames.
+     * If the timer is already pending, it is rescheduled.
+     * @param timer The timer to be scheduled.
+     * @param delayFrames The number of ticks after which the timer expires, must be at least 1.
+     */
+    public void schedule(WheelTimer timer, int delayFrames) {
+        if (delayFrames < 1) {
+            throw new IllegalArgumentException("Timer delay must be at least 1 frame, got " + delayFrames);
+        }
+        cancel(timer);
+        timer.expiryFrame = currentFrame + Math.min(delayFrames, MAX_DELAY_FRAMES);
+        timer.sequence = nextSequence++;
+        insert(timer);
+    }
+
+    /**
+     * Cancels a timer so that its callback will not run. Does nothing if the timer is not pending.
+     * @param timer The timer to be cancelled.
+     */
+    public void cancel(WheelTimer timer) {
+        if (timer.isPending) {
+            unlink(timer);
+        }
+    }
+
+    /**
+     * Advances the wheel by one frame and runs the callbacks of all timers expiring on the new frame.
+     * This function is called once every frame.
+     */
+    public void tick() {
+        currentFrame++;
+
+        // Cascade from the highest level down, so timers moved down a level are cascaded again in the same tick.
+        for (int level = LEVELS - 1; level > 0; level--) {
+            long lowerLevelsMask = (1L << (SLOT_BITS * level)) - 1;
+            if ((currentFrame & lowerLevelsMask) == 0) {
+                cascade(level, (int) ((currentFrame >>> (SLOT_BITS * level)) & SLOT_MASK));
+            }
+        }
+
+        WheelTimer[] firstLevel = SLOT_HEADS[0];
+        int slot = (int) (currentFrame & SLOT_MASK);
+        WheelTimer timer;
+        while ((timer = firstLevel[slot]) != null) {
+            unlink(timer);
+            timer.expire();
+        }
+    }
+
+    /**
+     * Writes the state of a timer to a game snapshot.
+     * State: frames remaining before the timer expires (int, 0 if not pending), sequence number (long, 0 if not
+     * pending).
+     * @param buffer The buffer to write to.
+     * @param timer The timer.
+     */
+    public void writeTimer(ByteBuffer buffer, WheelTimer timer) {
+        buffer.putInt(getRemainingFrames(timer));
+        buffer.putLong(timer.isPending ? timer.sequence : 0);
+    }
+
+    /**
+     * Restores a timer from a game snapshot, which is only pending if it had frames remaining. It keeps its sequence
+     * number, so it runs in the same order as before among the timers expiring on the same frame.
+     * @param buffer The buffer to read from.
+     * @param timer The timer to be restored.
+     */
+    public void readTimer(ByteBuffer buffer, WheelTimer timer) {
+        int remainingFrames = buffer.getInt();
+        long sequence = buffer.getLong();
+        cancel(timer);
+        if (remainingFrames > 0) {
+            timer.expiryFrame = currentFrame + remainingFrames;
+            timer.sequence = sequence;
+            insert(timer);
+        }
+    }
+
+    /**
+     * Writes the state of the wheel itself to a game snapshot: the sequence number of the next timer (long).
+     * @param buffer The buffer to write to.
+     */
+    public void writeState(ByteBuffer buffer) {
+        buffer.putLong(nextSequence);
+    }
+
+    /**
+     * Restores the state of the wheel itself from a game snapshot. Read after every timer has been restored, as the
+     * objects created again while restoring schedule timers of their own.
+     * @param buffer The buffer to read from.
+     */
+    public void readState(ByteBuffer buffer) {
+        nextSequence = buffer.getLong();
+    }
+
+    /**
+     * Moves the wheel to a frame restored from a game snapshot, cancelling every pending timer.
+     * The timers that were pending in the snapshot are then restored by their owners.
+     * @param frame The frame the wheel is moved to.
+     */
+    public void restoreCurrentFrame(long frame) {
+        for (WheelTimer[] level : SLOT_HEADS) {
+            for (WheelTimer head : level) {
+                WheelTimer timer = head;
+                while (timer != null) {
+                    WheelTimer next = timer.next;
+                    unlink(timer);
+                    timer = next;
+                }
+            }
+        }
+        currentFrame = frame;
+    }
+
+    /**
+     * Gets the current frame of the wheel.
+     * @return The number of ticks since the wheel was created.
+     */
+    public long getCurrentFrame() {
+        return currentFrame;
+    }
+
+    /**
+     * Gets the number of frames until a pending timer expires.
+     * @param timer The pending timer.
+     * @return The number of frames remaining before the timer expires, or 0 if the timer is not pending.
+     */
+    public int getRemainingFrames(WheelTimer timer) {
+        return timer.isPending ? (int) (timer.expiryFrame - currentFrame) : 0;
+    }
+
+    /**
+     * Moves every timer of a higher level slot to the level matching its remaining delay.
+     * @param level The level of the slot.
+     * @param slot The index of the slot.
+     */
+    private void cascade(int level, int slot) {
+        WheelTimer timer;
+        while ((timer = SLOT_HEADS[level][slot]) != null) {
+            unlink(timer);
+            insert(timer);
+        }
+    }
+
+    /**
+     * Links a timer into the slot matching its expiry frame, after every timer of the slot scheduled before it.
+     * The level is the lowest one whose slot range contains both the current frame and the expiry frame.
+     * A newly scheduled timer goes straight to the end of the slot, and a cascaded timer only passes the few timers
+     * scheduled after it, as every slot is cascaded from its start.
+     * @param timer The timer to be linked.
+     */
+    private void insert(WheelTimer timer) {
+        long differingBits = timer.expiryFrame ^ currentFrame;
+        int level = 0;
+        while (level < LEVELS - 1 && (differingBits >>> (SLOT_BITS * (level + 1))) != 0) {
+            level++;
+        }
+        int slot = (int) ((timer.expiryFrame >>> (SLOT_BITS * level)) & SLOT_MASK);
+
+        WheelTimer previous = SLOT_TAILS[level][slot];
+        while (previous != null && previous.sequence > timer.sequence) {
+            previous = previous.prev;
+        }
+        timer.level = level;
+        timer.slot = slot;
+        timer.prev = previous;
+        timer.next = previous != null ? previous.next : SLOT_HEADS[level][slot];
+        if (timer.next != null) {
+            timer.next.prev = timer;
+        } else {
+            SLOT_TAILS[level][slot] = timer;
+        }
+        if (previous != null) {
+            previous.next = timer;
+        } else {
+            SLOT_HEADS[level][slot] = timer;
+        }
+        timer.isPending = true;
+    }
+
+    /**
+     * Removes a timer from the slot it is linked into.
+     * @param timer The timer to be removed.
+     */
+    private void unlink(WheelTimer timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            SLOT_HEADS[timer.level][timer.slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        } else {
+            SLOT_TAILS[timer.level][timer.slot] = timer.prev;
+        }
+        timer.prev = null;
+        timer.next = null;
+        timer.isPending = false;
+    }
+}
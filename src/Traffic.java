@@ -0,0 +1,94 @@
+/**
+ * Class representing the traffic over a range of frames.
+ * Each traffic interval consists of the start frame, end frame, and the spawn rates of other cars, enemy cars and
+ * fireballs during it (see SpawnSchedule for what a spawn rate means).
+ */
+public class Traffic {
+
+    /**
+     * The frame at which the traffic interval starts.
+     */
+    private final int START_FRAME;
+
+    /**
+     * The frame at which the traffic interval ends.
+     */
+    private final int END_FRAME;
+
+    /**
+     * The spawn rate of other cars during the interval.
+     */
+    private final int OTHER_CAR_SPAWN_RATE;
+
+    /**
+     * The spawn rate of enemy cars during the interval.
+     */
+    private final int ENEMY_CAR_SPAWN_RATE;
+
+    /**
+     * The rate at which each enemy car shoots fireballs during the interval.
+     */
+    private final int FIREBALL_SPAWN_RATE;
+
+    /**
+     * Constructor for Traffic class.
+     * @param startFrame The frame when the traffic interval starts.
+     * @param endFrame The frame when the traffic interval ends.
+     * @param otherCarSpawnRate The spawn rate of other cars during the interval.
+     * @param enemyCarSpawnRate The spawn rate of enemy cars during the interval.
+     * @param fireballSpawnRate The rate at which each enemy car shoots fireballs during the interval.
+     * @throws IllegalArgumentException If any of the spawn rates is less than 1.
+     */
+    public Traffic(int startFrame, int endFrame, int otherCarSpawnRate, int enemyCarSpawnRate,
+                   int fireballSpawnRate) {
+        if (otherCarSpawnRate < 1 || enemyCarSpawnRate < 1 || fireballSpawnRate < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Spawn rates of traffic interval starting at frame %d must be at least 1", startFrame));
+        }
+        this.START_FRAME = startFrame;
+        this.END_FRAME = endFrame;
+        this.OTHER_CAR_SPAWN_RATE = otherCarSpawnRate;
+        this.ENEMY_CAR_SPAWN_RATE = enemyCarSpawnRate;
+        this.FIREBALL_SPAWN_RATE = fireballSpawnRate;
+    }
+
+    /**
+     * Gets the frame at which the traffic interval starts.
+     * @return The frame at which the traffic interval starts.
+     */
+    public int getStartFrame() {
+        return START_FRAME;
+    }
+
+    /**
+     * Gets the frame at which the traffic interval ends.
+     * @return The frame at which the traffic interval ends.
+     */
+    public int getEndFrame() {
+        return END_FRAME;
+    }
+
+    /**
+     * Gets the spawn rate of other cars during the interval.
+     * @return The spawn rate of other cars.
+     */
+    public int getOtherCarSpawnRate() {
+        return OTHER_CAR_SPAWN_RATE;
+    }
+
+    /**
+     * Gets the spawn rate of enemy cars during the interval.
+     * @return The spawn rate of enemy cars.
+     */
+    public int getEnemyCarSpawnRate() {
+        return ENEMY_CAR_SPAWN_RATE;
+    }
+
+    /**
+     * Gets the rate at which each enemy car shoots fireballs during the interval.
+     * @return The spawn rate of fireballs.
+     */
+    public int getFireballSpawnRate() {
+        return FIREBALL_SPAWN_RATE;
+    }
+}
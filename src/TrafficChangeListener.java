@@ -0,0 +1,12 @@
+/**
+ * TrafficChangeListener interface represent objects that react to the traffic changing during gameplay.
+ * Listeners are only notified on transitions, so they do not need to check the traffic every frame.
+ */
+public interface TrafficChangeListener {
+
+    /**
+     * Called when the current traffic interval changes, including when the first traffic of a game is published.
+     * @param traffic The new traffic interval.
+     */
+    void onTrafficChanged(Traffic traffic);
+}
@@ -0,0 +1,108 @@
+import java.util.ArrayList;
+
+/**
+ * Class representing the traffic of a whole game, compiled from a traffic file into a frame-indexed timeline.
+ * Works like the weather timeline: the intervals are stored in order with a cursor that follows the current frame, the
+ * timeline is validated when it is built, and it publishes an event to its listeners whenever the interval changes.
+ */
+public class TrafficTimeline {
+
+    /**
+     * The traffic intervals, in order.
+     */
+    private final Traffic[] INTERVALS;
+
+    /**
+     * The objects notified whenever the traffic changes.
+     */
+    private final ArrayList<TrafficChangeListener> LISTENERS;
+
+    /**
+     * The index of the traffic interval containing the most recently looked up frame.
+     */
+    private int cursor;
+
+    /**
+     * The traffic interval of the most recently looked up frame, or null if no frame has been looked up yet.
+     */
+    private Traffic currentTraffic;
+
+    /**
+     * Constructor for traffic timeline.
+     * Intervals must be in order, and each interval must start on the frame the previous one ends (that frame belongs
+     * to the previous interval) or on the frame right after it.
+     * @param intervals The traffic intervals loaded from the traffic file.
+     * @throws IllegalArgumentException If there are no intervals, or the intervals have gaps or overlaps.
+     */
+    public TrafficTimeline(ArrayList<Traffic> intervals) {
+        if (intervals.isEmpty()) {
+            throw new IllegalArgumentException("Traffic file must contain at least one traffic interval");
+        }
+
+        INTERVALS = new Traffic[intervals.size()];
+        for (int i = 0; i < INTERVALS.length; i++) {
+            Traffic traffic = intervals.get(i);
+            if (traffic.getEndFrame() < traffic.getStartFrame()) {
+                throw new IllegalArgumentException(String.format("Traffic interval %d ends (%d) before it starts (%d)",
+                        i + 1, traffic.getEndFrame(), traffic.getStartFrame()));
+            }
+            if (i > 0) {
+                int previousEnd = INTERVALS[i - 1].getEndFrame();
+                if (traffic.getStartFrame() > previousEnd + 1) {
+                    throw new IllegalArgumentException(String.format(
+                            "Gap in traffic file between frame %d and frame %d", previousEnd, traffic.getStartFrame()));
+                }
+                if (traffic.getStartFrame() < previousEnd) {
+                    throw new IllegalArgumentException(String.format(
+                            "Traffic interval %d starts at frame %d, overlapping the previous interval ending at %d",
+                            i + 1, traffic.getStartFrame(), previousEnd));
+                }
+            }
+            INTERVALS[i] = traffic;
+        }
+
+        this.LISTENERS = new ArrayList<>();
+        reset();
+    }
+
+    /**
+     * Looks up the traffic at the given frame and notifies all listeners if it differs from the previous traffic.
+     * Frames before the first interval or after the last interval use the traffic of the nearest interval.
+     * @param frame The current frame of the game.
+     */
+    public void update(int frame) {
+        // Move the cursor forward (normal gameplay) or backward (game was rewound) until it contains the frame.
+        while (cursor < INTERVALS.length - 1 && frame > INTERVALS[cursor].getEndFrame()) {
+            cursor++;
+        }
+        while (cursor > 0 && frame <= INTERVALS[cursor - 1].getEndFrame()) {
+            cursor--;
+        }
+
+        Traffic traffic = INTERVALS[cursor];
+        if (traffic != currentTraffic) {
+            currentTraffic = traffic;
+            for (TrafficChangeListener listener : LISTENERS) {
+                listener.onTrafficChanged(traffic);
+            }
+        }
+    }
+
+    /**
+     * Adds an object to be notified whenever the traffic changes.
+     * @param listener The object to be notified.
+     */
+    public void addListener(TrafficChangeListener listener) {
+        LISTENERS.add(listener);
+    }
+
+    /**
+     * Resets the timeline for a new game.
+     * All listeners are removed, and the traffic of the next looked up frame is published as a change.
+     */
+    public void reset() {
+        LISTENERS.clear();
+        cursor = 0;
+        currentTraffic = null;
+    }
+}
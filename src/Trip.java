@@ -1,3 +1,4 @@
+import java.nio.ByteBuffer;
 import java.util.Properties;
 
 /**
@@ -88,6 +89,7 @@ public class Trip {
         if (PASSENGER.isPickedUp() && POWER_UP_STATE.isCoinActivated()) {
             PASSENGER.decreasePriority();
         }
+        TripStartEvent.emit(PASSENGER);
     }
 
     /**
@@ -97,12 +99,8 @@ public class Trip {
     public void checkPenalty() {
         // If taxi has moved beyond the trip end flag
         if (TAXI.getY() < TRIP_END_FLAG.getY() && !PASSENGER.isPenaltyImposed()) {
-            // Calculate the distance between the taxi and the trip end flag
-            double taxiFlagDistance = Math.sqrt(Math.pow(TAXI.getX() - TRIP_END_FLAG.getX(), 2) +
-                    Math.pow(TAXI.getY() - TRIP_END_FLAG.getY(), 2));
-
-            // If the distance is greater than the flag's radius, impose penalty
-            if (taxiFlagDistance > TRIP_END_FLAG.getRadius()) {
+            // If the distance between the taxi and the flag is greater than the flag's radius, impose penalty
+            if (!TRIP_END_FLAG.isWithinRadius(TAXI.getX(), TAXI.getY())) {
                 this.penalty = PENALTY_RATE * Math.abs(TAXI.getY() - TRIP_END_FLAG.getY());
 
                 PASSENGER.setPenalty(penalty);
@@ -129,6 +127,7 @@ public class Trip {
         if (!PASSENGER.isEarningsAdded() && PASSENGER.isMovingToFlag()) {
             GAME_STATS.addTotalScore(PASSENGER.getEarnings());
             PASSENGER.addedEarnings();
+            TripCompleteEvent.emit(PASSENGER.getEarnings(), penalty);
         }
     }
 
@@ -187,4 +186,25 @@ public class Trip {
     public Passenger getPassenger() {
         return PASSENGER;
     }
+
+    /**
+     * Writes the state of the trip to a game snapshot.
+     * The taxi, passenger and trip end flag of the trip are written by the gameplay.
+     * @param buffer The buffer to write to.
+     */
+    public void writeState(ByteBuffer buffer) {
+        SnapshotUtils.putBoolean(buffer, isOngoing);
+        SnapshotUtils.putBoolean(buffer, isCompleted);
+        buffer.putDouble(penalty);
+    }
+
+    /**
+     * Restores the state of the trip from a game snapshot.
+     * @param buffer The buffer to read from.
+     */
+    public void readState(ByteBuffer buffer) {
+        isOngoing = SnapshotUtils.getBoolean(buffer);
+        isCompleted = SnapshotUtils.getBoolean(buffer);
+        penalty = buffer.getDouble();
+    }
 }
@@ -0,0 +1,42 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event emitted when a passenger leaves the taxi and the earnings of the trip are counted.
+ */
+@Name("shadowtaxi.TripComplete")
+@Label("Trip Complete")
+@Category({"ShadowTaxi", "Gameplay"})
+@Description("A trip was completed and its earnings were added to the score")
+public class TripCompleteEvent extends Event {
+
+    /**
+     * The earnings added to the score, after the penalty.
+     */
+    @Label("Earnings")
+    private double earnings;
+
+    /**
+     * The penalty for overshooting the trip end flag.
+     */
+    @Label("Penalty")
+    private double penalty;
+
+    /**
+     * Emits the event for a trip that was just completed.
+     * Costs nothing beyond the enabled check when the event is not being recorded.
+     * @param earnings The earnings added to the score, after the penalty.
+     * @param penalty The penalty for overshooting the trip end flag.
+     */
+    public static void emit(double earnings, double penalty) {
+        TripCompleteEvent event = new TripCompleteEvent();
+        if (event.shouldCommit()) {
+            event.earnings = earnings;
+            event.penalty = penalty;
+            event.commit();
+        }
+    }
+}
@@ -1,3 +1,4 @@
+import java.nio.ByteBuffer;
 import java.util.Properties;
 
 /**
@@ -11,6 +12,11 @@ public class TripEndFlag extends Entity {
      */
     private boolean isActive;
 
+    /**
+     * The squared radius of the flag, cached so proximity checks against the flag need no square root.
+     */
+    private final double SQUARED_RADIUS;
+
     /**
      * Constructor for the trip end flag entity.
      * @param startX The initial X-coordinate for the trip end flag.
@@ -22,6 +28,7 @@ public class TripEndFlag extends Entity {
         super(startX, startY - distanceY, gameProps,
                 "gameObjects.tripEndFlag.image", "gameObjects.tripEndFlag.radius");
         this.isActive = false;
+        this.SQUARED_RADIUS = GeometryUtils.getSquaredRange(RADIUS);
     }
 
     /**
@@ -44,6 +51,16 @@ public class TripEndFlag extends Entity {
         }
     }
 
+    /**
+     * Checks if a point lies within (or exactly on) the radius of the trip end flag.
+     * @param x The x-coordinate of the point.
+     * @param y The y-coordinate of the point.
+     * @return True if the point is within the flag's radius, false otherwise.
+     */
+    public boolean isWithinRadius(int x, int y) {
+        return GeometryUtils.isWithinSquaredRange(getX(), getY(), x, y, SQUARED_RADIUS);
+    }
+
     /**
      * Activates the trip end flag.
      */
@@ -57,4 +74,22 @@ public class TripEndFlag extends Entity {
     public void deactivate() {
         this.isActive = false;
     }
+
+    /**
+     * Writes the state of the trip end flag to a game snapshot.
+     * @param buffer The buffer to write to.
+     */
+    public void writeState(ByteBuffer buffer) {
+        writePosition(buffer);
+        SnapshotUtils.putBoolean(buffer, isActive);
+    }
+
+    /**
+     * Restores the state of the trip end flag from a game snapshot.
+     * @param buffer The buffer to read from.
+     */
+    public void readState(ByteBuffer buffer) {
+        readPosition(buffer);
+        isActive = SnapshotUtils.getBoolean(buffer);
+    }
 }
@@ -0,0 +1,41 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event emitted when a passenger is picked up and a trip begins.
+ */
+@Name("shadowtaxi.TripStart")
+@Label("Trip Start")
+@Category({"ShadowTaxi", "Gameplay"})
+@Description("A passenger was picked up and a trip began")
+public class TripStartEvent extends Event {
+
+    /**
+     * The priority of the passenger when the trip began.
+     */
+    @Label("Priority")
+    private int priority;
+
+    /**
+     * The expected earnings of the trip when it began.
+     */
+    @Label("Expected Earnings")
+    private double expectedEarnings;
+
+    /**
+     * Emits the event for a trip that just began.
+     * Costs nothing beyond the enabled check when the event is not being recorded.
+     * @param passenger The passenger of the trip.
+     */
+    public static void emit(Passenger passenger) {
+        TripStartEvent event = new TripStartEvent();
+        if (event.shouldCommit()) {
+            event.priority = passenger.getPriority();
+            event.expectedEarnings = passenger.getEarnings();
+            event.commit();
+        }
+    }
+}
@@ -7,7 +7,7 @@ public class Weather {
     /**
      * The type of weather (sunny/rainy).
      */
-    private final String TYPE;
+    private final WeatherType TYPE;
 
     /**
      * The frame at which the weather condition starts.
@@ -25,7 +25,7 @@ public class Weather {
      * @param startFrame The frame when the weather condition starts.
      * @param endFrame The frame when the weather condition ends.
      */
-    public Weather(String type, int startFrame, int endFrame) {
+    public Weather(WeatherType type, int startFrame, int endFrame) {
         this.TYPE = type;
         this.START_FRAME = startFrame;
         this.END_FRAME = endFrame;
@@ -35,7 +35,7 @@ public class Weather {
      * Gets the type of the weather (sunny/rainy).
      * @return The type of the weather (sunny/rainy).
      */
-    public String getType() {
+    public WeatherType getType() {
         return TYPE;
     }
 
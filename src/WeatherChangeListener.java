@@ -0,0 +1,12 @@
+/**
+ * WeatherChangeListener interface represent objects that react to the weather changing during gameplay.
+ * Listeners are only notified on transitions, so they do not need to check the weather every frame.
+ */
+public interface WeatherChangeListener {
+
+    /**
+     * Called when the current weather changes, including when the first weather of a game is published.
+     * @param weather The new weather type.
+     */
+    void onWeatherChanged(WeatherType weather);
+}
@@ -0,0 +1,133 @@
+import java.util.ArrayList;
+
+/**
+ * Class representing the weather of a whole game, compiled from the weather file into a frame-indexed timeline.
+ * The weather intervals are stored in arrays with a cursor that follows the current frame, so looking up the
+ * current weather is O(1) when frames advance forward.
+ * The timeline is validated when it is built, and it publishes an event to its listeners whenever the weather changes.
+ */
+public class WeatherTimeline {
+
+    /**
+     * The frame at which each weather interval starts.
+     */
+    private final int[] START_FRAMES;
+
+    /**
+     * The frame at which each weather interval ends (inclusive).
+     */
+    private final int[] END_FRAMES;
+
+    /**
+     * The weather type of each weather interval.
+     */
+    private final WeatherType[] TYPES;
+
+    /**
+     * The objects notified whenever the weather changes.
+     */
+    private final ArrayList<WeatherChangeListener> LISTENERS;
+
+    /**
+     * The index of the weather interval containing the most recently looked up frame.
+     */
+    private int cursor;
+
+    /**
+     * The weather type of the most recently looked up frame, or null if no frame has been looked up yet.
+     */
+    private WeatherType currentWeather;
+
+    /**
+     * Constructor for weather timeline.
+     * Intervals must be in order, and each interval must start on the frame the previous one ends (that frame belongs
+     * to the previous interval) or on the frame right after it.
+     * @param intervals The weather intervals loaded from the weather file.
+     * @throws IllegalArgumentException If there are no intervals, or the intervals have gaps or overlaps.
+     */
+    public WeatherTimeline(ArrayList<Weather> intervals) {
+        if (intervals.isEmpty()) {
+            throw new IllegalArgumentException("Weather file must contain at least one weather interval");
+        }
+
+        int numOfIntervals = intervals.size();
+        START_FRAMES = new int[numOfIntervals];
+        END_FRAMES = new int[numOfIntervals];
+        TYPES = new WeatherType[numOfIntervals];
+
+        for (int i = 0; i < numOfIntervals; i++) {
+            Weather weather = intervals.get(i);
+            if (weather.getEndFrame() < weather.getStartFrame()) {
+                throw new IllegalArgumentException(String.format("Weather interval %d ends (%d) before it starts (%d)",
+                        i + 1, weather.getEndFrame(), weather.getStartFrame()));
+            }
+            if (i > 0) {
+                int previousEnd = END_FRAMES[i - 1];
+                if (weather.getStartFrame() > previousEnd + 1) {
+                    throw new IllegalArgumentException(String.format(
+                            "Gap in weather file between frame %d and frame %d", previousEnd, weather.getStartFrame()));
+                }
+                if (weather.getStartFrame() < previousEnd) {
+                    throw new IllegalArgumentException(String.format(
+                            "Weather interval %d starts at frame %d, overlapping the previous interval ending at %d",
+                            i + 1, weather.getStartFrame(), previousEnd));
+                }
+            }
+            START_FRAMES[i] = weather.getStartFrame();
+            END_FRAMES[i] = weather.getEndFrame();
+            TYPES[i] = weather.getType();
+        }
+
+        this.LISTENERS = new ArrayList<>();
+        reset();
+    }
+
+    /**
+     * Looks up the weather at the given frame and notifies all listeners if it differs from the previous weather.
+     * Frames before the first interval or after the last interval use the weather of the nearest interval.
+     * @param frame The current frame of the game.
+     */
+    public void update(int frame) {
+        // Move the cursor forward (normal gameplay) or backward (game was reset) until it contains the frame.
+        while (cursor < END_FRAMES.length - 1 && frame > END_FRAMES[cursor]) {
+            cursor++;
+        }
+        while (cursor > 0 && frame <= END_FRAMES[cursor - 1]) {
+            cursor--;
+        }
+
+        WeatherType weather = TYPES[cursor];
+        if (weather != currentWeather) {
+            currentWeather = weather;
+            for (WeatherChangeListener listener : LISTENERS) {
+                listener.onWeatherChanged(weather);
+            }
+        }
+    }
+
+    /**
+     * Adds an object to be notified whenever the weather changes.
+     * @param listener The object to be notified.
+     */
+    public void addListener(WeatherChangeListener listener) {
+        LISTENERS.add(listener);
+    }
+
+    /**
+     * Resets the timeline for a new game.
+     * All listeners are removed, and the weather of the next looked up frame is published as a change.
+     */
+    public void reset() {
+        LISTENERS.clear();
+        cursor = 0;
+        currentWeather = null;
+    }
+
+    /**
+     * Gets the weather type of the most recently looked up frame.
+     * @return The current weather type, or null if no frame has been looked up yet.
+     */
+    public WeatherType getCurrentWeather() {
+        return currentWeather;
+    }
+}
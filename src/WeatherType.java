@@ -0,0 +1,8 @@
+/**
+ * WeatherType indicates the 2 possible weather conditions of the game.
+ * The names match the weather types used in the weather file (i.e. gameWeather.csv).
+ */
+public enum WeatherType {
+    SUNNY,
+    RAINING
+}
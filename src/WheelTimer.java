@@ -0,0 +1,79 @@
+/**
+ * A timer that runs a callback once a certain number of frames have passed on a timing wheel.
+ * A timer can be re-armed any number of times, so entities own their timers instead of creating new ones per event.
+ */
+public class WheelTimer {
+
+    /**
+     * The callback that is run when the timer expires.
+     */
+    private final Runnable CALLBACK;
+
+    /**
+     * The frame at which the timer expires.
+     */
+    long expiryFrame;
+
+    /**
+     * The order in which the timer was scheduled on its wheel. Timers expiring on the same frame run in this order.
+     */
+    long sequence;
+
+    /**
+     * The wheel level of the slot the timer is currently linked into.
+     */
+    int level;
+
+    /**
+     * The index of the slot the timer is currently linked into.
+     */
+    int slot;
+
+    /**
+     * The previous timer in the same slot, or null if this timer is at the head of the slot.
+     */
+    WheelTimer prev;
+
+    /**
+     * The next timer in the same slot, or null if this timer is at the tail of the slot.
+     */
+    WheelTimer next;
+
+    /**
+     * Boolean indicating whether the timer is currently scheduled on a timing wheel.
+     */
+    boolean isPending;
+
+    /**
+     * Constructor for wheel timer.
+     * @param callback The callback that is run when the timer expires.
+     */
+    public WheelTimer(Runnable callback) {
+        this.CALLBACK = callback;
+        this.isPending = false;
+    }
+
+    /**
+     * Runs the callback of the timer.
+     */
+    void expire() {
+        CALLBACK.run();
+    }
+
+    /**
+     * Checks if the timer is currently scheduled and has not expired yet.
+     * @return True if the timer is pending, false otherwise.
+     */
+    public boolean isPending() {
+        return isPending;
+    }
+
+    /**
+     * Gets the frame at which the timer expires.
+     * Only meaningful while the timer is pending.
+     * @return The frame at which the timer expires.
+     */
+    public long getExpiryFrame() {
+        return expiryFrame;
+    }
+}